@@ -0,0 +1,50 @@
+/*
+ * Copyright 2025 SaydaGames (mc_jojo3)
+ *
+ * This file is part of MCraze
+ *
+ * MCraze is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * MCraze is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with MCraze. If not, see http://www.gnu.org/licenses/.
+ */
+
+
+package mc.sayda.awtgraphics;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+
+import mc.sayda.Sprite;
+
+/**
+ * AwtGraphicsHandler drawing into an image instead of a window, so the real
+ * render path can be timed headless. Sprites come from the usual AwtSpriteStore.
+ */
+public class ImageGraphicsHandler extends AwtGraphicsHandler {
+	public final BufferedImage screen;
+	
+	public ImageGraphicsHandler(int width, int height) {
+		screen = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		screenWidth = width;
+		screenHeight = height;
+	}
+	
+	@Override
+	public void startDrawing() {
+		g = screen.createGraphics();
+		g.setColor(Color.black);
+		g.fillRect(0, 0, screenWidth, screenHeight);
+	}
+	
+	@Override
+	public void finishDrawing() {
+		g.dispose();
+	}
+	
+	@Override
+	public Sprite createOffscreen(int width, int height) {
+		return new AwtSprite(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB), null);
+	}
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2025 SaydaGames (mc_jojo3)
+ *
+ * This file is part of MCraze
+ *
+ * MCraze is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * MCraze is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with MCraze. If not, see http://www.gnu.org/licenses/.
+ */
+
+
+package mc.sayda.network;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+
+import mc.sayda.Color;
+import mc.sayda.SpriteStore;
+import mc.sayda.network.packet.*;
+import mc.sayda.world.Chunk;
+import mc.sayda.world.World;
+
+/**
+ * Compare PacketCodec with Java serialization: bytes per packet, and nanoseconds to
+ * encode and decode one. Packets are not Serializable any more, so the serialization
+ * side writes an Object[] of each packet's fields, which is what it would have written
+ * for the packet itself less the class description.
+ */
+public class CodecBench {
+	private static final int WARMUP = 100000;
+	private static final int ROUNDS = 100000;
+
+	// so the JIT cannot drop the work being timed
+	private static long sink;
+
+	public static void main(String[] args) throws Exception {
+		SpriteStore.useNullSprites();
+		World world = new World(512, 256, 9L);
+		Chunk chunk = world.tiles.getChunk(8);
+
+		PacketEntityUpdate entities = new PacketEntityUpdate(20);
+		Random random = new Random(1);
+		for (int i = 0; i < 20; i++) {
+			entities.entityIds[i] = i + 1;
+			entities.dirty[i] = PacketEntityUpdate.X | PacketEntityUpdate.DX;
+			entities.deltaX[i] = random.nextInt(64) - 32;
+			entities.velocityX[i] = random.nextInt(256) - 128;
+		}
+		entities.tick = 123456;
+		BitSet changed = new BitSet();
+		changed.set(5 * chunk.height + 100);
+
+		Packet[] packets = {
+				new PacketPlayerInput(false, true, false, true, false, 263.25, 101.5, 3),
+				new PacketBlockChange(263, 101, (char) 3, true),
+				new PacketChatSend("hello everyone"),
+				new PacketChatMessage("<player> hello everyone", Color.white),
+				worldUpdate(world, chunk, ChunkRuns.encodeDelta(chunk, changed), 41),
+				worldUpdate(world, chunk, ChunkRuns.encodeFull(chunk), PacketWorldUpdate.FULL),
+				entities };
+		String[] names = { "input", "block change", "chat send", "chat message",
+				"one tile changed", "whole chunk", "20 entities moved" };
+
+		System.out.printf("%-20s %12s %12s %12s %12s %12s %12s%n", "packet", "codec B",
+				"serial B", "codec enc", "serial enc", "codec dec", "serial dec");
+		for (int i = 0; i < packets.length; i++) {
+			Packet packet = packets[i];
+			byte[] codec = encode(packet);
+			byte[] serial = serialize(packet);
+			if (!Arrays.equals(codec, encode(PacketCodec.decode(ByteBuffer.wrap(codec))))) {
+				throw new AssertionError(names[i] + " does not round trip");
+			}
+			double encode = time(() -> sink += PacketCodec.encode(packet).position());
+			double serialEncode = time(() -> sink += serialize(packet).length);
+			double decode = time(() -> sink += PacketCodec.decode(ByteBuffer.wrap(codec)).getPacketId());
+			double serialDecode = time(() -> sink += deserialize(serial).length);
+			System.out.printf("%-20s %12d %12d %9.0f ns %9.0f ns %9.0f ns %9.0f ns%n",
+					names[i], codec.length, serial.length, encode,
+					serialEncode, decode, serialDecode);
+		}
+	}
+
+	private static PacketWorldUpdate worldUpdate(World world, Chunk chunk, byte[] runs, int baseRevision) {
+		PacketWorldUpdate packet = new PacketWorldUpdate();
+		packet.ticksAlive = world.getTicksAlive();
+		packet.chunkIndexes = new int[] { chunk.index };
+		packet.baseRevisions = new int[] { baseRevision };
+		packet.revisions = new int[] { 42 };
+		packet.runs = new byte[][] { runs };
+		packet.unloadedChunks = new int[0];
+		return packet;
+	}
+
+	private interface Work {
+		void run() throws Exception;
+	}
+
+	/**
+	 * @return nanoseconds per run of work
+	 */
+	private static double time(Work work) throws Exception {
+		for (int i = 0; i < WARMUP; i++) {
+			work.run();
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < ROUNDS; i++) {
+			work.run();
+		}
+		return (double) (System.nanoTime() - start) / ROUNDS;
+	}
+
+	private static byte[] encode(Packet packet) {
+		ByteBuffer buffer = PacketCodec.encode(packet);
+		byte[] bytes = new byte[buffer.position()];
+		buffer.flip();
+		buffer.get(bytes);
+		return bytes;
+	}
+
+	private static byte[] serialize(Packet packet) throws IOException, IllegalAccessException {
+		ArrayList<Object> fields = new ArrayList<Object>();
+		for (Field field : packet.getClass().getFields()) {
+			if (!Modifier.isStatic(field.getModifiers())) {
+				fields.add(field.get(packet));
+			}
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(fields.toArray());
+		out.close();
+		return bytes.toByteArray();
+	}
+
+	private static Object[] deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes));
+		return (Object[]) in.readObject();
+	}
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2025 SaydaGames (mc_jojo3)
+ *
+ * This file is part of MCraze
+ *
+ * MCraze is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * MCraze is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with MCraze. If not, see http://www.gnu.org/licenses/.
+ */
+
+
+package mc.sayda.server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import mc.sayda.SpriteStore;
+import mc.sayda.Constants.TileID;
+import mc.sayda.network.ChunkRuns;
+import mc.sayda.network.NetworkThread;
+import mc.sayda.network.Packet;
+import mc.sayda.network.SocketConnection;
+import mc.sayda.network.packet.PacketChatSend;
+import mc.sayda.network.packet.PacketPlayerInput;
+import mc.sayda.network.packet.PacketWorldUpdate;
+import mc.sayda.world.Chunk;
+
+/**
+ * Scripted load over 127.0.0.1: CLIENTS clients each send an input every tick and chat
+ * once a second, and the server changes EDITS tiles every tick. Reports packets and
+ * syscalls a second, the latter from /proc/self/io for the whole process (Linux only).
+ * 
+ * Run twice: as the game does it, with one flush per connection a tick, and with a
+ * flush after every packet, the server sending each changed tile as its own world
+ * update the way a transport without batching would.
+ */
+public class BatchingBench {
+	private static final int CLIENTS = 20;
+	private static final int EDITS = 20;
+	private static final long WARMUP_MILLIS = 2000;
+	private static final long MEASURE_MILLIS = 5000;
+
+	public static void main(String[] args) throws Exception {
+		SpriteStore.useNullSprites();
+		run("batched", true);
+		run("a write per packet", false);
+	}
+
+	private static void run(String name, boolean batched) throws Exception {
+		Server server = new Server(null);
+		server.execute(() -> server.startWorld(512));
+		Thread serverThread = new Thread(server, "Server thread");
+		serverThread.start();
+		NetworkThread serverNetwork = new NetworkThread("Server network");
+		int port = serverNetwork.listen(0, server::connect);
+		NetworkThread clientNetwork = new NetworkThread("Client network");
+		List<SocketConnection> clients = new ArrayList<>();
+		for (int i = 0; i < CLIENTS; i++) {
+			clients.add(clientNetwork.connect(new InetSocketAddress("127.0.0.1", port)));
+		}
+		while (server.getSessions().size() < CLIENTS) {
+			Thread.sleep(10);
+		}
+
+		AtomicLong sent = new AtomicLong();
+		AtomicLong received = new AtomicLong();
+		AtomicBoolean running = new AtomicBoolean(true);
+		Thread driver = new Thread(() -> {
+			long next = System.nanoTime();
+			for (int tick = 0; running.get(); tick++) {
+				boolean place = tick % 2 == 0;
+				server.execute(() -> editTiles(server, place, batched));
+				for (int i = 0; i < CLIENTS; i++) {
+					SocketConnection client = clients.get(i);
+					send(client, new PacketPlayerInput(false, false, false, false, false, 1, 2, 0), batched);
+					sent.incrementAndGet();
+					if (tick % Server.TICKS_PER_SECOND == i % Server.TICKS_PER_SECOND) {
+						send(client, new PacketChatSend("hi"), batched);
+						sent.incrementAndGet();
+					}
+					client.flush();
+					received.addAndGet(client.receivePackets().length);
+				}
+				next += Server.TICK_NANOS;
+				long sleep = next - System.nanoTime();
+				if (sleep > 0) {
+					try {
+						Thread.sleep(sleep / 1000000, (int) (sleep % 1000000));
+					} catch (InterruptedException e) {
+						return;
+					}
+				}
+			}
+		}, "Clients");
+		driver.start();
+
+		Thread.sleep(WARMUP_MILLIS);
+		long[] syscallsBefore = syscalls();
+		long sentBefore = sent.get();
+		long receivedBefore = received.get();
+		long start = System.nanoTime();
+		Thread.sleep(MEASURE_MILLIS);
+		long[] syscallsAfter = syscalls();
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.printf("%s: clients send %.0f packets/s, receive %.0f packets/s; "
+				+ "%.0f write and %.0f read syscalls/s; server at %.1f ticks/s%n", name,
+				(sent.get() - sentBefore) / seconds, (received.get() - receivedBefore) / seconds,
+				(syscallsAfter[1] - syscallsBefore[1]) / seconds,
+				(syscallsAfter[0] - syscallsBefore[0]) / seconds, server.getTicksPerSecond());
+
+		running.set(false);
+		driver.join();
+		server.stop();
+		serverThread.join();
+		clientNetwork.close();
+		serverNetwork.close();
+	}
+
+	/**
+	 * Place or remove a row of EDITS tiles above spawn. Unbatched, also send every session
+	 * a world update per tile, flushed straight away.
+	 */
+	private static void editTiles(Server server, boolean place, boolean batched) {
+		int left = (int) server.world.spawnLocation.x - EDITS / 2;
+		int y = 40;
+		for (int x = left; x < left + EDITS; x++) {
+			server.world.changeTile(x, y, place ? TileID.STONE : TileID.AIR);
+			if (!batched) {
+				Chunk chunk = server.world.tiles.chunkAt(x);
+				BitSet changed = new BitSet();
+				changed.set((x & Chunk.MASK) * chunk.height + y);
+				PacketWorldUpdate update = new PacketWorldUpdate();
+				update.ticksAlive = server.world.getTicksAlive();
+				update.chunkIndexes = new int[] { chunk.index };
+				update.baseRevisions = new int[] { 0 };
+				update.revisions = new int[] { 0 };
+				update.runs = new byte[][] { ChunkRuns.encodeDelta(chunk, changed) };
+				update.unloadedChunks = new int[0];
+				for (PlayerSession session : server.getSessions()) {
+					session.connection.sendPacket(update);
+					session.connection.flush();
+				}
+			}
+		}
+	}
+
+	private static void send(SocketConnection client, Packet packet, boolean batched) {
+		client.sendPacket(packet);
+		if (!batched) {
+			client.flush();
+		}
+	}
+
+	/**
+	 * @return the read and write syscalls this process has made so far, or zeros where
+	 *         /proc/self/io is not available
+	 */
+	private static long[] syscalls() {
+		long[] counts = new long[2];
+		try {
+			for (String line : Files.readAllLines(Paths.get("/proc/self/io"))) {
+				if (line.startsWith("syscr:")) {
+					counts[0] = Long.parseLong(line.substring(6).trim());
+				} else if (line.startsWith("syscw:")) {
+					counts[1] = Long.parseLong(line.substring(6).trim());
+				}
+			}
+		} catch (IOException e) {
+			// not Linux
+		}
+		return counts;
+	}
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2025 SaydaGames (mc_jojo3)
+ *
+ * This file is part of MCraze
+ *
+ * MCraze is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * MCraze is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with MCraze. If not, see http://www.gnu.org/licenses/.
+ */
+
+
+package mc.sayda.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import mc.sayda.Constants;
+import mc.sayda.SpriteStore;
+import mc.sayda.entity.Entity;
+import mc.sayda.entity.Player;
+import mc.sayda.item.Item;
+import mc.sayda.network.Connection;
+import mc.sayda.network.Packet;
+import mc.sayda.network.PacketCodec;
+import mc.sayda.network.packet.PacketEntityUpdate;
+import mc.sayda.system.BlockInteractionSystem;
+
+/**
+ * Entity sync bandwidth with ITEMS dropped items bouncing around SESSIONS players, all in
+ * view: every UPDATE_TICKS ticks the InterestManager sends each session what changed,
+ * encoded as it would go over a socket. No world, physics or network, so the time
+ * reported is the interest manager's and encoding's alone.
+ */
+public class EntityBandwidthBench {
+	private static final int ITEMS = 1000;
+	private static final int SESSIONS = 8;
+	private static final int TICKS = 600;
+	private static final int ROUNDS = 3;
+	// what the old float[]/int[] layout took per entity: an int id, x, y, dx, dy, health
+	private static final int UNPACKED_BYTES = 24;
+
+	private static long bytes;
+	private static long updateBytes;
+	private static long updatedEntities;
+
+	/**
+	 * Counts what would have been written
+	 */
+	private static class CountingConnection implements Connection {
+		@Override
+		public void sendPacket(Packet packet) {
+			int size = PacketCodec.encode(packet).position();
+			bytes += size;
+			if (packet instanceof PacketEntityUpdate) {
+				updateBytes += size;
+				updatedEntities += ((PacketEntityUpdate) packet).entityIds.length;
+			}
+		}
+
+		@Override
+		public void flush() {}
+
+		@Override
+		public Packet[] receivePackets() {
+			return new Packet[0];
+		}
+
+		@Override
+		public boolean isConnected() {
+			return true;
+		}
+
+		@Override
+		public void disconnect() {}
+	}
+
+	public static void main(String[] args) {
+		SpriteStore.useNullSprites();
+		Random random = new Random(5);
+		ArrayList<Entity> entities = new ArrayList<>();
+		List<PlayerSession> sessions = new ArrayList<>();
+		Connection connection = new CountingConnection();
+		for (int i = 0; i < SESSIONS; i++) {
+			Player player = new Player(true, 256 + (i % 3) * 8, 10, 28, 56);
+			entities.add(player);
+			sessions.add(new PlayerSession(null, connection, player, "Player" + (i + 1),
+					new BlockInteractionSystem(random)));
+		}
+		Item torch = Constants.itemTypes.get((char) 106);
+		for (int i = 0; i < ITEMS; i++) {
+			Item item = torch.clone();
+			item.x = 196 + random.nextInt(120);
+			item.y = 2 + random.nextInt(60);
+			item.dx = random.nextFloat() * .3f - .15f;
+			item.dy = -random.nextFloat() * .5f;
+			entities.add(item);
+		}
+
+		InterestManager interest = new InterestManager();
+		for (int round = 0; round < ROUNDS; round++) {
+			bytes = 0;
+			updateBytes = 0;
+			updatedEntities = 0;
+			long elapsed = 0;
+			for (int tick = 0; tick < TICKS; tick++) {
+				for (int i = SESSIONS; i < entities.size(); i++) {
+					bounce(entities.get(i), random);
+				}
+				if (tick % PacketEntityUpdate.UPDATE_TICKS == 0) {
+					long start = System.nanoTime();
+					interest.update(entities, round * TICKS + tick);
+					for (PlayerSession session : sessions) {
+						interest.sendEntities(session);
+					}
+					elapsed += System.nanoTime() - start;
+				}
+			}
+			int updates = TICKS / PacketEntityUpdate.UPDATE_TICKS;
+			System.out.printf("%d items, %d sessions: %.1f B per moved entity (unpacked %d), "
+					+ "%.1f KB/s per session, %.2f ms per update%n", ITEMS, SESSIONS,
+					(double) updateBytes / updatedEntities, UNPACKED_BYTES,
+					bytes / (TICKS / (double) Server.TICKS_PER_SECOND) / SESSIONS / 1024,
+					elapsed / 1e6 / updates);
+		}
+	}
+
+	/**
+	 * Fall, bounce off the floor at y = 62 with a random kick, and off walls either side
+	 */
+	private static void bounce(Entity entity, Random random) {
+		entity.dy += .03f;
+		entity.x += entity.dx;
+		entity.y += entity.dy;
+		if (entity.y > 62) {
+			entity.y = 62;
+			entity.dy = -.2f - .3f * random.nextFloat();
+		}
+		if (entity.x < 196 || entity.x > 316) {
+			entity.dx = -entity.dx;
+		}
+	}
+}
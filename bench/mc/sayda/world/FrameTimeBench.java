@@ -0,0 +1,51 @@
+/*
+ * Copyright 2025 SaydaGames (mc_jojo3)
+ *
+ * This file is part of MCraze
+ *
+ * MCraze is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * MCraze is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with MCraze. If not, see http://www.gnu.org/licenses/.
+ */
+
+
+package mc.sayda.world;
+
+import mc.sayda.awtgraphics.ImageGraphicsHandler;
+
+/**
+ * Time World.draw() for an 800x600 view in worlds from 512 to 16k tiles wide. Only the
+ * visible tiles are visited, so the time per frame should not grow with the width.
+ */
+public class FrameTimeBench {
+	private static final int[] WIDTHS = { 512, 2048, 8192, 16384 };
+	private static final int HEIGHT = 256;
+	private static final int SCREEN_WIDTH = 800;
+	private static final int SCREEN_HEIGHT = 600;
+	private static final int TILE_SIZE = 16;
+	private static final int WARMUP_FRAMES = 300;
+	private static final int FRAMES = 1000;
+
+	public static void main(String[] args) {
+		ImageGraphicsHandler g = new ImageGraphicsHandler(SCREEN_WIDTH, SCREEN_HEIGHT);
+		for (int width : WIDTHS) {
+			World world = new World(width, HEIGHT, 9L);
+			double cameraX = width / 2;
+			double cameraY = 100;
+			g.startDrawing();
+			for (int i = 0; i < WARMUP_FRAMES; i++) {
+				world.draw(g, 0, 0, SCREEN_WIDTH, SCREEN_HEIGHT, cameraX, cameraY, TILE_SIZE);
+			}
+			long start = System.nanoTime();
+			for (int i = 0; i < FRAMES; i++) {
+				// a slightly different camera each frame, as when walking
+				world.draw(g, 0, 0, SCREEN_WIDTH, SCREEN_HEIGHT, cameraX + (i % 7) * 0.3, cameraY, TILE_SIZE);
+			}
+			long elapsed = System.nanoTime() - start;
+			g.finishDrawing();
+			System.out.printf("width %5d: %.3f ms/frame%n", width, elapsed / 1e6 / FRAMES);
+		}
+	}
+}
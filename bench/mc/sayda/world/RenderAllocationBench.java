@@ -0,0 +1,95 @@
+/*
+ * Copyright 2025 SaydaGames (mc_jojo3)
+ *
+ * This file is part of MCraze
+ *
+ * MCraze is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * MCraze is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with MCraze. If not, see http://www.gnu.org/licenses/.
+ */
+
+
+package mc.sayda.world;
+
+import java.lang.management.ManagementFactory;
+
+import mc.sayda.Sprite;
+import mc.sayda.awtgraphics.ImageGraphicsHandler;
+
+/**
+ * Measure how many bytes the render loop allocates per frame, with
+ * ThreadMXBean.getThreadAllocatedBytes(). Steady state should allocate next to nothing,
+ * so rendering does not feed the garbage collector.
+ * 
+ * Java2D allocates inside some translucent fills whatever we do, so the first two
+ * measurements skip the actual pixel drawing to show our own allocations.
+ */
+public class RenderAllocationBench {
+	private static final int SCREEN_WIDTH = 800;
+	private static final int SCREEN_HEIGHT = 600;
+	private static final int TILE_SIZE = 16;
+	private static final int COLUMNS = SCREEN_WIDTH / TILE_SIZE;
+	private static final int ROWS = SCREEN_HEIGHT / TILE_SIZE;
+	private static final int WARMUP_FRAMES = 3000;
+	private static final int FRAMES = 1000;
+	private static final int FRAMES_PER_SECOND = 60;
+
+	private static final com.sun.management.ThreadMXBean THREADS =
+			(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	/**
+	 * Goes through AwtGraphicsHandler's colour handling but draws no pixels
+	 */
+	private static class NoPixelsGraphicsHandler extends ImageGraphicsHandler {
+		NoPixelsGraphicsHandler() {
+			super(SCREEN_WIDTH, SCREEN_HEIGHT);
+		}
+
+		@Override
+		public void fillRect(int x, int y, int width, int height) {
+		}
+
+		@Override
+		public void drawImage(Sprite sprite, int x, int y, int width, int height) {
+		}
+	}
+
+	public static void main(String[] args) {
+		World world = new World(1024, 256, 9L);
+		ImageGraphicsHandler noPixels = new NoPixelsGraphicsHandler();
+		ImageGraphicsHandler image = new ImageGraphicsHandler(SCREEN_WIDTH, SCREEN_HEIGHT);
+
+		noPixels.startDrawing();
+		report("tinted tiles, " + COLUMNS * ROWS + " a frame, no pixels", () -> {
+			for (int i = 0; i < COLUMNS; i++) {
+				for (int j = 0; j < ROWS; j++) {
+					world.drawTile(noPixels, 500 + i, 80 + j, i * TILE_SIZE, j * TILE_SIZE, TILE_SIZE, 1);
+				}
+			}
+		});
+		report("World.draw, no pixels", () -> world.draw(noPixels, 0, 0, SCREEN_WIDTH, SCREEN_HEIGHT,
+				500.3, 100.6, TILE_SIZE));
+		noPixels.finishDrawing();
+
+		image.startDrawing();
+		report("World.draw into an image", () -> world.draw(image, 0, 0, SCREEN_WIDTH, SCREEN_HEIGHT,
+				500.3, 100.6, TILE_SIZE));
+		image.finishDrawing();
+	}
+
+	private static void report(String what, Runnable frame) {
+		for (int i = 0; i < WARMUP_FRAMES; i++) {
+			frame.run();
+		}
+		long thread = Thread.currentThread().getId();
+		long before = THREADS.getThreadAllocatedBytes(thread);
+		for (int i = 0; i < FRAMES; i++) {
+			frame.run();
+		}
+		long perFrame = (THREADS.getThreadAllocatedBytes(thread) - before) / FRAMES;
+		System.out.printf("%s: %d bytes/frame, %.1f KB/s at %d fps%n", what, perFrame,
+				perFrame * FRAMES_PER_SECOND / 1024.0, FRAMES_PER_SECOND);
+	}
+}
@@ -15,6 +15,14 @@ public class Color implements java.io.Serializable {
 	public static final Color DARK_GRAY = darkGray;
 	public static final Color orange = new Color(255, 200, 0);
 	
+	// the tints drawn over tiles to shade them by light level, indexed by alpha
+	private static final Color[] LIGHT_TINTS = new Color[256];
+	static {
+		for (int alpha = 0; alpha < LIGHT_TINTS.length; alpha++) {
+			LIGHT_TINTS[alpha] = new Color(16, 16, 16, alpha);
+		}
+	}
+	
 	public int R, G, B, A;
 	
 	public Color(int R, int G, int B) {
@@ -31,6 +39,21 @@ public class Color implements java.io.Serializable {
 		this.A = A;
 	}
 	
+	/**
+	 * @return the shared dark tint with the given alpha (0-255) drawn over a tile to shade it.
+	 *         The instance is shared and must not be modified.
+	 */
+	public static Color lightTint(int alpha) {
+		return LIGHT_TINTS[alpha];
+	}
+	
+	/**
+	 * @return whether color is one of the shared lightTint() instances
+	 */
+	public static boolean isLightTint(Color color) {
+		return color.A >= 0 && color.A < LIGHT_TINTS.length && LIGHT_TINTS[color.A] == color;
+	}
+	
 	// returns a new color, interpolated toward c by amount (in range [0,1])
 	public Color interpolateTo(Color c, float amount) {
 		int dR = (int) (amount * (c.R - this.R));
@@ -76,6 +76,9 @@ public class Constants {
 	public static final int LIGHT_VALUE_SUN = 15;
 	// not final so that we can set it via command-line arg
 	public static boolean DEBUG = false;
+	// generate finite worlds with the parallel chunk-local noise generator instead of the
+	// legacy single-threaded random walk (streaming worlds always use the noise generator)
+	public static boolean NOISE_TERRAIN = true;
 	public static final boolean DEBUG_VISIBILITY_ON = false;
 	public static final int LIGHT_VALUE_OPAQUE = 10000;
 }
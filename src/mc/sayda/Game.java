@@ -12,8 +12,12 @@
 
 package mc.sayda;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
+
 import mc.sayda.client.Client;
 import mc.sayda.network.LocalConnection;
+import mc.sayda.network.NetworkThread;
 import mc.sayda.server.Server;
 import mc.sayda.util.SystemTimer;
 
@@ -21,8 +25,17 @@ import mc.sayda.util.SystemTimer;
  * Main game coordinator - creates and runs integrated server + client
  */
 public class Game {
-	private Server server;
+	// how long a dedicated server's shutdown waits for the last tick and save
+	private static final long SHUTDOWN_TIMEOUT_MILLIS = 30000;
+	private static final String USAGE = "Usage: java -jar MCraze.jar [--debug] [--legacy-terrain]"
+			+ " [--server] [--port <port>] [--connect <host>[:<port>]]";
+	// most client ticks run back to back to catch up after a slow frame, as on the server
+	private static final int MAX_CATCH_UP_TICKS = 10;
+
+	private Server server;  // null when playing on a remote server
 	private Client client;
+	private Thread serverThread;
+	private NetworkThread network;  // the connection to a remote server
 
 	private boolean gameRunning = true;
 
@@ -49,52 +62,105 @@ public class Game {
 		System.gc();
 	}
 
+	/**
+	 * Construct game playing on the server at address, with no server of its own
+	 */
+	public Game(InetSocketAddress address) throws IOException {
+		System.out.println("=== Connecting to " + address + " ===");
+
+		network = new NetworkThread("Network thread");
+		client = new Client(network.connect(address), null);
+		client.setGame(this);
+		client.startGame();
+	}
+
 	/**
 	 * Start a new game or load existing save
 	 */
 	public void startGame(boolean load, int width) {
-		if (load) {
-			// Try to load from save file
-			boolean loaded = SaveLoad.doLoad(this);
-			if (loaded) {
-				System.out.println("Game loaded from save file");
+		server.execute(() -> {
+			if (load) {
+				// Try to load from save file
+				boolean loaded = SaveLoad.doLoad(server, true);
+				if (loaded) {
+					System.out.println("Game loaded from save file");
+				} else {
+					// If load failed, start new game
+					System.out.println("Failed to load save, starting new game");
+					server.startGame(width);
+				}
 			} else {
-				// If load failed, start new game
-				System.out.println("Failed to load save, starting new game");
+				// Start new game
 				server.startGame(width);
 			}
-		} else {
-			// Start new game
-			server.startGame(width);
-		}
+		});
 
 		client.startGame();
 	}
 
 	/**
-	 * Main game loop - runs server tick and client render
+	 * Main game loop - starts the server thread, then renders on this one until either stops
 	 */
 	public void gameLoop() {
-		long lastLoopTime = System.currentTimeMillis();
+		if (server == null) {
+			remoteLoop();
+			return;
+		}
+		serverThread = new Thread(server, "Server thread");
+		serverThread.start();
 
 		if (Constants.DEBUG) {
 			startGame(false, 512);
 		}
 
-		// Main loop
+		// Render at the display's refresh rate, independent of the server's tick rate
+		long frameNanos = 1000000000L / GraphicsHandler.get().getRefreshRate();
+		long nextFrame = System.nanoTime();
 		while (gameRunning && server.isRunning() && client.isRunning()) {
-			long delta = SystemTimer.getTime() - lastLoopTime;
-			lastLoopTime = SystemTimer.getTime();
+			client.render();
 
-			// Server tick (game logic)
-			server.tick();
+			long now = System.nanoTime();
+			nextFrame += frameNanos;
+			if (nextFrame < now) {
+				nextFrame = now;
+			}
+			SystemTimer.sleep((nextFrame - now) / 1000000);
+		}
+	}
 
-			// Client render (graphics)
-			client.render();
+	/**
+	 * Game loop on a remote server: tick the client at the server's rate, so our player
+	 * moves as it does there, and render at the display's in between, until the client
+	 * stops or the connection drops
+	 */
+	private void remoteLoop() {
+		long frameNanos = 1000000000L / GraphicsHandler.get().getRefreshRate();
+		long nextFrame = System.nanoTime();
+		long nextTick = nextFrame;
+		while (gameRunning && client.isRunning() && client.connection.isConnected()) {
+			long now = System.nanoTime();
+			for (int i = 0; i < MAX_CATCH_UP_TICKS && now - nextTick >= 0; i++) {
+				client.tick();
+				nextTick += Server.TICK_NANOS;
+			}
+			if (now - nextTick >= 0) {
+				nextTick = now;
+			}
+			if (now - nextFrame >= 0) {
+				client.render();
+				nextFrame += frameNanos;
+				if (nextFrame - now < 0) {
+					nextFrame = now;
+				}
+			}
 
-			// Sleep to maintain ~60 FPS
-			SystemTimer.sleep(lastLoopTime + 16 - SystemTimer.getTime());
+			long wake = nextFrame - nextTick < 0 ? nextFrame : nextTick;
+			SystemTimer.sleep((wake - System.nanoTime()) / 1000000);
 		}
+		if (!client.connection.isConnected()) {
+			System.out.println("Disconnected from server");
+		}
+		quit();
 	}
 
 	/**
@@ -108,26 +174,46 @@ public class Game {
 			// Send chat message to server via packet
 			mc.sayda.network.packet.PacketChatSend packet =
 				new mc.sayda.network.packet.PacketChatSend(input);
-			client.connection.sendPacket(packet);
+			if (server == null) {
+				// a remote connection belongs to the client thread, which flushes it each tick
+				client.execute(() -> client.connection.sendPacket(packet));
+			} else {
+				client.connection.sendPacket(packet);
+				client.connection.flush();
+			}
 		}
 		client.chat.setOpen(false);
 	}
 
 	/**
-	 * Save the current game state
+	 * Save the current game state, on the server thread
 	 */
 	public void saveGame() {
-		SaveLoad.doSave(this);
-		System.out.println("Game saved");
+		server.execute(() -> {
+			SaveLoad.doSave(server);
+			System.out.println("Game saved");
+		});
 	}
 
 	/**
-	 * Delegate methods for backward compatibility
+	 * Stop the server, letting it finish its tick and anything queued (like a save), and exit
 	 */
 	public void quit() {
-		server.stop();
+		if (server != null) {
+			server.stop();
+		}
 		client.stop();
+		if (serverThread != null && serverThread != Thread.currentThread()) {
+			try {
+				serverThread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
 		client.musicPlayer.close();
+		if (network != null) {
+			network.close();
+		}
 		System.exit(0);
 	}
 
@@ -140,21 +226,134 @@ public class Game {
 		return client;
 	}
 
+	/**
+	 * Run a server with no client, window or AWT classes: load the save if there is one,
+	 * otherwise generate a world, let players join on port, and save it again on shutdown
+	 * (Ctrl-C, SIGTERM)
+	 */
+	private static void runDedicatedServer(int width, int port) throws IOException {
+		System.out.println("=== Starting MCraze Dedicated Server ===");
+		long start = System.nanoTime();
+
+		// Must come before anything loads a tile or item definition
+		SpriteStore.useNullSprites();
+
+		final Server server = new Server(null);
+		server.execute(() -> {
+			if (SaveLoad.doLoad(server, false)) {
+				System.out.println("World loaded from save file");
+			} else {
+				server.startWorld(width);
+			}
+			System.out.println("Server ready in " + (System.nanoTime() - start) / 1000000 + " ms");
+		});
+
+		final NetworkThread network = new NetworkThread("Network thread");
+		int boundPort = network.listen(port, server::connect);
+		System.out.println("Listening on port " + boundPort);
+
+		final Thread serverThread = new Thread(server, "Server thread");
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			// run() finishes queued tasks after it stops, so the save always happens
+			server.execute(() -> {
+				SaveLoad.doSave(server);
+				System.out.println("World saved");
+			});
+			server.stop();
+			try {
+				// bounded, as a System.exit() on the server thread waits for this hook
+				serverThread.join(SHUTDOWN_TIMEOUT_MILLIS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			network.close();
+		}, "Server shutdown"));
+		serverThread.start();
+	}
+
+	/**
+	 * @return port as a number, or -1 if it isn't a valid port
+	 */
+	private static int parsePort(String port) {
+		try {
+			int parsed = Integer.parseInt(port);
+			return parsed >= 0 && parsed <= 65535 ? parsed : -1;
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	/**
+	 * @return host[:port] as an address, or null if it isn't one
+	 */
+	private static InetSocketAddress parseAddress(String address) {
+		int colon = address.lastIndexOf(':');
+		String host = colon < 0 ? address : address.substring(0, colon);
+		int port = colon < 0 ? Server.DEFAULT_PORT : parsePort(address.substring(colon + 1));
+		if (host.isEmpty() || port < 0) {
+			return null;
+		}
+		return new InetSocketAddress(host, port);
+	}
+
 	/**
 	 * Main entry point
 	 */
-	public static void main(String argv[]) {
+	public static void main(String argv[]) throws IOException {
+		boolean dedicated = false;
+		int port = Server.DEFAULT_PORT;
+		InetSocketAddress connect = null;
+
 		// Parse arguments
-		for (String arg : argv) {
+		for (int i = 0; i < argv.length; i++) {
+			String arg = argv[i];
 			if (arg.equals("-d") || arg.equals("--debug")) {
 				Constants.DEBUG = true;
+			} else if (arg.equals("--legacy-terrain")) {
+				Constants.NOISE_TERRAIN = false;
+			} else if (arg.equals("--server")) {
+				dedicated = true;
+			} else if (arg.equals("--port")) {
+				port = i + 1 < argv.length ? parsePort(argv[++i]) : -1;
+				if (port < 0) {
+					System.err.println("--port needs a port number from 0 to 65535");
+					System.err.println(USAGE);
+					System.exit(1);
+				}
+			} else if (arg.equals("--connect")) {
+				connect = i + 1 < argv.length ? parseAddress(argv[++i]) : null;
+				if (connect == null) {
+					System.err.println("--connect needs a host, optionally followed by :port");
+					System.err.println(USAGE);
+					System.exit(1);
+				}
 			} else {
 				System.err.println("Unrecognized argument: " + arg);
 			}
 		}
 
+		if (dedicated) {
+			runDedicatedServer(512, port);
+			return;
+		}
+
 		// Create and start game
-		Game g = new Game();
+		Game g;
+		if (connect == null) {
+			g = new Game();
+		} else if (connect.isUnresolved()) {
+			System.err.println("Unknown host: " + connect.getHostString());
+			System.exit(1);
+			return;
+		} else {
+			try {
+				g = new Game(connect);
+			} catch (IOException e) {
+				System.err.println("Could not connect to " + connect + ": " + e.getMessage());
+				System.exit(1);
+				return;
+			}
+		}
 		g.gameLoop();
 	}
 }
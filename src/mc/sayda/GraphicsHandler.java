@@ -18,6 +18,13 @@ public abstract class GraphicsHandler {
 		return screenHeight;
 	}
 	
+	/**
+	 * @return how many frames a second the display shows, so the client renders no more
+	 */
+	public int getRefreshRate() {
+		return 60;
+	}
+	
 	public static GraphicsHandler get() {
 		if (single == null) {
 			if (awtMode) {
@@ -50,4 +57,18 @@ public abstract class GraphicsHandler {
 	public abstract void drawImage(Sprite sprite, int x, int y, int width, int height);
 	
 	public abstract void drawImage(Sprite sprite, int x, int y, int width, int height, Color tint);
+	
+	/**
+	 * Create an offscreen image that can be drawn into (see beginOffscreen) and then
+	 * drawn like any other sprite
+	 */
+	public abstract Sprite createOffscreen(int width, int height);
+	
+	/**
+	 * Clear the offscreen image to transparent and send all drawing into it until
+	 * endOffscreen() is called
+	 */
+	public abstract void beginOffscreen(Sprite offscreen);
+	
+	public abstract void endOffscreen();
 }
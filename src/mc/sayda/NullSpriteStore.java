@@ -0,0 +1,76 @@
+/*
+ * Copyright 2025 SaydaGames (mc_jojo3)
+ *
+ * This file is part of MCraze
+ *
+ * MCraze is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * MCraze is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with MCraze. If not, see http://www.gnu.org/licenses/.
+ */
+
+package mc.sayda;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+/**
+ * Sprites for running without a display, e.g. a dedicated server. Nothing is decoded:
+ * each sprite only remembers its reference, has no size and draws nothing.
+ */
+public class NullSpriteStore extends SpriteStore {
+	@Override
+	public Sprite loadSprite(String ref) {
+		return new NullSprite(ref);
+	}
+
+	private static class NullSprite implements Sprite {
+		private static final long serialVersionUID = 1L;
+
+		private final String ref;
+
+		NullSprite(String ref) {
+			this.ref = ref;
+		}
+
+		@Override
+		public int getWidth() {
+			return 0;
+		}
+
+		@Override
+		public int getHeight() {
+			return 0;
+		}
+
+		@Override
+		public void draw(GraphicsHandler g, int x, int y) {
+		}
+
+		@Override
+		public void draw(GraphicsHandler g, int x, int y, Color tint) {
+		}
+
+		@Override
+		public void draw(GraphicsHandler g, int x, int y, int width, int height) {
+		}
+
+		@Override
+		public void draw(GraphicsHandler g, int x, int y, int width, int height, Color tint) {
+		}
+
+		@Override
+		public void readObject(ObjectInputStream aInputStream) {
+		}
+
+		@Override
+		public void writeObject(ObjectOutputStream aOutputStream) {
+		}
+
+		private Object writeReplace() {
+			return new SpriteRef(ref);
+		}
+	}
+}
@@ -23,22 +23,23 @@ import java.io.ObjectOutputStream;
 import java.util.ArrayList;
 
 import mc.sayda.entity.Entity;
+import mc.sayda.server.Server;
 import mc.sayda.world.World;
 
 public class SaveLoad {
 	
-	public static void doSave(Game game) {
+	public static void doSave(Server server) {
 
 		try {
-			if (game.getServer().world == null) {
+			if (server.world == null) {
 				return;
 			}
 
 			FileOutputStream fileOut = new FileOutputStream("MiniCraft.sav");
 			ObjectOutputStream out = new ObjectOutputStream(fileOut);
 
-			out.writeObject(game.getServer().world);
-			out.writeObject(game.getServer().entities);
+			out.writeObject(server.world);
+			out.writeObject(server.getSavedEntities());
 
 			out.close();
 			fileOut.close();
@@ -50,8 +51,14 @@ public class SaveLoad {
 		}
 	}
 	
+	/**
+	 * Replace the server's world and entities with the saved ones, leaving them alone if
+	 * the save can't be read
+	 * @param host see Server.loadWorld()
+	 * @return whether the save was loaded
+	 */
 	@SuppressWarnings("unchecked")
-	public static boolean doLoad(Game game) {
+	public static boolean doLoad(Server server, boolean host) {
 		File f = new File("MiniCraft.sav");
 
 		ObjectInputStream in = null;
@@ -69,17 +76,13 @@ public class SaveLoad {
 		}
 
 		try {
-			game.getServer().world = (World) in.readObject();
-			game.getServer().entities = (ArrayList<Entity>) in.readObject();
+			World world = (World) in.readObject();
+			ArrayList<Entity> entities = (ArrayList<Entity>) in.readObject();
 			in.close();
-
-			// Find and set player reference
-			for (Entity entity : game.getServer().entities) {
-				if (entity instanceof mc.sayda.entity.Player) {
-					game.getServer().player = (mc.sayda.entity.Player) entity;
-					break;
-				}
-			}
+			server.loadWorld(world, entities, host);
+		} catch (InvalidClassException e) {
+			System.err.println("Save file has the wrong version.");
+			return false;
 		} catch (IOException e) {
 			e.printStackTrace();
 			return false;
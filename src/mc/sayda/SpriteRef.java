@@ -0,0 +1,32 @@
+/*
+ * Copyright 2025 SaydaGames (mc_jojo3)
+ *
+ * This file is part of MCraze
+ *
+ * MCraze is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * MCraze is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with MCraze. If not, see http://www.gnu.org/licenses/.
+ */
+
+package mc.sayda;
+
+/**
+ * What a sprite is saved as: just its reference, resolved through whichever SpriteStore
+ * the reading side uses. A world saved by a dedicated server gets real images when a
+ * client loads it, and reading a save never pulls in the AWT classes.
+ */
+public class SpriteRef implements java.io.Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private final String ref;
+
+	public SpriteRef(String ref) {
+		this.ref = ref;
+	}
+
+	private Object readResolve() {
+		return SpriteStore.get().getSprite(ref);
+	}
+}
@@ -16,7 +16,8 @@ public abstract class SpriteStore {
 	public static SpriteStore get() {
 		if (single == null) {
 			if (GraphicsHandler.awtMode) {
-				single = new AwtSpriteStore();
+				// through a factory, so verifying this class does not load AwtSpriteStore
+				single = AwtSpriteStore.create();
 			} else {
 				// android!
 			}
@@ -24,6 +25,14 @@ public abstract class SpriteStore {
 		return single;
 	}
 	
+	/**
+	 * Hand out NullSpriteStore sprites from now on, so nothing is decoded and no AWT
+	 * classes are loaded. Call before the first get().
+	 */
+	public static void useNullSprites() {
+		single = new NullSpriteStore();
+	}
+	
 	/** The cached sprite map, from reference to sprite instance */
 	private HashMap<String, Sprite> sprites = new HashMap<String, Sprite>();
 	
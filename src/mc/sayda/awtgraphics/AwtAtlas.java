@@ -0,0 +1,131 @@
+/*
+ * Copyright 2025 SaydaGames (mc_jojo3)
+ *
+ * This file is part of MCraze
+ *
+ * MCraze is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * MCraze is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with MCraze. If not, see http://www.gnu.org/licenses/.
+ */
+
+package mc.sayda.awtgraphics;
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+
+/**
+ * Packs many small images into a few large pages, left to right in rows (shelves), so
+ * sprites are drawn as sub-rectangles of a handful of images. Images larger than a page
+ * get a page of their own.
+ */
+public class AwtAtlas {
+	/**
+	 * Where a packed image ended up
+	 */
+	public static class Region {
+		public final Image page;
+		public final int x, y, width, height;
+		/** The atlas generation the region was packed in; see AwtAtlas.getGeneration() */
+		public final int generation;
+
+		Region(Image page, int x, int y, int width, int height, int generation) {
+			this.page = page;
+			this.x = x;
+			this.y = y;
+			this.width = width;
+			this.height = height;
+			this.generation = generation;
+		}
+	}
+
+	private final int pageSize;
+	private final int maxPages;
+	private final int transparency;
+	private final ArrayList<Image> pages = new ArrayList<Image>();
+	private Image page;
+	// next free spot on the current page, and the height of the current shelf
+	private int shelfX, shelfY, shelfHeight;
+	private int generation;
+
+	/**
+	 * @param maxPages the atlas is cleared once it would need more pages than this; 0 for no limit
+	 * @param transparency the java.awt.Transparency of the pages
+	 */
+	public AwtAtlas(int pageSize, int maxPages, int transparency) {
+		this.pageSize = pageSize;
+		this.maxPages = maxPages;
+		this.transparency = transparency;
+	}
+
+	/**
+	 * Copy the (sx, sy, width, height) rectangle of source into the atlas, scaled to
+	 * scaledWidth x scaledHeight
+	 */
+	public Region pack(Image source, int sx, int sy, int width, int height, int scaledWidth,
+			int scaledHeight) {
+		Region region = allocate(scaledWidth, scaledHeight);
+		// pages start out transparent, so the default SrcOver composite copies the source as is
+		Graphics2D g = (Graphics2D) region.page.getGraphics();
+		g.drawImage(source, region.x, region.y, region.x + scaledWidth, region.y + scaledHeight,
+				sx, sy, sx + width, sy + height, null);
+		g.dispose();
+		return region;
+	}
+
+	/**
+	 * Regions packed before the atlas was last cleared point at pages it no longer
+	 * uses; compare their generation against this to know when to pack them again.
+	 */
+	public int getGeneration() {
+		return generation;
+	}
+
+	public void clear() {
+		pages.clear();
+		page = null;
+		generation++;
+	}
+
+	private Region allocate(int width, int height) {
+		if (width > pageSize || height > pageSize) {
+			return new Region(newPage(width, height), 0, 0, width, height, generation);
+		}
+		if (page != null && shelfX + width > pageSize) {
+			shelfX = 0;
+			shelfY += shelfHeight;
+			shelfHeight = 0;
+		}
+		if (page == null || shelfY + height > pageSize) {
+			if (maxPages > 0 && pages.size() >= maxPages) {
+				clear();
+			}
+			page = newPage(pageSize, pageSize);
+			shelfX = 0;
+			shelfY = 0;
+			shelfHeight = 0;
+		}
+		Region region = new Region(page, shelfX, shelfY, width, height, generation);
+		shelfX += width;
+		shelfHeight = Math.max(shelfHeight, height);
+		return region;
+	}
+
+	private Image newPage(int width, int height) {
+		Image image;
+		if (GraphicsEnvironment.isHeadless()) {
+			image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		} else {
+			GraphicsConfiguration gc = GraphicsEnvironment.getLocalGraphicsEnvironment()
+					.getDefaultScreenDevice().getDefaultConfiguration();
+			image = gc.createCompatibleImage(width, height, transparency);
+		}
+		pages.add(image);
+		return image;
+	}
+}
@@ -8,8 +8,12 @@ import java.awt.event.MouseEvent;
 import java.awt.event.MouseMotionListener;
 import java.awt.event.MouseWheelEvent;
 import java.awt.event.MouseWheelListener;
+import java.util.function.Consumer;
 
 import mc.sayda.Game;
+import mc.sayda.client.Client;
+import mc.sayda.entity.Player;
+import mc.sayda.server.Server;
 
 public class AwtEventsHandler {
 	Game game;
@@ -28,12 +32,35 @@ public class AwtEventsHandler {
 		canvas.addMouseMotionListener(new MouseMoveInputHander());
 	}
 	
+	/**
+	 * Events arrive on the AWT thread, but the player belongs to the server thread: queue
+	 * action to run there, against whichever player exists by then. On a remote server our
+	 * player belongs to the client's thread instead.
+	 */
+	private void withPlayer(final Consumer<Player> action) {
+		final Server server = game.getServer();
+		if (server == null) {
+			final Client client = game.getClient();
+			client.execute(() -> {
+				Player player = client.getPlayer();
+				if (player != null) {
+					action.accept(player);
+				}
+			});
+			return;
+		}
+		server.execute(() -> {
+			if (server.player != null) {
+				action.accept(server.player);
+			}
+		});
+	}
+	
 	private class MouseWheelInputHander implements MouseWheelListener {
 		@Override
 		public void mouseWheelMoved(MouseWheelEvent e) {
-			if (game.getServer() != null && game.getServer().player != null) {
-				game.getServer().player.scrollHotbar(e.getWheelRotation());
-			}
+			final int rotation = e.getWheelRotation();
+			withPlayer(player -> player.scrollHotbar(rotation));
 		}
 	}
 
@@ -94,7 +121,7 @@ public class AwtEventsHandler {
 		 */
 		@Override
 		public void keyPressed(KeyEvent e) {
-			if (game.getClient() == null || game.getServer() == null) return;
+			if (game.getClient() == null) return;
 
 			// Don't process game input if chat is open
 			if (game.getClient().chat.isOpen()) {
@@ -118,20 +145,7 @@ public class AwtEventsHandler {
 				return;
 			}
 
-			if (game.getServer().player == null) return;
-
-			switch (e.getKeyCode()) {
-			case KeyEvent.VK_W:
-			case KeyEvent.VK_SPACE:
-				game.getServer().player.startClimb();
-				break;
-			case KeyEvent.VK_A:
-				game.getServer().player.startLeft(e.isShiftDown());
-				break;
-			case KeyEvent.VK_D:
-				game.getServer().player.startRight(e.isShiftDown());
-				break;
-			}
+			movementKey(e.getKeyCode(), true, e.isShiftDown());
 		}
 		
 		/**
@@ -142,39 +156,91 @@ public class AwtEventsHandler {
 		 */
 		@Override
 		public void keyReleased(KeyEvent e) {
-			if (game.getClient() == null || game.getServer() == null) return;
+			if (game.getClient() == null) return;
 
 			// Don't process game input if chat is open
 			if (game.getClient().chat.isOpen()) {
 				return;
 			}
 
-			if (game.getServer().player == null) return;
+			if (!game.getClient().hasPlayer()) return;
 
+			movementKey(e.getKeyCode(), false, false);
 			switch (e.getKeyCode()) {
+			case KeyEvent.VK_ESCAPE:
+				escape();
+				break;
+			}
+		}
+		
+		/**
+		 * Close the inventory if it is open, otherwise go to the menu. The host's player is
+		 * looked at in the server's latest snapshot, which nothing changes; a remote one
+		 * belongs to the client's thread, so it is looked at there.
+		 */
+		private void escape() {
+			final Client client = game.getClient();
+			if (game.getServer() == null) {
+				client.execute(() -> {
+					Player player = client.getPlayer();
+					if (player != null && player.inventory.isVisible()) {
+						player.inventory.setVisible(false);
+					} else {
+						client.goToMainMenu();
+					}
+				});
+				return;
+			}
+			Player shown = client.getPlayer();
+			if (shown != null && shown.inventory.isVisible()) {
+				withPlayer(player -> player.inventory.setVisible(false));
+			} else {
+				client.goToMainMenu();
+			}
+		}
+		
+		/**
+		 * Start or stop moving. The host's player is moved on the server; on a remote server
+		 * the keys are sent with every tick's input instead (see Client.tick()).
+		 */
+		private void movementKey(int keyCode, boolean pressed, boolean slow) {
+			Client client = game.getClient();
+			boolean remote = game.getServer() == null;
+			switch (keyCode) {
 			case KeyEvent.VK_W:
 			case KeyEvent.VK_SPACE:
-				game.getServer().player.endClimb();
+				if (remote) {
+					client.climb = pressed;
+				} else if (pressed) {
+					withPlayer(player -> player.startClimb());
+				} else {
+					withPlayer(player -> player.endClimb());
+				}
 				break;
 			case KeyEvent.VK_A:
-				game.getServer().player.stopLeft();
+				if (remote) {
+					client.moveLeft = pressed;
+				} else if (pressed) {
+					withPlayer(player -> player.startLeft(slow));
+				} else {
+					withPlayer(player -> player.stopLeft());
+				}
 				break;
 			case KeyEvent.VK_D:
-				game.getServer().player.stopRight();
-				break;
-			case KeyEvent.VK_ESCAPE:
-				if (game.getServer().player.inventory.isVisible()) {
-					game.getServer().player.inventory.setVisible(false);
+				if (remote) {
+					client.moveRight = pressed;
+				} else if (pressed) {
+					withPlayer(player -> player.startRight(slow));
 				} else {
-					game.getClient().goToMainMenu();
+					withPlayer(player -> player.stopRight());
 				}
 				break;
 			}
 		}
-		
+
 		@Override
 		public void keyTyped(KeyEvent e) {
-			if (game.getClient() == null || game.getServer() == null) return;
+			if (game.getClient() == null) return;
 
 			char c = e.getKeyChar();
 
@@ -187,7 +253,9 @@ public class AwtEventsHandler {
 				return;
 			}
 
-			if (game.getServer().player == null) return;
+			if (!game.getClient().hasPlayer()) return;
+			// tossing and respawning are not sent to a remote server yet
+			final Server server = game.getServer();
 
 			// Game commands
 			switch (c) {
@@ -200,13 +268,13 @@ public class AwtEventsHandler {
 			case '7':
 			case '8':
 			case '9':
-				game.getServer().player.setHotbarItem(c - '1');
+				withPlayer(player -> player.setHotbarItem(c - '1'));
 				break;
 			case '0':
-				game.getServer().player.setHotbarItem(9);
+				withPlayer(player -> player.setHotbarItem(9));
 				break;
 			case 'e':
-				game.getServer().player.inventory.setVisible(!game.getServer().player.inventory.isVisible());
+				withPlayer(player -> player.inventory.setVisible(!player.inventory.isVisible()));
 				break;
 			case '=':
 				// TODO: Implement zoom
@@ -227,12 +295,18 @@ public class AwtEventsHandler {
 				game.getClient().toggleFPS();
 				break;
 			case 'q':
-				game.getServer().tossItem();
+				if (server != null) {
+					server.execute(() -> server.tossItem());
+				}
 				break;
 			case 'r':
 				// Respawn if player is dead
-				if (game.getServer().player.dead) {
-					game.getServer().respawnPlayer();
+				if (server != null) {
+					withPlayer(player -> {
+						if (player.dead) {
+							server.respawnPlayer();
+						}
+					});
 				}
 				break;
 			case 't':
@@ -1,18 +1,24 @@
 package mc.sayda.awtgraphics;
 
+import java.awt.AlphaComposite;
 import java.awt.Canvas;
 import java.awt.Color;
 import java.awt.Cursor;
+import java.awt.Composite;
 import java.awt.Dimension;
+import java.awt.DisplayMode;
 import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
 import java.awt.Image;
 import java.awt.Point;
 import java.awt.Toolkit;
+import java.awt.Transparency;
 import java.awt.event.ComponentAdapter;
 import java.awt.event.ComponentEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.awt.image.BufferStrategy;
+import java.awt.image.BufferedImage;
 import java.net.URL;
 
 import javax.swing.ImageIcon;
@@ -30,6 +36,18 @@ public class AwtGraphicsHandler extends mc.sayda.GraphicsHandler {
 	private Cursor myCursor = null;
 	private JPanel panel;
 
+	// java.awt versions of the shared mc.sayda.Color.lightTint() instances, indexed by alpha
+	private static final Color[] LIGHT_TINTS = new Color[256];
+	static {
+		for (int alpha = 0; alpha < LIGHT_TINTS.length; alpha++) {
+			mc.sayda.Color tint = mc.sayda.Color.lightTint(alpha);
+			LIGHT_TINTS[alpha] = new Color(tint.R, tint.G, tint.B, tint.A);
+		}
+	}
+	
+	// pre-scaled sprite copies; cleared when full, which after a few zoom changes it will be
+	private final AwtAtlas scaledAtlas = new AwtAtlas(1024, 8, Transparency.TRANSLUCENT);
+	
 	// Color caching to avoid creating new Color objects on every setColor call
 	private mc.sayda.Color lastRequestedColor = null;
 	private Color cachedAwtColor = null;
@@ -97,7 +115,17 @@ public class AwtGraphicsHandler extends mc.sayda.GraphicsHandler {
 		strategy = canvas.getBufferStrategy();
 	}
 	
+	@Override
+	public int getRefreshRate() {
+		int refreshRate = GraphicsEnvironment.getLocalGraphicsEnvironment()
+				.getDefaultScreenDevice().getDisplayMode().getRefreshRate();
+		return refreshRate == DisplayMode.REFRESH_RATE_UNKNOWN ? super.getRefreshRate()
+				: refreshRate;
+	}
+	
 	Graphics2D g;
+	// the screen's graphics context while drawing offscreen
+	private Graphics2D screenGraphics;
 	
 	@Override
 	public void startDrawing() {
@@ -117,6 +145,10 @@ public class AwtGraphicsHandler extends mc.sayda.GraphicsHandler {
 	
 	@Override
 	public void setColor(mc.sayda.Color color) {
+		if (mc.sayda.Color.isLightTint(color)) {
+			g.setColor(LIGHT_TINTS[color.A]);
+			return;
+		}
 		// Cache color objects to avoid creating new ones on every call
 		if (lastRequestedColor == null || !color.equals(lastRequestedColor)) {
 			cachedAwtColor = new Color(color.R, color.G, color.B, color.A);
@@ -143,7 +175,12 @@ public class AwtGraphicsHandler extends mc.sayda.GraphicsHandler {
 	@Override
 	public void drawImage(Sprite sprite, int x, int y) {
 		AwtSprite awtSprite = (AwtSprite) sprite;
-		g.drawImage(awtSprite.getImage(), x, y, null);
+		int sx = awtSprite.getImageX();
+		int sy = awtSprite.getImageY();
+		int width = awtSprite.getWidth();
+		int height = awtSprite.getHeight();
+		g.drawImage(awtSprite.getImage(), x, y, x + width, y + height, sx, sy, sx + width,
+				sy + height, null);
 	}
 	
 	@Override
@@ -156,7 +193,51 @@ public class AwtGraphicsHandler extends mc.sayda.GraphicsHandler {
 	@Override
 	public void drawImage(Sprite sprite, int x, int y, int width, int height) {
 		AwtSprite awtSprite = (AwtSprite) sprite;
-		g.drawImage(awtSprite.getImage(), x, y, width, height, null);
+		// a negative width or height mirrors the sprite, e.g. a player facing left
+		int absWidth = Math.abs(width);
+		int absHeight = Math.abs(height);
+		Image image;
+		int sx, sy;
+		if (absWidth == awtSprite.getWidth() && absHeight == awtSprite.getHeight()) {
+			image = awtSprite.getImage();
+			sx = awtSprite.getImageX();
+			sy = awtSprite.getImageY();
+		} else {
+			AwtAtlas.Region region = scaledRegion(awtSprite, absWidth, absHeight);
+			image = region.page;
+			sx = region.x;
+			sy = region.y;
+		}
+		g.drawImage(image, x, y, x + width, y + height, sx, sy, sx + absWidth, sy + absHeight,
+				null);
+	}
+	
+	/**
+	 * @return a copy of the sprite pre-scaled to width x height. Each sprite remembers its
+	 *         last two sizes (a tile and its item icon, say), so scaling only happens
+	 *         again when the zoom changes.
+	 */
+	private AwtAtlas.Region scaledRegion(AwtSprite sprite, int width, int height) {
+		int generation = scaledAtlas.getGeneration();
+		if (isScaled(sprite.scaled, width, height, generation)) {
+			return sprite.scaled;
+		}
+		if (isScaled(sprite.previousScaled, width, height, generation)) {
+			AwtAtlas.Region region = sprite.previousScaled;
+			sprite.previousScaled = sprite.scaled;
+			sprite.scaled = region;
+			return region;
+		}
+		AwtAtlas.Region region = scaledAtlas.pack(sprite.getImage(), sprite.getImageX(),
+				sprite.getImageY(), sprite.getWidth(), sprite.getHeight(), width, height);
+		sprite.previousScaled = sprite.scaled;
+		sprite.scaled = region;
+		return region;
+	}
+	
+	private static boolean isScaled(AwtAtlas.Region region, int width, int height, int generation) {
+		return region != null && region.width == width && region.height == height
+				&& region.generation == generation;
 	}
 	
 	@Override
@@ -168,4 +249,30 @@ public class AwtGraphicsHandler extends mc.sayda.GraphicsHandler {
 		this.fillRect(x, y, width, height);
 		g.setColor(old);
 	}
+	
+	@Override
+	public Sprite createOffscreen(int width, int height) {
+		BufferedImage image = GraphicsEnvironment.getLocalGraphicsEnvironment()
+				.getDefaultScreenDevice().getDefaultConfiguration()
+				.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+		return new AwtSprite(image, null);
+	}
+	
+	@Override
+	public void beginOffscreen(Sprite offscreen) {
+		AwtSprite awtSprite = (AwtSprite) offscreen;
+		screenGraphics = g;
+		g = (Graphics2D) awtSprite.getImage().getGraphics();
+		Composite composite = g.getComposite();
+		g.setComposite(AlphaComposite.Clear);
+		g.fillRect(0, 0, awtSprite.getWidth(), awtSprite.getHeight());
+		g.setComposite(composite);
+	}
+	
+	@Override
+	public void endOffscreen() {
+		g.dispose();
+		g = screenGraphics;
+		screenGraphics = null;
+	}
 }
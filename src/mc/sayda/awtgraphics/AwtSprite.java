@@ -8,6 +8,7 @@ import java.io.ObjectOutputStream;
 import mc.sayda.Color;
 import mc.sayda.GraphicsHandler;
 import mc.sayda.Sprite;
+import mc.sayda.SpriteRef;
 import mc.sayda.SpriteStore;
 
 /**
@@ -22,24 +23,44 @@ import mc.sayda.SpriteStore;
 public class AwtSprite implements mc.sayda.Sprite {
 	private static final long serialVersionUID = 1L;
 	
-	/** The image to be drawn for this sprite */
+	/** The image holding this sprite, usually an atlas page shared with other sprites */
 	transient private Image image;
+	/** Where in the image the sprite is */
+	transient private int imageX, imageY, width, height;
 	public String ref;
+	
+	// the last two pre-scaled copies of this sprite, see AwtGraphicsHandler
+	transient AwtAtlas.Region scaled, previousScaled;
 
 	/**
 	 * Get the image for this sprite, loading it lazily if needed after deserialization.
+	 * The sprite is the (getImageX(), getImageY(), getWidth(), getHeight()) part of it.
 	 * @return The loaded image
 	 */
 	public Image getImage() {
 		if (image == null && ref != null) {
 			// Lazy load after deserialization
-			AwtSprite loaded = (AwtSprite) SpriteStore.get().loadSprite(ref);
-			// Access the private field directly since we're in the same class
+			AwtSprite loaded = (AwtSprite) SpriteStore.get().getSprite(ref);
+			// Access the private fields directly since we're in the same class
 			this.image = loaded.image;
+			this.imageX = loaded.imageX;
+			this.imageY = loaded.imageY;
+			this.width = loaded.width;
+			this.height = loaded.height;
 		}
 		return image;
 	}
 	
+	public int getImageX() {
+		getImage();
+		return imageX;
+	}
+	
+	public int getImageY() {
+		getImage();
+		return imageY;
+	}
+	
 	// for serialization loading
 	public AwtSprite() {
 		// Image will be lazy-loaded via getImage() when needed
@@ -53,6 +74,20 @@ public class AwtSprite implements mc.sayda.Sprite {
 	 */
 	public AwtSprite(Image image, String ref) {
 		this.image = image;
+		this.width = image.getWidth(null);
+		this.height = image.getHeight(null);
+		this.ref = ref;
+	}
+	
+	/**
+	 * Create a sprite from a region of an atlas page
+	 */
+	public AwtSprite(AwtAtlas.Region region, String ref) {
+		this.image = region.page;
+		this.imageX = region.x;
+		this.imageY = region.y;
+		this.width = region.width;
+		this.height = region.height;
 		this.ref = ref;
 	}
 	
@@ -62,7 +97,8 @@ public class AwtSprite implements mc.sayda.Sprite {
 	 * @return The width in pixels of this sprite
 	 */
 	public int getWidth() {
-		return getImage().getWidth(null);
+		getImage();
+		return width;
 	}
 
 	/**
@@ -71,7 +107,8 @@ public class AwtSprite implements mc.sayda.Sprite {
 	 * @return The height in pixels of this sprite
 	 */
 	public int getHeight() {
-		return getImage().getHeight(null);
+		getImage();
+		return height;
 	}
 	
 	/**
@@ -100,6 +137,20 @@ public class AwtSprite implements mc.sayda.Sprite {
 		g.drawImage(this, x, y, width, height, tint);
 	}
 	
+	/**
+	 * Saved as a SpriteRef, so reading it back does not need the AWT classes
+	 */
+	private Object writeReplace() {
+		return ref == null ? this : new SpriteRef(ref);
+	}
+	
+	/**
+	 * Saves from before SpriteRef still hold AwtSprites; hand back the current store's sprite
+	 */
+	private Object readResolve() {
+		return ref == null ? this : SpriteStore.get().getSprite(ref);
+	}
+	
 	/**
 	 * Always treat de-serialization as a full-blown constructor, by
 	 * validating the final state of the de-serialized object.
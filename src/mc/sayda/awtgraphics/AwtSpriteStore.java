@@ -1,8 +1,5 @@
 package mc.sayda.awtgraphics;
 
-import java.awt.GraphicsConfiguration;
-import java.awt.GraphicsEnvironment;
-import java.awt.Image;
 import java.awt.Transparency;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
@@ -11,6 +8,7 @@ import java.net.URL;
 import javax.imageio.ImageIO;
 
 import mc.sayda.Sprite;
+import mc.sayda.SpriteStore;
 
 /**
  * A resource manager for sprites in the game. Its often quite important
@@ -22,7 +20,13 @@ import mc.sayda.Sprite;
  * <p>
  * @author Kevin Glass
  */
-public class AwtSpriteStore extends mc.sayda.SpriteStore {
+public class AwtSpriteStore extends SpriteStore {
+	// every loaded sprite is packed into this, so they are all drawn from a few images
+	private final AwtAtlas atlas = new AwtAtlas(512, 0, Transparency.BITMASK);
+	
+	public static SpriteStore create() {
+		return new AwtSpriteStore();
+	}
 	
 	@Override
 	public Sprite loadSprite(String ref) {
@@ -47,17 +51,13 @@ public class AwtSpriteStore extends mc.sayda.SpriteStore {
 			fail("Failed to load: " + ref);
 		}
 		
-		// create an accelerated image of the right size to store our sprite in
-		GraphicsConfiguration gc = GraphicsEnvironment.getLocalGraphicsEnvironment()
-				.getDefaultScreenDevice().getDefaultConfiguration();
-		Image image = gc.createCompatibleImage(sourceImage.getWidth(), sourceImage.getHeight(),
-				Transparency.BITMASK);
-		
-		// draw our source image into the accelerated image
-		image.getGraphics().drawImage(sourceImage, 0, 0, null);
+		// copy the source image into the accelerated atlas
+		int width = sourceImage.getWidth();
+		int height = sourceImage.getHeight();
+		AwtAtlas.Region region = atlas.pack(sourceImage, 0, 0, width, height, width, height);
 		
 		// create a sprite, add it the cache then return it
-		Sprite sprite = (Sprite) new AwtSprite(image, ref);
+		Sprite sprite = (Sprite) new AwtSprite(region, ref);
 		return sprite;
 	}
 	
@@ -12,14 +12,20 @@
 
 package mc.sayda.client;
 
+import java.util.concurrent.ConcurrentLinkedQueue;
+
 import mc.sayda.Color;
 import mc.sayda.GraphicsHandler;
 import mc.sayda.MusicPlayer;
+import mc.sayda.entity.Entity;
+import mc.sayda.entity.Player;
 import mc.sayda.network.Connection;
 import mc.sayda.network.Packet;
 import mc.sayda.network.PacketHandler;
 import mc.sayda.network.packet.*;
+import mc.sayda.server.HeldInput;
 import mc.sayda.server.Server;
+import mc.sayda.server.WorldSnapshot;
 import mc.sayda.ui.Chat;
 import mc.sayda.ui.CommandHandler;
 import mc.sayda.ui.MainMenu;
@@ -27,6 +33,7 @@ import mc.sayda.ui.UIRenderer;
 import mc.sayda.util.Int2;
 import mc.sayda.util.StockMethods;
 import mc.sayda.util.SystemTimer;
+import mc.sayda.world.World;
 
 /**
  * Client handles rendering and input.
@@ -37,18 +44,37 @@ public class Client implements PacketHandler {
 	public Connection connection;  // Public for Game to send packets
 	private Server localServer;  // For integrated server (singleplayer)
 	private mc.sayda.Game game;  // Reference to Game for save/load
+	// The remote server's world, once joined; it belongs to the thread calling tick()
+	private volatile WorldReplica replica;
+	// whether the replica has our player yet, published by tick() for other threads
+	private volatile boolean remotePlayerSpawned;
+	private PlayerPredictor predictor;  // Moves our player in it ahead of the server
 
-	// Systems (for integrated server)
+	// Only draws the break animation; the server's copy does the breaking
 	private mc.sayda.system.BlockInteractionSystem blockInteractionSystem;
 
 	// Rendering
 	private UIRenderer uiRenderer;
 	public boolean viewFPS = false;
 	private int tileSize = 32;
+	private int frames = 0;
+	private long fpsSecondStart = System.nanoTime();
+	private float framesPerSecond;
+	// on a remote server: our ticks, see tick()
+	private int ticks = 0;
+	private long tpsSecondStart = System.nanoTime();
+	private float ticksPerSecond;
+	private long lastTickTime = System.nanoTime();
+	private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
 
 	// Input state
 	public boolean leftClick = false;
 	public boolean rightClick = false;
+	// movement keys, for a remote server, set on the AWT thread; the host's go straight to
+	// its player
+	public volatile boolean moveLeft = false;
+	public volatile boolean moveRight = false;
+	public volatile boolean climb = false;
 	public Int2 screenMousePos = new Int2(0, 0);
 
 	// UI
@@ -66,7 +92,6 @@ public class Client implements PacketHandler {
 		this.connection = connection;
 		this.localServer = localServer;
 
-		// Initialize systems (for integrated server)
 		blockInteractionSystem = new mc.sayda.system.BlockInteractionSystem(new java.util.Random());
 
 		// Initialize UI
@@ -89,80 +114,111 @@ public class Client implements PacketHandler {
 	}
 
 	/**
-	 * Client rendering loop
+	 * Client rendering loop. Draws the server's latest snapshot, so it never waits on a
+	 * tick, and hands the mouse state over for the server to apply on its next one. On a
+	 * remote server it draws our copy of its world instead, see tick().
 	 */
 	public void render() {
-		if (!running || localServer == null || localServer.player == null) return;
+		if (!running) return;
+
+		countFrame();
 
 		GraphicsHandler g = GraphicsHandler.get();
-		g.startDrawing();
 
 		// Render menu
 		if (inMenu) {
+			g.startDrawing();
 			menu.draw(g);
 			uiRenderer.drawMouse(g, screenMousePos);
 			g.finishDrawing();
 			return;
 		}
 
-		// Get screen dimensions
-		final int screenWidth = g.getScreenWidth();
-		final int screenHeight = g.getScreenHeight();
+		if (localServer == null) {
+			renderReplica(g);
+			return;
+		}
 
-		// Calculate camera position
-		float cameraX = localServer.player.x - screenWidth / tileSize / 2;
-		float cameraY = localServer.player.y - screenHeight / tileSize / 2;
-		float worldMouseX = (cameraX * tileSize + screenMousePos.x) / tileSize;
-		float worldMouseY = (cameraY * tileSize + screenMousePos.y) / tileSize - .5f;
+		WorldSnapshot snapshot = localServer.getSnapshot();
+		if (snapshot == null || snapshot.player == null) return;
+		Player player = snapshot.player;
 
-		// Render world
-		if (localServer.world != null) {
-			localServer.world.draw(g, 0, 0, screenWidth, screenHeight, cameraX, cameraY, tileSize);
-		}
+		// Calculate camera position, following the player between ticks
+		float alpha = snapshot.getInterpolation(System.nanoTime());
+		double cameraX = player.interpolatedX(alpha) - g.getScreenWidth() / tileSize / 2;
+		double cameraY = player.interpolatedY(alpha) - g.getScreenHeight() / tileSize / 2;
+		double worldMouseX = (cameraX * tileSize + screenMousePos.x) / tileSize;
+		double worldMouseY = (cameraY * tileSize + screenMousePos.y) / tileSize - .5f;
 
-		// Render entities
-		for (mc.sayda.entity.Entity entity : localServer.entities) {
-			entity.draw(g, cameraX, cameraY, screenWidth, screenHeight, tileSize);
+		// Breaking, placing and inventory clicks happen on the server's next tick
+		localServer.setHeldInput(new HeldInput(leftClick, rightClick, screenMousePos,
+				worldMouseX, worldMouseY, g.getScreenWidth(), g.getScreenHeight(), chat.isOpen()));
+
+		g.startDrawing();
+		drawWorld(g, snapshot.world, snapshot.entities, player, cameraX, cameraY, alpha);
+		if (snapshot.breakingProgress >= 0) {
+			blockInteractionSystem.drawBreaking(g, snapshot.breakingX, snapshot.breakingY,
+					snapshot.breakingProgress, cameraX, cameraY, tileSize);
 		}
+		drawUI(g, snapshot.world, player, cameraX, cameraY, worldMouseX, worldMouseY,
+				localServer.getTicksPerSecond());
+		g.finishDrawing();
+	}
 
-		// Don't process game input if chat is open
-		boolean chatOpen = chat.isOpen();
+	/**
+	 * Draw a remote server's world: our player where the predictor has it, between our last
+	 * two ticks, and everyone else where WorldReplica.interpolate() puts them
+	 */
+	private void renderReplica(GraphicsHandler g) {
+		Player player = replica == null ? null : replica.getPlayer();
+		if (player == null) return;  // not joined yet
+		long now = System.nanoTime();
+		replica.interpolate(now);
+
+		float alpha = Math.min(1, (float) (now - lastTickTime) / Server.TICK_NANOS);
+		double cameraX = player.interpolatedX(alpha) - g.getScreenWidth() / tileSize / 2;
+		double cameraY = player.interpolatedY(alpha) - g.getScreenHeight() / tileSize / 2;
+		double worldMouseX = (cameraX * tileSize + screenMousePos.x) / tileSize;
+		double worldMouseY = (cameraY * tileSize + screenMousePos.y) / tileSize - .5f;
 
-		// Update inventory UI
-		boolean inventoryFocus = localServer.player.inventory.updateInventory(screenWidth, screenHeight,
-				screenMousePos, leftClick && !chatOpen, rightClick && !chatOpen);
-		if (inventoryFocus || chatOpen) {
-			leftClick = false;
-			rightClick = false;
-		}
+		g.startDrawing();
+		drawWorld(g, replica.world, replica.entities.values(), player, cameraX, cameraY, alpha);
+		drawUI(g, replica.world, player, cameraX, cameraY, worldMouseX, worldMouseY,
+				ticksPerSecond);
+		g.finishDrawing();
+	}
+
+	private void drawWorld(GraphicsHandler g, World world, Iterable<Entity> entities,
+			Player player, double cameraX, double cameraY, float alpha) {
+		final int screenWidth = g.getScreenWidth();
+		final int screenHeight = g.getScreenHeight();
 
-		// Handle block interactions (for integrated server - direct access)
-		// Don't reset leftClick/rightClick here - let them persist while mouse is held down
-		if (leftClick && localServer.world != null) {
-			// Block breaking - called every frame while mouse is held down
-			// Note: This is a direct call for integrated server; in multiplayer this would be via packets
-			blockInteractionSystem.handleBlockBreaking(g, localServer.player, localServer.world, localServer.entities,
-					cameraX, cameraY, tileSize, true);
+		// Render world
+		if (world != null) {
+			world.draw(g, 0, 0, screenWidth, screenHeight, cameraX, cameraY, tileSize);
 		}
 
-		if (rightClick && localServer.world != null) {
-			// Block placing - uses persistent blockInteractionSystem
-			blockInteractionSystem.handleBlockPlacing(localServer.player, localServer.world, tileSize);
+		// Render entities
+		for (Entity entity : entities) {
+			entity.draw(g, cameraX, cameraY, screenWidth, screenHeight, tileSize, alpha);
 		}
+	}
 
-		// Update player hand visual
-		localServer.player.updateHand(g, cameraX, cameraY, worldMouseX, worldMouseY, localServer.world, tileSize);
+	private void drawUI(GraphicsHandler g, World world, Player player, double cameraX,
+			double cameraY, double worldMouseX, double worldMouseY, float ticksPerSecond) {
+		final int screenWidth = g.getScreenWidth();
+		final int screenHeight = g.getScreenHeight();
 
 		// Render UI
 		if (viewFPS) {
-			uiRenderer.drawFPS(g, 16);  // TODO: Calculate actual delta
+			uiRenderer.drawFPS(g, framesPerSecond, ticksPerSecond);
 		}
 
-		uiRenderer.drawBuildMineIcons(g, localServer.player, cameraX, cameraY, tileSize);
-		localServer.player.inventory.draw(g, screenWidth, screenHeight);
+		uiRenderer.drawBuildMineIcons(g, player, cameraX, cameraY, tileSize);
+		player.inventory.draw(g, screenWidth, screenHeight);
 
 		// Death screen
-		if (localServer.player.dead) {
+		if (player.dead) {
 			drawDeathScreen(g, screenWidth, screenHeight);
 		}
 
@@ -175,19 +231,97 @@ public class Client implements PacketHandler {
 		uiRenderer.drawMouse(g, mouseTest);
 
 		// Health and air
-		uiRenderer.drawHealthBar(g, localServer.player, screenWidth, screenHeight);
-		uiRenderer.drawAirBubbles(g, localServer.player, localServer.world, tileSize, screenWidth, screenHeight);
+		uiRenderer.drawHealthBar(g, player, screenWidth, screenHeight);
+		if (world != null) {
+			uiRenderer.drawAirBubbles(g, player, world, tileSize, screenWidth, screenHeight);
+		}
+	}
 
-		g.finishDrawing();
+	private void countFrame() {
+		frames++;
+		long now = System.nanoTime();
+		if (now - fpsSecondStart >= 1000000000L) {
+			framesPerSecond = frames * 1e9f / (now - fpsSecondStart);
+			fpsSecondStart = now;
+			frames = 0;
+		}
+	}
+
+	/**
+	 * One tick on a remote server: run what other threads queued with execute(), apply what
+	 * the server sent, and move our player with the input we send it. Call it at the
+	 * server's tick rate, on the thread that renders.
+	 */
+	public void tick() {
+		Runnable task;
+		while ((task = tasks.poll()) != null) {
+			task.run();
+		}
+		processPackets();
+		remotePlayerSpawned = replica != null && replica.getPlayer() != null;
+		sendInput();
+		// the tick's acks and input go out together
+		connection.flush();
+		lastTickTime = System.nanoTime();
+
+		ticks++;
+		if (lastTickTime - tpsSecondStart >= 1000000000L) {
+			ticksPerSecond = ticks * 1e9f / (lastTickTime - tpsSecondStart);
+			tpsSecondStart = lastTickTime;
+			ticks = 0;
+		}
 	}
 
 	/**
-	 * Send input state to server
+	 * Run task before the next tick(). Safe from any thread, e.g. the AWT one.
+	 */
+	public void execute(Runnable task) {
+		tasks.add(task);
+	}
+
+	/**
+	 * @return our player as last drawn: the local server's latest snapshot of it, or the
+	 *         one in our copy of a remote server's world. Null before there is one. The
+	 *         remote one is only for the thread calling tick(); see execute().
+	 */
+	public Player getPlayer() {
+		if (localServer == null) {
+			return replica == null ? null : replica.getPlayer();
+		}
+		WorldSnapshot snapshot = localServer.getSnapshot();
+		return snapshot == null ? null : snapshot.player;
+	}
+
+	/**
+	 * @return whether there is a player to show yet. Safe from any thread.
+	 */
+	public boolean hasPlayer() {
+		if (localServer == null) {
+			return remotePlayerSpawned;
+		}
+		WorldSnapshot snapshot = localServer.getSnapshot();
+		return snapshot != null && snapshot.player != null;
+	}
+
+	/**
+	 * @return frames per second measured over the last second
+	 */
+	public float getFramesPerSecond() {
+		return framesPerSecond;
+	}
+
+	/**
+	 * Send input state to server. To a remote server this is one tick of our player, so
+	 * call it once a tick: the player moves here at once, see PlayerPredictor.
 	 */
 	public void sendInput() {
-		if (localServer == null || localServer.player == null) return;
+		if (replica != null) {
+			sendPredictedInput();
+			return;
+		}
+		WorldSnapshot snapshot = localServer == null ? null : localServer.getSnapshot();
+		if (snapshot == null || snapshot.player == null) return;
 
-		// For now, we're accessing server state directly (integrated server)
 		// TODO: Send proper input packets
 
 		// Send player input
@@ -195,11 +329,27 @@ public class Client implements PacketHandler {
 				false, false, false,  // TODO: Track movement keys
 				leftClick, rightClick,
 				screenMousePos.x, screenMousePos.y,
-				localServer.player.inventory.hotbarIdx
+				snapshot.player.inventory.hotbarIdx
 		);
 		connection.sendPacket(inputPacket);
 	}
 
+	private void sendPredictedInput() {
+		Player player = replica.getPlayer();
+		if (player == null) return;  // not spawned yet
+
+		// the mouse in world coordinates, with the camera on the player as in render()
+		GraphicsHandler g = GraphicsHandler.get();
+		double cameraX = player.x - g.getScreenWidth() / tileSize / 2;
+		double cameraY = player.y - g.getScreenHeight() / tileSize / 2;
+		PacketPlayerInput input = new PacketPlayerInput(moveLeft, moveRight, climb,
+				leftClick, rightClick,
+				(cameraX * tileSize + screenMousePos.x) / tileSize,
+				(cameraY * tileSize + screenMousePos.y) / tileSize - .5f,
+				player.inventory.hotbarIdx);
+		connection.sendPacket(predictor.predict(player, replica.world, input));
+	}
+
 	/**
 	 * Process packets from server
 	 */
@@ -249,11 +399,18 @@ public class Client implements PacketHandler {
 	}
 
 	public void goToMainMenu() {
+		// the menu starts and loads local games; leaving a remote server ends the game
+		if (localServer == null) {
+			stop();
+			return;
+		}
 		// Save the game before returning to menu
-		if (game != null && localServer != null && localServer.world != null) {
+		WorldSnapshot snapshot = localServer.getSnapshot();
+		if (game != null && snapshot != null && snapshot.world != null) {
 			game.saveGame();
 		}
 		inMenu = true;
+		localServer.setHeldInput(null);
 		musicPlayer.pause();
 	}
 
@@ -267,31 +424,54 @@ public class Client implements PacketHandler {
 
 	// ===== Packet Handlers =====
 
+	@Override
+	public void handleJoinGame(PacketJoinGame packet) {
+		replica = new WorldReplica(packet.worldWidth, packet.worldHeight, packet.playerId);
+		predictor = new PlayerPredictor(tileSize);
+	}
+
 	@Override
 	public void handleWorldUpdate(PacketWorldUpdate packet) {
-		// Update local world state from server
-		if (localServer != null && localServer.world != null) {
-			localServer.world.setTicksAlive(packet.ticksAlive);
-
-			// Apply block changes
-			if (packet.changedX != null) {
-				for (int i = 0; i < packet.changedX.length; i++) {
-					// Convert char to TileID and add/remove tile
-					if (packet.changedTiles[i] == 0) {
-						localServer.world.removeTile(packet.changedX[i], packet.changedY[i]);
-					} else {
-						mc.sayda.Constants.TileID tileId = mc.sayda.Constants.TileID.values()[packet.changedTiles[i]];
-						localServer.world.addTile(packet.changedX[i], packet.changedY[i], tileId);
-					}
-				}
-			}
+		if (replica == null) return;
+		PacketWorldAck ack = replica.apply(packet);
+		if (ack != null) {
+			connection.sendPacket(ack);
 		}
 	}
 
+	@Override
+	public void handleEntitySpawn(PacketEntitySpawn packet) {
+		if (replica != null) replica.spawnEntities(packet);
+	}
+
 	@Override
 	public void handleEntityUpdate(PacketEntityUpdate packet) {
-		// Update entity positions from server
-		// TODO: Implement when we have proper entity sync
+		if (replica != null) replica.updateEntities(packet);
+	}
+
+	@Override
+	public void handleEntityDespawn(PacketEntityDespawn packet) {
+		if (replica != null) replica.despawnEntities(packet);
+	}
+
+	@Override
+	public void handlePlayerState(PacketPlayerState packet) {
+		Player player = replica == null ? null : replica.getPlayer();
+		if (player != null) predictor.reconcile(player, replica.world, packet);
+	}
+
+	/**
+	 * @return our copy of the remote server's world, or null if not connected to one
+	 */
+	public WorldReplica getReplica() {
+		return replica;
+	}
+
+	/**
+	 * @return what is moving our player on a remote server, or null if not connected to one
+	 */
+	public PlayerPredictor getPredictor() {
+		return predictor;
 	}
 
 	@Override
@@ -309,4 +489,7 @@ public class Client implements PacketHandler {
 
 	@Override
 	public void handleChatSend(PacketChatSend packet) {}
+
+	@Override
+	public void handleWorldAck(PacketWorldAck packet) {}
 }
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2025 SaydaGames (mc_jojo3)
+ *
+ * This file is part of MCraze
+ *
+ * MCraze is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * MCraze is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with MCraze. If not, see http://www.gnu.org/licenses/.
+ */
+
+
+package mc.sayda.client;
+
+/**
+ * The last few positions the server sent for one entity, each with the server tick it was
+ * at, so the entity can be drawn anywhere between them rather than jumping from one to the
+ * next as they arrive. A ring of CAPACITY; the oldest are overwritten.
+ */
+public class InterpolationBuffer {
+	// a few updates' worth, more than the delay they are drawn at needs
+	static final int CAPACITY = 8;
+
+	private final long[] ticks = new long[CAPACITY];
+	private final double[] xs = new double[CAPACITY];
+	private final double[] ys = new double[CAPACITY];
+	// the next slot to write; the newest is the one before
+	private int head;
+	private int count;
+
+	public InterpolationBuffer(long tick, double x, double y) {
+		add(tick, x, y);
+	}
+
+	/**
+	 * Add the position at tick. One no newer than the newest is dropped.
+	 */
+	public void add(long tick, double x, double y) {
+		if (count > 0 && tick <= newestTick()) {
+			return;
+		}
+		ticks[head] = tick;
+		xs[head] = x;
+		ys[head] = y;
+		head = (head + 1) % CAPACITY;
+		count = Math.min(count + 1, CAPACITY);
+	}
+
+	public long newestTick() {
+		return ticks[slot(count - 1)];
+	}
+
+	public double newestX() {
+		return xs[slot(count - 1)];
+	}
+
+	public double newestY() {
+		return ys[slot(count - 1)];
+	}
+
+	/**
+	 * Put the position at tick in out, in a straight line between the positions around it.
+	 * Before the oldest it is the oldest, and after the newest it stays at the newest
+	 * rather than guessing ahead.
+	 */
+	public void sample(double tick, double[] out) {
+		int i = count - 1;
+		while (i > 0 && ticks[slot(i)] > tick) {
+			i--;
+		}
+		int from = slot(i);
+		if (i == count - 1 || ticks[from] >= tick) {
+			out[0] = xs[from];
+			out[1] = ys[from];
+			return;
+		}
+		int to = slot(i + 1);
+		double alpha = (tick - ticks[from]) / (ticks[to] - ticks[from]);
+		out[0] = xs[from] + (xs[to] - xs[from]) * alpha;
+		out[1] = ys[from] + (ys[to] - ys[from]) * alpha;
+	}
+
+	/**
+	 * @return the slot of the i-th oldest position
+	 */
+	private int slot(int i) {
+		return (head - count + i + CAPACITY) % CAPACITY;
+	}
+}
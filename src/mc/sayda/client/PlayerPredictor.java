@@ -0,0 +1,138 @@
+/*
+ * Copyright 2025 SaydaGames (mc_jojo3)
+ *
+ * This file is part of MCraze
+ *
+ * MCraze is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * MCraze is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with MCraze. If not, see http://www.gnu.org/licenses/.
+ */
+
+
+package mc.sayda.client;
+
+import java.util.ArrayDeque;
+
+import mc.sayda.entity.Player;
+import mc.sayda.network.packet.PacketPlayerInput;
+import mc.sayda.network.packet.PacketPlayerState;
+import mc.sayda.server.Server;
+import mc.sayda.world.World;
+
+/**
+ * Moves our player as soon as an input is sent, instead of a round trip later when the
+ * server's answer comes back. Each input goes through the same Server.simulateInput() the
+ * server will use, and is kept until a PacketPlayerState says the server has applied it
+ * too. If the server got somewhere else (another player built under us, say) the player
+ * is put where the server has it and the inputs it hasn't seen yet are applied again.
+ *
+ * The server still decides where the player is; this only guesses ahead of it.
+ */
+public class PlayerPredictor {
+	// two seconds of inputs; a server this far behind is not answering, so the oldest are
+	// dropped instead of kept forever
+	static final int MAX_PENDING = 2 * Server.TICKS_PER_SECOND;
+
+	private final int tileSize;
+	private final ArrayDeque<Prediction> pending = new ArrayDeque<>();
+	private int nextSequence = 1;
+	// times the server disagreed with us, for the debug overlay and tests
+	private int corrections;
+
+	/**
+	 * An input sent, and where it left the player
+	 */
+	private static class Prediction {
+		final PacketPlayerInput input;
+		double x, y;
+		float dx, dy;
+		boolean jumping;
+
+		Prediction(PacketPlayerInput input) {
+			this.input = input;
+		}
+
+		void record(Player player) {
+			x = player.x;
+			y = player.y;
+			dx = player.dx;
+			dy = player.dy;
+			jumping = player.isJumping();
+		}
+
+		boolean matches(PacketPlayerState state) {
+			return x == state.x && y == state.y && dx == state.dx && dy == state.dy
+					&& jumping == state.jumping;
+		}
+	}
+
+	public PlayerPredictor(int tileSize) {
+		this.tileSize = tileSize;
+	}
+
+	/**
+	 * Number input and move player by it
+	 * @return input, ready to send
+	 */
+	public PacketPlayerInput predict(Player player, World world, PacketPlayerInput input) {
+		input.sequence = nextSequence++;
+		simulate(player, world, input);
+		if (pending.size() == MAX_PENDING) {
+			pending.removeFirst();
+		}
+		Prediction prediction = new Prediction(input);
+		prediction.record(player);
+		pending.addLast(prediction);
+		return input;
+	}
+
+	/**
+	 * Forget the inputs state covers, and if the server did not end up where we predicted,
+	 * start over from where it did and apply the rest again
+	 */
+	public void reconcile(Player player, World world, PacketPlayerState state) {
+		Prediction predicted = null;
+		while (!pending.isEmpty() && pending.peekFirst().input.sequence <= state.sequence) {
+			predicted = pending.removeFirst();
+		}
+		if (predicted != null && predicted.input.sequence == state.sequence
+				&& predicted.matches(state)) {
+			return;
+		}
+		corrections++;
+		player.x = state.x;
+		player.y = state.y;
+		player.dx = state.dx;
+		player.dy = state.dy;
+		player.setJumping(state.jumping);
+		for (Prediction prediction : pending) {
+			simulate(player, world, prediction.input);
+			prediction.record(player);
+		}
+	}
+
+	/**
+	 * Server.simulateInput(), except that health is the server's alone: falls and drowning
+	 * we predict must not hurt us again each time they are applied again
+	 */
+	private void simulate(Player player, World world, PacketPlayerInput input) {
+		int hitPoints = player.hitPoints;
+		boolean dead = player.dead;
+		Server.simulateInput(player, input, world, tileSize);
+		player.hitPoints = hitPoints;
+		player.dead = dead;
+	}
+
+	/**
+	 * @return inputs sent that the server has not answered yet
+	 */
+	public int getPending() {
+		return pending.size();
+	}
+
+	public int getCorrections() {
+		return corrections;
+	}
+}
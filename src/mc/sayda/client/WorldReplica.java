@@ -0,0 +1,251 @@
+/*
+ * Copyright 2025 SaydaGames (mc_jojo3)
+ *
+ * This file is part of MCraze
+ *
+ * MCraze is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * MCraze is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with MCraze. If not, see http://www.gnu.org/licenses/.
+ */
+
+package mc.sayda.client;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import mc.sayda.Constants;
+import mc.sayda.entity.Entity;
+import mc.sayda.entity.LivingEntity;
+import mc.sayda.entity.Player;
+import mc.sayda.item.Item;
+import mc.sayda.network.ChunkRuns;
+import mc.sayda.network.packet.PacketEntityDespawn;
+import mc.sayda.network.packet.PacketEntitySpawn;
+import mc.sayda.network.packet.PacketEntityUpdate;
+import mc.sayda.network.packet.PacketWorldAck;
+import mc.sayda.network.packet.PacketWorldUpdate;
+import mc.sayda.server.Server;
+import mc.sayda.world.Chunk;
+import mc.sayda.world.World;
+
+/**
+ * A client's copy of the part of a remote server's world near its player: the chunks and
+ * entities the server sent. Chunks the server has not sent are not loaded.
+ *
+ * Entities other than our player are where interpolate() last put them: DELAY_TICKS behind
+ * the server, between the updates it sent, so they move smoothly although updates only
+ * come every PacketEntityUpdate.UPDATE_TICKS ticks.
+ */
+public class WorldReplica {
+	// two updates, so one arriving late still finds the next one to move towards
+	static final int DELAY_TICKS = 2 * PacketEntityUpdate.UPDATE_TICKS;
+	// how fast, in ticks per update, the clock below gives up on the quickest arrival seen,
+	// in case the network got slower since
+	private static final double CLOCK_DECAY = 0.01;
+
+	public final World world;
+	// the entities in view, by id
+	public final HashMap<Integer, Entity> entities = new HashMap<>();
+	// the id of our own player among them
+	public final int playerId;
+	// each entity's fixed point position, which updates move by; see PacketEntityUpdate
+	private final HashMap<Integer, int[]> positions = new HashMap<>();
+	// the revision of each chunk we have, see PacketWorldUpdate
+	private final HashMap<Integer, Integer> revisions = new HashMap<>();
+	// the positions each entity but our player was sent
+	private final HashMap<Integer, InterpolationBuffer> snapshots = new HashMap<>();
+	// the server's tick less ours (System.nanoTime() in ticks), from the update that
+	// arrived quickest; NaN until one arrives
+	private double clockOffset = Double.NaN;
+	private final double[] sample = new double[2];
+
+	public WorldReplica(int width, int height, int playerId) {
+		world = new World(width, height);
+		this.playerId = playerId;
+	}
+
+	/**
+	 * Apply the chunks in packet
+	 * @return the acknowledgement to send back, or null if nothing was applied
+	 */
+	public PacketWorldAck apply(PacketWorldUpdate packet) {
+		world.setTicksAlive(packet.ticksAlive);
+		int count = packet.chunkIndexes.length;
+		int[] chunkIndexes = new int[count];
+		int[] applied = new int[count];
+		int acked = 0;
+		for (int i = 0; i < count; i++) {
+			if (applyChunk(packet.chunkIndexes[i], packet.baseRevisions[i], packet.revisions[i],
+					packet.runs[i])) {
+				chunkIndexes[acked] = packet.chunkIndexes[i];
+				applied[acked] = packet.revisions[i];
+				acked++;
+			}
+		}
+		if (packet.unloadedChunks != null) {
+			for (int index : packet.unloadedChunks) {
+				if (index >= 0 && index < world.getChunkCount()) {
+					world.removeChunk(index);
+					revisions.remove(index);
+				}
+			}
+		}
+		if (acked == 0) {
+			return null;
+		}
+		return new PacketWorldAck(Arrays.copyOf(chunkIndexes, acked), Arrays.copyOf(applied, acked));
+	}
+
+	public void spawnEntities(PacketEntitySpawn packet) {
+		for (int i = 0; i < packet.entityIds.length; i++) {
+			double x = PacketEntityUpdate.position(packet.entityX[i]);
+			double y = PacketEntityUpdate.position(packet.entityY[i]);
+			Entity entity;
+			if (packet.entityKinds[i] == PacketEntitySpawn.PLAYER) {
+				entity = new Player(true, x, y, packet.entityWidth[i], packet.entityHeight[i]);
+			} else {
+				Item type = Constants.itemTypes.get((char) packet.entityKinds[i]);
+				if (type == null) {
+					continue;
+				}
+				entity = type.clone();
+				entity.x = x;
+				entity.y = y;
+			}
+			entity.id = packet.entityIds[i];
+			entities.put(entity.id, entity);
+			positions.put(entity.id, new int[] { packet.entityX[i], packet.entityY[i] });
+			if (entity.id != playerId) {
+				snapshots.put(entity.id, new InterpolationBuffer(packet.tick, x, y));
+			}
+		}
+		observeTick(packet.tick);
+	}
+
+	public void updateEntities(PacketEntityUpdate packet) {
+		observeTick(packet.tick);
+		for (int i = 0; i < packet.entityIds.length; i++) {
+			Entity entity = entities.get(packet.entityIds[i]);
+			if (entity == null) {
+				continue;
+			}
+			int[] position = positions.get(entity.id);
+			int dirty = packet.dirty[i];
+			if ((dirty & PacketEntityUpdate.X) != 0) {
+				position[0] += packet.deltaX[i];
+			}
+			if ((dirty & PacketEntityUpdate.Y) != 0) {
+				position[1] += packet.deltaY[i];
+			}
+			// our own player is moved by PlayerPredictor, from the exact PacketPlayerState
+			if (entity.id != playerId) {
+				if ((dirty & (PacketEntityUpdate.X | PacketEntityUpdate.Y)) != 0) {
+					addSnapshot(snapshots.get(entity.id), packet.tick, position);
+				}
+				if ((dirty & PacketEntityUpdate.DX) != 0) {
+					entity.dx = PacketEntityUpdate.velocity(packet.velocityX[i]);
+				}
+				if ((dirty & PacketEntityUpdate.DY) != 0) {
+					entity.dy = PacketEntityUpdate.velocity(packet.velocityY[i]);
+				}
+			}
+			if ((dirty & PacketEntityUpdate.HEALTH) != 0 && entity instanceof LivingEntity) {
+				((LivingEntity) entity).hitPoints = packet.health[i];
+			}
+		}
+	}
+
+	/**
+	 * An entity left out of the update before this one had not moved then, so it starts
+	 * moving from there rather than from wherever it was last sent
+	 */
+	private static void addSnapshot(InterpolationBuffer snapshots, long tick, int[] position) {
+		long previousUpdate = tick - PacketEntityUpdate.UPDATE_TICKS;
+		if (snapshots.newestTick() < previousUpdate) {
+			snapshots.add(previousUpdate, snapshots.newestX(), snapshots.newestY());
+		}
+		snapshots.add(tick, PacketEntityUpdate.position(position[0]),
+				PacketEntityUpdate.position(position[1]));
+	}
+
+	public void despawnEntities(PacketEntityDespawn packet) {
+		for (int id : packet.entityIds) {
+			entities.remove(id);
+			positions.remove(id);
+			snapshots.remove(id);
+		}
+	}
+
+	/**
+	 * Move every entity but our player to where it was DELAY_TICKS before the server's
+	 * current tick, as far as we can tell it at nanoTime. Call before drawing them.
+	 */
+	public void interpolate(long nanoTime) {
+		if (Double.isNaN(clockOffset)) {
+			return;
+		}
+		double tick = (double) nanoTime / Server.TICK_NANOS + clockOffset - DELAY_TICKS;
+		for (Map.Entry<Integer, InterpolationBuffer> entry : snapshots.entrySet()) {
+			Entity entity = entities.get(entry.getKey());
+			entry.getValue().sample(tick, sample);
+			entity.x = sample[0];
+			entity.y = sample[1];
+		}
+	}
+
+	/**
+	 * Set the clock interpolate() draws by from the arrival of a packet sent on tick. The
+	 * quickest arrival is the one least held up on the way, so the clock is set by it.
+	 */
+	private void observeTick(long tick) {
+		double offset = tick - (double) System.nanoTime() / Server.TICK_NANOS;
+		if (Double.isNaN(clockOffset) || offset > clockOffset) {
+			clockOffset = offset;
+		} else {
+			clockOffset -= CLOCK_DECAY;
+		}
+	}
+
+	/**
+	 * @return our own player, or null before the server has sent it
+	 */
+	public Player getPlayer() {
+		Entity player = entities.get(playerId);
+		return player instanceof Player ? (Player) player : null;
+	}
+
+	/**
+	 * @return the revision of chunkIndex we have, or PacketWorldUpdate.FULL if none
+	 */
+	public int getRevision(int chunkIndex) {
+		Integer revision = revisions.get(chunkIndex);
+		return revision == null ? PacketWorldUpdate.FULL : revision;
+	}
+
+	private boolean applyChunk(int index, int baseRevision, int revision, byte[] runs) {
+		if (index < 0 || index >= world.getChunkCount()) {
+			return false;
+		}
+		if (baseRevision == PacketWorldUpdate.FULL) {
+			Chunk chunk = new Chunk(index, world.height);
+			if (!ChunkRuns.apply(runs, world.height, chunk::initTile)) {
+				return false;
+			}
+			world.putChunk(chunk);
+		} else {
+			// the changes since baseRevision, which we must have; anything newer we have is
+			// overwritten with the same or newer values
+			int have = getRevision(index);
+			if (have < baseRevision || have >= revision) {
+				return false;
+			}
+			int left = index << Chunk.SHIFT;
+			ChunkRuns.apply(runs, world.height, (lx, y, id) -> world.changeTile(left + lx, y, id));
+		}
+		revisions.put(index, revision);
+		return true;
+	}
+}
@@ -12,6 +12,9 @@
 
 package mc.sayda.entity;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+
 import mc.sayda.GraphicsHandler;
 import mc.sayda.Sprite;
 import mc.sayda.SpriteStore;
@@ -19,7 +22,7 @@ import mc.sayda.util.Int2;
 import mc.sayda.util.StockMethods;
 import mc.sayda.world.World;
 
-public abstract class Entity implements java.io.Serializable {
+public abstract class Entity implements java.io.Serializable, Cloneable {
 	private static final long serialVersionUID = 1L;
 	
 	protected static final float gravityAcceleration = .03f;
@@ -27,17 +30,22 @@ public abstract class Entity implements java.io.Serializable {
 	protected static final float maxWaterDY = .05f;
 	protected static final float swimUpVelocity = .055f;  // Slightly higher than maxWaterDY for active swimming
 	
-	public float x;
-	public float y;
+	/** Identifies the entity to remote players; 0 until the server first sends it */
+	public transient int id;
+	public double x;
+	public double y;
 	public float dx;
 	public float dy;
+	// position before the last tick, for drawing between ticks; NaN until the entity's first tick
+	public transient double lastX = Double.NaN;
+	public transient double lastY = Double.NaN;
 	
 	public Sprite sprite;
 	protected boolean gravityApplies;
 	public int widthPX;
 	public int heightPX;
 	
-	public Entity(String ref, boolean gravityApplies, float x, float y, int width, int height) {
+	public Entity(String ref, boolean gravityApplies, double x, double y, int width, int height) {
 		if (ref != null) {
 			this.sprite = SpriteStore.get().getSprite(ref);
 		}
@@ -49,11 +57,52 @@ public abstract class Entity implements java.io.Serializable {
 		this.dx = this.dy = 0;
 	}
 	
+	/**
+	 * Deserialization skips field initializers, so a loaded entity has not ticked either
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		lastX = Double.NaN;
+		lastY = Double.NaN;
+	}
+	
 	@Override
 	protected Entity clone() throws CloneNotSupportedException {
 		return (Entity) super.clone();
 	}
 	
+	/**
+	 * @return a copy of the entity's current state, for drawing on another thread while
+	 *         this one keeps updating
+	 */
+	public Entity copy() {
+		try {
+			return clone();
+		} catch (CloneNotSupportedException e) {
+			throw new AssertionError(e);
+		}
+	}
+	
+	/**
+	 * Remember the current position as where the next tick starts from; see interpolatedX()
+	 */
+	public void rememberPosition() {
+		lastX = x;
+		lastY = y;
+	}
+	
+	/**
+	 * @param alpha how far [0, 1] from the start to the end of the last tick
+	 * @return x between where the entity was before the last tick and where it is now
+	 */
+	public double interpolatedX(float alpha) {
+		return Double.isNaN(lastX) ? x : lastX + (x - lastX) * alpha;
+	}
+	
+	public double interpolatedY(float alpha) {
+		return Double.isNaN(lastY) ? y : lastY + (y - lastY) * alpha;
+	}
+	
 	public void updatePosition(World world, int tileSize) {
 		int pixels = (int) Math.ceil(Math.max(Math.abs(dx), Math.abs(dy)) * tileSize);
 		
@@ -61,10 +110,10 @@ public abstract class Entity implements java.io.Serializable {
 		boolean hitTop = false;
 		boolean hitBottom = false;
 		
-		float left = this.getLeft(tileSize);
-		float right = this.getRight(tileSize);
-		float top = this.getTop(tileSize);
-		float bottom = this.getBottom(tileSize);
+		double left = this.getLeft(tileSize);
+		double right = this.getRight(tileSize);
+		double top = this.getTop(tileSize);
+		double bottom = this.getBottom(tileSize);
 		
 		boolean topLeft = true;
 		boolean topRight = true;
@@ -181,27 +230,27 @@ public abstract class Entity implements java.io.Serializable {
 		y = top;
 	}
 	
-	public float getCenterY(int tileSize) {
+	public double getCenterY(int tileSize) {
 		return y + (float) heightPX / (2 * tileSize);
 	}
 	
-	public float getCenterX(int tileSize) {
+	public double getCenterX(int tileSize) {
 		return x + (float) widthPX / (2 * tileSize);
 	}
 	
-	public float getTop(int tileSize) {
+	public double getTop(int tileSize) {
 		return y;
 	}
 	
-	public float getBottom(int tileSize) {
+	public double getBottom(int tileSize) {
 		return (y + (float) (heightPX) / tileSize);
 	}
 	
-	public float getLeft(int tileSize) {
+	public double getLeft(int tileSize) {
 		return x;
 	}
 	
-	public float getRight(int tileSize) {
+	public double getRight(int tileSize) {
 		return x + (float) (widthPX) / tileSize;
 	}
 	
@@ -232,10 +281,10 @@ public abstract class Entity implements java.io.Serializable {
 	}
 	
 	public boolean collidesWith(Entity entity, int tileSize) {
-		float left1, left2;
-		float right1, right2;
-		float top1, top2;
-		float bottom1, bottom2;
+		double left1, left2;
+		double right1, right2;
+		double top1, top2;
+		double bottom1, bottom2;
 		
 		left1 = this.x;
 		left2 = entity.x;
@@ -258,10 +307,13 @@ public abstract class Entity implements java.io.Serializable {
 		return pos.x >= left && pos.x <= right && pos.y >= top && pos.y <= bottom;
 	}
 	
-	public void draw(GraphicsHandler g, float cameraX, float cameraY, int screenWidth,
-			int screenHeight, int tileSize) {
+	/**
+	 * @param alpha see interpolatedX()
+	 */
+	public void draw(GraphicsHandler g, double cameraX, double cameraY, int screenWidth,
+			int screenHeight, int tileSize, float alpha) {
 		Int2 pos = StockMethods.computeDrawLocationInPlace(cameraX, cameraY, screenWidth,
-				screenHeight, tileSize, x, y);
+				screenHeight, tileSize, interpolatedX(alpha), interpolatedY(alpha));
 		if (StockMethods.onScreen) {
 			sprite.draw(g, pos.x, pos.y, widthPX, heightPX);
 		}
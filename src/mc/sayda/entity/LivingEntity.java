@@ -34,12 +34,19 @@ public abstract class LivingEntity extends Entity {
 	protected int ticksUnderwater = 0;
 	protected boolean jumping = false;
 	
-	public LivingEntity(boolean gravityApplies, float x, float y, int width, int height) {
+	public LivingEntity(boolean gravityApplies, double x, double y, int width, int height) {
 		super(null, gravityApplies, x, y, width, height);
 		this.hitPoints = maxHP;
 		inventory = new Inventory(10, 4, 3);
 	}
 
+	@Override
+	public LivingEntity copy() {
+		LivingEntity copy = (LivingEntity) super.copy();
+		copy.inventory = inventory.copy();
+		return copy;
+	}
+	
 	public void giveItem(Item item, int count) {
 		inventory.addItem(item, count);
 	}
@@ -98,6 +105,17 @@ public abstract class LivingEntity extends Entity {
 		}
 	}
 	
+	public boolean isJumping() {
+		return jumping;
+	}
+	
+	/**
+	 * For a client putting its predicted player back where the server has it
+	 */
+	public void setJumping(boolean jumping) {
+		this.jumping = jumping;
+	}
+	
 	public void startLeft(boolean slow) {
 		facingRight = false;
 		if (slow) {
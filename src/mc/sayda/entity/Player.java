@@ -25,15 +25,15 @@ public class Player extends LivingEntity {
 	private static final long serialVersionUID = 1L;
 	
 	public Int2 handTargetPos = new Int2(0, 0);  // Unified position for breaking/placing
-	public float handStartX;
-	public float handStartY;
-	public float handEndX;
-	public float handEndY;
+	public double handStartX;
+	public double handStartY;
+	public double handEndX;
+	public double handEndY;
 	
 	private Sprite leftWalkSprite;
 	private Sprite rightWalkSprite;
 	
-	public Player(boolean gravityApplies, float x, float y, int width, int height) {
+	public Player(boolean gravityApplies, double x, double y, int width, int height) {
 		super(gravityApplies, x, y, width, height);
 		
 		leftWalkSprite = SpriteStore.get().getSprite("sprites/entities/left_man.png");
@@ -41,8 +41,19 @@ public class Player extends LivingEntity {
 		sprite = SpriteStore.get().getSprite("sprites/entities/player.gif");
 	}
 
+	@Override
+	public Player copy() {
+		Player copy = (Player) super.copy();
+		copy.handTargetPos = new Int2(handTargetPos.x, handTargetPos.y);
+		return copy;
+	}
+	
+	/**
+	 * Select a hotbar slot. Clamps to the valid range [0, 9], as the slot can come from a
+	 * remote client.
+	 */
 	public void setHotbarItem(int hotbarIdx) {
-		inventory.hotbarIdx = hotbarIdx;
+		inventory.hotbarIdx = Math.max(0, Math.min(9, hotbarIdx));
 	}
 
 	/**
@@ -90,7 +101,7 @@ public class Player extends LivingEntity {
 	 * @param spawnX Spawn X coordinate
 	 * @param spawnY Spawn Y coordinate
 	 */
-	public void respawn(float spawnX, float spawnY) {
+	public void respawn(double spawnX, double spawnY) {
 		// Reset position
 		this.x = spawnX;
 		this.y = spawnY;
@@ -161,12 +172,12 @@ public class Player extends LivingEntity {
 	 * Update hand target position based on mouse hover and distance.
 	 * Simple approach: if mouse is over a block and it's within range, target it.
 	 */
-	public void updateHand(GraphicsHandler g, float cameraX, float cameraY, float mouseX,
-			float mouseY, World world, int tileSize) {
+	public void updateHand(GraphicsHandler g, double cameraX, double cameraY, double mouseX,
+			double mouseY, World world, int tileSize) {
 
 		// Get player center position in world coordinates
-		float playerX = this.getCenterX(tileSize);
-		float playerY = this.getCenterY(tileSize);
+		double playerX = this.getCenterX(tileSize);
+		double playerY = this.getCenterY(tileSize);
 
 		handStartX = playerX;
 		handStartY = playerY;
@@ -176,9 +187,9 @@ public class Player extends LivingEntity {
 		int targetBlockY = (int) Math.floor(mouseY);
 
 		// Calculate distance from player to target block center
-		float dx = (targetBlockX + 0.5f) - playerX;
-		float dy = (targetBlockY + 0.5f) - playerY;
-		float distance = (float) Math.sqrt(dx * dx + dy * dy);
+		double dx = (targetBlockX + 0.5) - playerX;
+		double dy = (targetBlockY + 0.5) - playerY;
+		double distance = Math.sqrt(dx * dx + dy * dy);
 
 		// Check if block is within arm's reach
 		if (distance <= armLength) {
@@ -196,12 +207,13 @@ public class Player extends LivingEntity {
 	}
 	
 	@Override
-	public void draw(GraphicsHandler g, float cameraX, float cameraY, int screenWidth,
-			int screenHeight, int tileSize) {
+	public void draw(GraphicsHandler g, double cameraX, double cameraY, int screenWidth,
+			int screenHeight, int tileSize, float alpha) {
+		double drawX = interpolatedX(alpha);
 		Int2 pos = StockMethods.computeDrawLocationInPlace(cameraX, cameraY, screenWidth,
-				screenHeight, tileSize, x, y);
+				screenHeight, tileSize, drawX, interpolatedY(alpha));
 		if (StockMethods.onScreen) {
-			int frame = (int) x % 4;// (int) ((ticksAlive/20)%4);
+			int frame = (int) drawX % 4;// (int) ((ticksAlive/20)%4);
 			if (facingRight) {
 				if (frame == 0 || frame == 2 || dx <= 0) {
 					sprite.draw(g, pos.x, pos.y, widthPX, heightPX);
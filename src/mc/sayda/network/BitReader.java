@@ -0,0 +1,63 @@
+/*
+ * Copyright 2025 SaydaGames (mc_jojo3)
+ *
+ * This file is part of MCraze
+ *
+ * MCraze is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * MCraze is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with MCraze. If not, see http://www.gnu.org/licenses/.
+ */
+
+package mc.sayda.network;
+
+import java.nio.BufferUnderflowException;
+
+/**
+ * Reads what a BitWriter wrote, see there. Reading past the end throws
+ * BufferUnderflowException, like PacketBuffer.
+ */
+public class BitReader {
+	private final PacketBuffer in;
+	private long bits;
+	private int count;
+
+	public BitReader(PacketBuffer in) {
+		this.in = in;
+	}
+
+	/**
+	 * @return the next width bits, width at most 32
+	 */
+	public int read(int width) {
+		while (count < width) {
+			bits |= (long) (in.readByte() & 0xFF) << count;
+			count += 8;
+		}
+		int value = (int) (bits & ((1L << width) - 1));
+		bits >>>= width;
+		count -= width;
+		return value;
+	}
+
+	public boolean readBoolean() {
+		return read(1) != 0;
+	}
+
+	public int readVar(int chunk) {
+		int value = 0;
+		for (int shift = 0; shift < 32; shift += chunk) {
+			value |= read(chunk) << shift;
+			if (!readBoolean()) {
+				return value;
+			}
+		}
+		throw new BufferUnderflowException();
+	}
+
+	public int readSignedVar(int chunk) {
+		int value = readVar(chunk);
+		return (value >>> 1) ^ -(value & 1);
+	}
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2025 SaydaGames (mc_jojo3)
+ *
+ * This file is part of MCraze
+ *
+ * MCraze is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * MCraze is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with MCraze. If not, see http://www.gnu.org/licenses/.
+ */
+
+package mc.sayda.network;
+
+/**
+ * Packs values of any width into a PacketBuffer, for packets whose fields would mostly be
+ * padding as whole bytes. Bits fill each byte from the low end; finish() writes out the
+ * last, partly filled one. Read back with a BitReader.
+ */
+public class BitWriter {
+	private final PacketBuffer out;
+	private long bits;
+	private int count;
+
+	public BitWriter(PacketBuffer out) {
+		this.out = out;
+	}
+
+	/**
+	 * Write the low width bits of value, width at most 32
+	 */
+	public void write(int value, int width) {
+		bits |= (value & ((1L << width) - 1)) << count;
+		count += width;
+		while (count >= 8) {
+			out.writeByte((int) bits);
+			bits >>>= 8;
+			count -= 8;
+		}
+	}
+
+	public void writeBoolean(boolean value) {
+		write(value ? 1 : 0, 1);
+	}
+
+	/**
+	 * Write value, treated as unsigned, chunk bits at a time each followed by a bit saying
+	 * whether more follow: small values take chunk + 1 bits
+	 */
+	public void writeVar(int value, int chunk) {
+		while ((value >>> chunk) != 0) {
+			write(value, chunk);
+			writeBoolean(true);
+			value >>>= chunk;
+		}
+		write(value, chunk);
+		writeBoolean(false);
+	}
+
+	/**
+	 * writeVar() of a zigzag encoded value, so small negative values stay small too
+	 */
+	public void writeSignedVar(int value, int chunk) {
+		writeVar((value << 1) ^ (value >> 31), chunk);
+	}
+
+	/**
+	 * Write out the last byte, padded with zeros
+	 */
+	public void finish() {
+		if (count > 0) {
+			out.writeByte((int) bits);
+			bits = 0;
+			count = 0;
+		}
+	}
+}
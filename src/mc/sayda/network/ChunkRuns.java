@@ -0,0 +1,129 @@
+/*
+ * Copyright 2025 SaydaGames (mc_jojo3)
+ *
+ * This file is part of MCraze
+ *
+ * MCraze is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * MCraze is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with MCraze. If not, see http://www.gnu.org/licenses/.
+ */
+
+package mc.sayda.network;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+
+import mc.sayda.Constants.TileID;
+import mc.sayda.world.Chunk;
+
+/**
+ * Run-length encoded chunk tiles, for PacketWorldUpdate. Tiles are taken in the chunk's
+ * own order (column by column, top to bottom) as a list of runs, each a varint count of
+ * tiles to skip, a varint run length and the TileID ordinal the whole run is set to.
+ *
+ * A whole chunk is encoded as changes to an all-AIR one, so its sky and caves are skipped
+ * and solid ground is a few long runs. A delta only covers the tiles that changed.
+ */
+public final class ChunkRuns {
+	private static final int AIR = TileID.AIR.ordinal();
+
+	/**
+	 * Receives decoded tiles, see apply()
+	 */
+	public interface TileSink {
+		void setTile(int lx, int y, TileID id);
+	}
+
+	private ChunkRuns() {}
+
+	/**
+	 * @return all of chunk's tiles
+	 */
+	public static byte[] encodeFull(Chunk chunk) {
+		PacketBuffer out = new PacketBuffer(256);
+		int size = Chunk.WIDTH * chunk.height;
+		int skipped = 0;
+		for (int i = 0; i < size;) {
+			int ordinal = ordinalAt(chunk, i);
+			int end = i + 1;
+			while (end < size && ordinalAt(chunk, end) == ordinal) {
+				end++;
+			}
+			if (ordinal == AIR) {
+				skipped += end - i;
+			} else {
+				writeRun(out, skipped, end - i, ordinal);
+				skipped = 0;
+			}
+			i = end;
+		}
+		return toArray(out);
+	}
+
+	/**
+	 * @param changed indices (lx * height + y) of the tiles to send, with their current
+	 *        value in chunk
+	 */
+	public static byte[] encodeDelta(Chunk chunk, BitSet changed) {
+		PacketBuffer out = new PacketBuffer(64);
+		int previousEnd = 0;
+		for (int i = changed.nextSetBit(0); i >= 0;) {
+			int ordinal = ordinalAt(chunk, i);
+			int end = i + 1;
+			while (end < changed.length() && changed.get(end) && ordinalAt(chunk, end) == ordinal) {
+				end++;
+			}
+			writeRun(out, i - previousEnd, end - i, ordinal);
+			previousEnd = end;
+			i = changed.nextSetBit(end);
+		}
+		return toArray(out);
+	}
+
+	/**
+	 * Pass every tile in runs to sink
+	 * @return false if runs is malformed: past the end of a chunk of that height, or not
+	 *         a tile. Tiles before the bad run have been passed on.
+	 */
+	public static boolean apply(byte[] runs, int height, TileSink sink) {
+		PacketBuffer in = new PacketBuffer(ByteBuffer.wrap(runs));
+		TileID[] ids = TileID.values();
+		int size = Chunk.WIDTH * height;
+		int i = 0;
+		try {
+			while (in.remaining() > 0) {
+				i += in.readVarInt();
+				int length = in.readVarInt();
+				int ordinal = in.readByte();
+				if (i < 0 || length < 0 || i + length > size || ordinal < 0 || ordinal >= ids.length) {
+					return false;
+				}
+				for (int end = i + length; i < end; i++) {
+					sink.setTile(i / height, i % height, ids[ordinal]);
+				}
+			}
+		} catch (BufferUnderflowException e) {
+			return false;
+		}
+		return true;
+	}
+
+	private static int ordinalAt(Chunk chunk, int index) {
+		return chunk.getOrdinal(index / chunk.height, index % chunk.height);
+	}
+
+	private static void writeRun(PacketBuffer out, int skip, int length, int ordinal) {
+		out.writeVarInt(skip);
+		out.writeVarInt(length);
+		out.writeByte(ordinal);
+	}
+
+	private static byte[] toArray(PacketBuffer out) {
+		ByteBuffer buffer = out.getBuffer();
+		return Arrays.copyOf(buffer.array(), buffer.position());
+	}
+}
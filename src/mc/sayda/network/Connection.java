@@ -18,10 +18,16 @@ package mc.sayda.network;
  */
 public interface Connection {
 	/**
-	 * Send a packet through this connection
+	 * Add a packet to the batch going out on the next flush()
 	 */
 	void sendPacket(Packet packet);
 
+	/**
+	 * Send the batch in one go, e.g. at the end of a tick. sendPacket() and flush() are
+	 * called from one thread, the connection's owner.
+	 */
+	void flush();
+
 	/**
 	 * Receive all pending packets
 	 */
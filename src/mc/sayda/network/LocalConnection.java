@@ -20,9 +20,11 @@ import java.util.List;
  * Used for singleplayer mode where both client and server run in the same JVM.
  */
 public class LocalConnection implements Connection {
-	private List<Packet> packetQueue = new ArrayList<>();
+	private final List<Packet> packetQueue = new ArrayList<>();
+	// the owner's unflushed packets
+	private final List<Packet> outgoing = new ArrayList<>();
 	private LocalConnection otherEnd;
-	private boolean connected = true;
+	private volatile boolean connected = true;
 
 	/**
 	 * Create a pair of connected LocalConnections (client and server)
@@ -40,19 +42,28 @@ public class LocalConnection implements Connection {
 	private LocalConnection() {}
 
 	@Override
-	public synchronized void sendPacket(Packet packet) {
-		if (!connected || otherEnd == null) {
-			return;
+	public void sendPacket(Packet packet) {
+		if (connected) {
+			outgoing.add(packet);
 		}
+	}
 
-		// Add packet to the other end's queue
-		synchronized (otherEnd.packetQueue) {
-			otherEnd.packetQueue.add(packet);
+	@Override
+	public void flush() {
+		if (outgoing.isEmpty()) {
+			return;
+		}
+		if (connected && otherEnd != null) {
+			// Hand the whole batch to the other end's queue
+			synchronized (otherEnd.packetQueue) {
+				otherEnd.packetQueue.addAll(outgoing);
+			}
 		}
+		outgoing.clear();
 	}
 
 	@Override
-	public synchronized Packet[] receivePackets() {
+	public Packet[] receivePackets() {
 		synchronized (packetQueue) {
 			if (packetQueue.isEmpty()) {
 				return new Packet[0];
@@ -70,7 +81,7 @@ public class LocalConnection implements Connection {
 	}
 
 	@Override
-	public synchronized void disconnect() {
+	public void disconnect() {
 		connected = false;
 		if (otherEnd != null) {
 			otherEnd.connected = false;
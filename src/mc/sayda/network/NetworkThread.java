@@ -0,0 +1,180 @@
+/*
+ * Copyright 2025 SaydaGames (mc_jojo3)
+ *
+ * This file is part of MCraze
+ *
+ * MCraze is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * MCraze is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with MCraze. If not, see http://www.gnu.org/licenses/.
+ */
+
+package mc.sayda.network;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * One thread doing all socket IO for any number of SocketConnections, with a single
+ * Selector. The server uses one to accept and serve every client; a client uses one for
+ * its connection to the server.
+ *
+ * Channels are only registered and their interest changed on this thread: other threads
+ * queue that work with runLater(), which wakes the selector up.
+ */
+public class NetworkThread implements Runnable {
+	private final Selector selector;
+	private final Thread thread;
+	private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+	private volatile boolean running = true;
+
+	public NetworkThread(String name) throws IOException {
+		selector = Selector.open();
+		thread = new Thread(this, name);
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Accept connections on port (0 for any free one); each new connection is handed to
+	 * onAccept on this thread, so onAccept should only queue it somewhere
+	 * @return the port bound
+	 */
+	public int listen(int port, Consumer<SocketConnection> onAccept) throws IOException {
+		ServerSocketChannel serverChannel = ServerSocketChannel.open();
+		serverChannel.bind(new InetSocketAddress(port));
+		serverChannel.configureBlocking(false);
+		runLater(() -> {
+			try {
+				serverChannel.register(selector, SelectionKey.OP_ACCEPT, onAccept);
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		});
+		return serverChannel.socket().getLocalPort();
+	}
+
+	/**
+	 * Connect to a server, blocking until connected
+	 */
+	public SocketConnection connect(InetSocketAddress address) throws IOException {
+		SocketChannel channel = SocketChannel.open(address);
+		SocketConnection connection = new SocketConnection(this, channel);
+		runLater(() -> register(connection));
+		return connection;
+	}
+
+	/**
+	 * Run task on this thread before its next select
+	 */
+	void runLater(Runnable task) {
+		tasks.add(task);
+		selector.wakeup();
+	}
+
+	/**
+	 * Close every channel and stop the thread
+	 */
+	public void close() {
+		running = false;
+		selector.wakeup();
+		try {
+			thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Override
+	public void run() {
+		try {
+			while (running) {
+				Runnable task;
+				while ((task = tasks.poll()) != null) {
+					task.run();
+				}
+				selector.select();
+				for (SelectionKey key : selector.selectedKeys()) {
+					handle(key);
+				}
+				selector.selectedKeys().clear();
+			}
+		} catch (IOException | ClosedSelectorException e) {
+			e.printStackTrace();
+		} finally {
+			for (SelectionKey key : selector.keys()) {
+				if (key.attachment() instanceof SocketConnection) {
+					((SocketConnection) key.attachment()).close();
+				} else {
+					closeQuietly(key);
+				}
+			}
+			closeQuietly(selector);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void handle(SelectionKey key) {
+		if (!key.isValid()) {
+			return;
+		}
+		if (key.isAcceptable()) {
+			accept((ServerSocketChannel) key.channel(), (Consumer<SocketConnection>) key
+					.attachment());
+			return;
+		}
+		SocketConnection connection = (SocketConnection) key.attachment();
+		if (key.isReadable()) {
+			connection.read();
+		}
+		if (key.isValid() && key.isWritable()) {
+			connection.write();
+		}
+	}
+
+	private void accept(ServerSocketChannel serverChannel, Consumer<SocketConnection> onAccept) {
+		try {
+			SocketChannel channel;
+			while ((channel = serverChannel.accept()) != null) {
+				SocketConnection connection = new SocketConnection(this, channel);
+				register(connection);
+				onAccept.accept(connection);
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	private void register(SocketConnection connection) {
+		try {
+			connection.register(selector);
+		} catch (IOException e) {
+			e.printStackTrace();
+			connection.close();
+		}
+	}
+
+	private static void closeQuietly(SelectionKey key) {
+		try {
+			key.channel().close();
+		} catch (IOException e) {
+			// already closing
+		}
+	}
+
+	private static void closeQuietly(Selector selector) {
+		try {
+			selector.close();
+		} catch (IOException e) {
+			// already closing
+		}
+	}
+}
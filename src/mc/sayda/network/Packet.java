@@ -12,19 +12,26 @@
 
 package mc.sayda.network;
 
-import java.io.Serializable;
-
 /**
- * Base class for all network packets sent between client and server
+ * Base class for all network packets sent between client and server. Over a socket each
+ * one is its getPacketId() and then whatever write() puts down, see PacketCodec.
  */
-public abstract class Packet implements Serializable {
-	private static final long serialVersionUID = 1L;
-
+public abstract class Packet {
 	/**
-	 * Get the packet type ID for deserialization
+	 * Get the packet type ID, which PacketCodec.create() turns back into the packet
 	 */
 	public abstract int getPacketId();
 
+	/**
+	 * Write this packet's fields
+	 */
+	public abstract void write(PacketBuffer out);
+
+	/**
+	 * Read the fields write() wrote, into this packet fresh from PacketCodec.create()
+	 */
+	public abstract void read(PacketBuffer in);
+
 	/**
 	 * Handle this packet on the receiving end
 	 */
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2025 SaydaGames (mc_jojo3)
+ *
+ * This file is part of MCraze
+ *
+ * MCraze is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * MCraze is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with MCraze. If not, see http://www.gnu.org/licenses/.
+ */
+
+package mc.sayda.network;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * What packets write their fields to and read them from, see PacketCodec. Integers are
+ * varints: 7 bits a byte, low bits first, so small values take one byte. Signed ones are
+ * zigzag encoded first, so small negative values stay small too.
+ *
+ * Reading past the end, or a length that cannot fit in what is left, throws
+ * BufferUnderflowException; the connection treats that as a bad packet.
+ */
+public class PacketBuffer {
+	private ByteBuffer buffer;
+
+	/**
+	 * An empty buffer to write to, growing as needed
+	 */
+	public PacketBuffer(int capacity) {
+		buffer = ByteBuffer.allocate(capacity);
+	}
+
+	/**
+	 * Read from buffer's remaining bytes, without copying them
+	 */
+	public PacketBuffer(ByteBuffer buffer) {
+		this.buffer = buffer;
+	}
+
+	/**
+	 * @return the underlying buffer; after writing, its position is the number of bytes written
+	 */
+	public ByteBuffer getBuffer() {
+		return buffer;
+	}
+
+	public void clear() {
+		buffer.clear();
+	}
+
+	public int remaining() {
+		return buffer.remaining();
+	}
+
+	private void reserve(int bytes) {
+		if (buffer.remaining() < bytes) {
+			ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2,
+					buffer.position() + bytes));
+			buffer.flip();
+			grown.put(buffer);
+			buffer = grown;
+		}
+	}
+
+	// ===== Writing =====
+
+	public void writeByte(int value) {
+		reserve(1);
+		buffer.put((byte) value);
+	}
+
+	public void writeBoolean(boolean value) {
+		writeByte(value ? 1 : 0);
+	}
+
+	public void writeInt(int value) {
+		reserve(4);
+		buffer.putInt(value);
+	}
+
+	public void writeFloat(float value) {
+		reserve(4);
+		buffer.putFloat(value);
+	}
+
+	public void writeDouble(double value) {
+		reserve(8);
+		buffer.putDouble(value);
+	}
+
+	public void writeVarInt(int value) {
+		reserve(5);
+		writeVarInt(buffer, value);
+	}
+
+	public void writeSignedVarInt(int value) {
+		writeVarInt((value << 1) ^ (value >> 31));
+	}
+
+	public void writeVarLong(long value) {
+		reserve(10);
+		while ((value & ~0x7FL) != 0) {
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+	}
+
+	/**
+	 * Copy bytes's remaining bytes
+	 */
+	public void writeBytes(ByteBuffer bytes) {
+		reserve(bytes.remaining());
+		buffer.put(bytes);
+	}
+
+	/**
+	 * Write bytes with their length in front, for readByteArray()
+	 */
+	public void writeByteArray(byte[] bytes) {
+		writeVarInt(bytes.length);
+		reserve(bytes.length);
+		buffer.put(bytes);
+	}
+
+	public void writeString(String value) {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeVarInt(bytes.length);
+		reserve(bytes.length);
+		buffer.put(bytes);
+	}
+
+	// ===== Reading =====
+
+	public int readByte() {
+		return buffer.get();
+	}
+
+	public boolean readBoolean() {
+		return buffer.get() != 0;
+	}
+
+	public int readInt() {
+		return buffer.getInt();
+	}
+
+	public float readFloat() {
+		return buffer.getFloat();
+	}
+
+	public double readDouble() {
+		return buffer.getDouble();
+	}
+
+	public int readVarInt() {
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			byte b = buffer.get();
+			value |= (b & 0x7F) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+		throw new BufferUnderflowException();
+	}
+
+	public int readSignedVarInt() {
+		int value = readVarInt();
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	public long readVarLong() {
+		long value = 0;
+		for (int shift = 0; shift < 70; shift += 7) {
+			byte b = buffer.get();
+			value |= (long) (b & 0x7F) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+		throw new BufferUnderflowException();
+	}
+
+	/**
+	 * @return a count of elements at least minBytes each, checked against what is left,
+	 *         so a bad packet cannot make the reader allocate a huge array
+	 */
+	public int readLength(int minBytes) {
+		int length = readVarInt();
+		if (length < 0 || (long) length * minBytes > buffer.remaining()) {
+			throw new BufferUnderflowException();
+		}
+		return length;
+	}
+
+	public byte[] readByteArray() {
+		byte[] bytes = new byte[readLength(1)];
+		buffer.get(bytes);
+		return bytes;
+	}
+
+	public String readString() {
+		int length = readLength(1);
+		String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(),
+				length, StandardCharsets.UTF_8);
+		buffer.position(buffer.position() + length);
+		return value;
+	}
+
+	/**
+	 * Put a varint at buffer's position, which must have room for it
+	 */
+	public static void writeVarInt(ByteBuffer buffer, int value) {
+		while ((value & ~0x7F) != 0) {
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+	}
+
+	/**
+	 * Peek at a varint at index of buffer, without moving its position
+	 * @return the value, or -1 if it is not all there yet
+	 */
+	public static int peekVarInt(ByteBuffer buffer, int index) {
+		int value = 0;
+		for (int shift = 0; shift < 35 && index < buffer.limit(); shift += 7) {
+			byte b = buffer.get(index++);
+			value |= (b & 0x7F) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @return how many bytes writeVarInt(value) writes
+	 */
+	public static int varIntSize(int value) {
+		int size = 1;
+		while ((value & ~0x7F) != 0) {
+			value >>>= 7;
+			size++;
+		}
+		return size;
+	}
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2025 SaydaGames (mc_jojo3)
+ *
+ * This file is part of MCraze
+ *
+ * MCraze is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * MCraze is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with MCraze. If not, see http://www.gnu.org/licenses/.
+ */
+
+package mc.sayda.network;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+import mc.sayda.network.packet.*;
+
+/**
+ * Turns packets into bytes and back for SocketConnection: a varint packet ID, then the
+ * packet's own write(). New packets need a case in create().
+ */
+public final class PacketCodec {
+	// each thread encodes into its own buffer, reused for every packet it sends
+	private static final ThreadLocal<PacketBuffer> ENCODE_BUFFER = ThreadLocal.withInitial(
+			() -> new PacketBuffer(1024));
+
+	private PacketCodec() {}
+
+	/**
+	 * @return an empty packet for id, or null if there is no such packet
+	 */
+	public static Packet create(int id) {
+		switch (id) {
+		case 1:
+			return new PacketPlayerInput();
+		case 2:
+			return new PacketBlockChange();
+		case 3:
+			return new PacketChatSend();
+		case 4:
+			return new PacketChatMessage();
+		case 5:
+			return new PacketWorldUpdate();
+		case 6:
+			return new PacketEntityUpdate();
+		case 7:
+			return new PacketWorldAck();
+		case 8:
+			return new PacketJoinGame();
+		case 9:
+			return new PacketEntitySpawn();
+		case 10:
+			return new PacketEntityDespawn();
+		case 11:
+			return new PacketPlayerState();
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * @return the encoded packet, from position 0 to position; the buffer belongs to this
+	 *         thread and is overwritten by its next encode()
+	 */
+	public static ByteBuffer encode(Packet packet) {
+		PacketBuffer out = ENCODE_BUFFER.get();
+		out.clear();
+		out.writeVarInt(packet.getPacketId());
+		packet.write(out);
+		return out.getBuffer();
+	}
+
+	/**
+	 * Decode a packet from all of in's remaining bytes
+	 * @return the packet, or null if they are not one
+	 */
+	public static Packet decode(ByteBuffer in) {
+		try {
+			PacketBuffer buffer = new PacketBuffer(in);
+			Packet packet = create(buffer.readVarInt());
+			if (packet == null) {
+				return null;
+			}
+			packet.read(buffer);
+			return buffer.remaining() == 0 ? packet : null;
+		} catch (BufferUnderflowException e) {
+			return null;
+		}
+	}
+}
@@ -20,12 +20,17 @@ import mc.sayda.network.packet.*;
  */
 public interface PacketHandler {
 	// Client-bound packets (sent by server, handled by client)
+	void handleJoinGame(PacketJoinGame packet);
 	void handleWorldUpdate(PacketWorldUpdate packet);
+	void handleEntitySpawn(PacketEntitySpawn packet);
 	void handleEntityUpdate(PacketEntityUpdate packet);
+	void handleEntityDespawn(PacketEntityDespawn packet);
+	void handlePlayerState(PacketPlayerState packet);
 	void handleChatMessage(PacketChatMessage packet);
 
 	// Server-bound packets (sent by client, handled by server)
 	void handlePlayerInput(PacketPlayerInput packet);
 	void handleBlockChange(PacketBlockChange packet);
 	void handleChatSend(PacketChatSend packet);
+	void handleWorldAck(PacketWorldAck packet);
 }
@@ -0,0 +1,287 @@
+/*
+ * Copyright 2025 SaydaGames (mc_jojo3)
+ *
+ * This file is part of MCraze
+ *
+ * MCraze is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * MCraze is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with MCraze. If not, see http://www.gnu.org/licenses/.
+ */
+
+package mc.sayda.network;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Connection over TCP, with its IO done by a NetworkThread. Each packet is one frame:
+ * a varint length, then the packet as PacketCodec encodes it.
+ *
+ * sendPacket() encodes into the owner's batch; flush() moves the batch to the write
+ * buffer and writes as much as the socket takes right away, so a tick's packets usually
+ * go out in one write. Nothing blocks on the network: the network thread writes the rest
+ * when the socket has room, and a peer that lets more than MAX_PENDING_BYTES pile up is
+ * too slow and is disconnected. The other way around, reading stops while MAX_QUEUED_PACKETS received
+ * packets wait for receivePackets(), leaving the rest in the socket buffers until the
+ * game catches up, so TCP slows the sender down.
+ */
+public class SocketConnection implements Connection {
+	public static final int MAX_FRAME_BYTES = 1 << 20;
+	public static final int MAX_PENDING_BYTES = 4 << 20;
+	public static final int MAX_QUEUED_PACKETS = 1024;
+	private static final int INITIAL_BUFFER_BYTES = 16 << 10;
+	private static final Packet[] NO_PACKETS = new Packet[0];
+
+	private final NetworkThread network;
+	private final SocketChannel channel;
+	private final SocketAddress remoteAddress;
+	private volatile boolean connected = true;
+
+	// network thread only
+	private SelectionKey key;
+	private ByteBuffer readBuffer = ByteBuffer.allocate(INITIAL_BUFFER_BYTES);
+
+	private final ConcurrentLinkedQueue<Packet> received = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger receivedCount = new AtomicInteger();
+	private volatile boolean readSuspended = false;
+
+	// the owner's unflushed frames
+	private final PacketBuffer batch = new PacketBuffer(INITIAL_BUFFER_BYTES);
+	// guarded by this
+	private ByteBuffer writeBuffer = ByteBuffer.allocate(INITIAL_BUFFER_BYTES);
+
+	SocketConnection(NetworkThread network, SocketChannel channel) throws IOException {
+		this.network = network;
+		this.channel = channel;
+		this.remoteAddress = channel.getRemoteAddress();
+		channel.configureBlocking(false);
+		channel.socket().setTcpNoDelay(true);
+	}
+
+	/**
+	 * @return who is on the other end
+	 */
+	public SocketAddress getRemoteAddress() {
+		return remoteAddress;
+	}
+
+	@Override
+	public void sendPacket(Packet packet) {
+		if (!connected) {
+			return;
+		}
+		ByteBuffer payload = PacketCodec.encode(packet);
+		payload.flip();
+		batch.writeVarInt(payload.remaining());
+		batch.writeBytes(payload);
+	}
+
+	@Override
+	public void flush() {
+		ByteBuffer frames = batch.getBuffer();
+		if (frames.position() == 0) {
+			return;
+		}
+		frames.flip();
+		synchronized (this) {
+			boolean wasEmpty = writeBuffer.position() == 0;
+			if (!connected || !reserveWrite(frames.remaining())) {
+				if (connected) {
+					System.err.println("Disconnecting " + remoteAddress + ": not reading fast enough");
+					disconnect();
+				}
+			} else {
+				writeBuffer.put(frames);
+				// nothing was waiting for the socket, so try it now rather than waking the
+				// network thread; it writes whatever does not fit
+				if (wasEmpty && !writeNow()) {
+					network.runLater(this::enableWrite);
+				}
+			}
+		}
+		batch.clear();
+	}
+
+	@Override
+	public Packet[] receivePackets() {
+		if (receivedCount.get() == 0) {
+			return NO_PACKETS;
+		}
+		ArrayList<Packet> packets = new ArrayList<>();
+		Packet packet;
+		while ((packet = received.poll()) != null) {
+			packets.add(packet);
+		}
+		receivedCount.addAndGet(-packets.size());
+		if (readSuspended) {
+			network.runLater(this::resumeRead);
+		}
+		return packets.toArray(NO_PACKETS);
+	}
+
+	@Override
+	public boolean isConnected() {
+		return connected;
+	}
+
+	@Override
+	public void disconnect() {
+		connected = false;
+		network.runLater(this::close);
+	}
+
+	// ===== Network thread =====
+
+	void register(Selector selector) throws IOException {
+		int ops = SelectionKey.OP_READ;
+		synchronized (this) {
+			if (writeBuffer.position() > 0) {
+				ops |= SelectionKey.OP_WRITE;
+			}
+		}
+		key = channel.register(selector, ops, this);
+	}
+
+	void read() {
+		int read;
+		try {
+			read = channel.read(readBuffer);
+		} catch (IOException e) {
+			read = -1;
+		}
+		if (read < 0) {
+			close();
+			return;
+		}
+
+		readBuffer.flip();
+		while (readBuffer.hasRemaining()) {
+			int start = readBuffer.position();
+			int length = PacketBuffer.peekVarInt(readBuffer, start);
+			// -1 is also what an unfinished varint gives; a finished one is at most 5 bytes
+			if (length == -1 && readBuffer.remaining() < 5) {
+				break;
+			}
+			if (length < 0 || length > MAX_FRAME_BYTES) {
+				System.err.println("Disconnecting " + remoteAddress + ": bad frame length " + length);
+				close();
+				return;
+			}
+			int headerBytes = PacketBuffer.varIntSize(length);
+			if (readBuffer.remaining() < headerBytes + length) {
+				break;
+			}
+			int end = start + headerBytes + length;
+			ByteBuffer frame = readBuffer.duplicate();
+			frame.position(start + headerBytes).limit(end);
+			Packet packet = PacketCodec.decode(frame);
+			if (packet == null) {
+				System.err.println("Disconnecting " + remoteAddress + ": unreadable packet");
+				close();
+				return;
+			}
+			readBuffer.position(end);
+			received.add(packet);
+			receivedCount.incrementAndGet();
+		}
+		readBuffer.compact();
+
+		// the next frame does not fit
+		if (!readBuffer.hasRemaining()) {
+			readBuffer = grow(readBuffer, Math.min(readBuffer.capacity() * 2, 5 + MAX_FRAME_BYTES));
+		}
+		if (receivedCount.get() >= MAX_QUEUED_PACKETS) {
+			readSuspended = true;
+			key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+		}
+	}
+
+	void write() {
+		synchronized (this) {
+			if (writeNow()) {
+				key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+			}
+		}
+	}
+
+	/**
+	 * Write what the socket takes, holding the lock on this
+	 * @return whether everything was written
+	 */
+	private boolean writeNow() {
+		writeBuffer.flip();
+		try {
+			channel.write(writeBuffer);
+		} catch (IOException e) {
+			writeBuffer.clear();
+			disconnect();
+			return true;
+		}
+		writeBuffer.compact();
+		return writeBuffer.position() == 0;
+	}
+
+	void close() {
+		connected = false;
+		if (key != null) {
+			key.cancel();
+		}
+		try {
+			channel.close();
+		} catch (IOException e) {
+			// closing anyway
+		}
+	}
+
+	private void enableWrite() {
+		if (key != null && key.isValid()) {
+			key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+		}
+	}
+
+	private void resumeRead() {
+		if (key != null && key.isValid() && receivedCount.get() < MAX_QUEUED_PACKETS) {
+			readSuspended = false;
+			key.interestOps(key.interestOps() | SelectionKey.OP_READ);
+		}
+	}
+
+	// ===== Buffers and encoding =====
+
+	/**
+	 * Make room for bytes more in the write buffer, growing it up to MAX_PENDING_BYTES
+	 * @return false if that is too much
+	 */
+	private boolean reserveWrite(int bytes) {
+		if (writeBuffer.remaining() >= bytes) {
+			return true;
+		}
+		int needed = writeBuffer.position() + bytes;
+		if (needed > MAX_PENDING_BYTES) {
+			return false;
+		}
+		writeBuffer = grow(writeBuffer, Math.min(Math.max(needed, writeBuffer.capacity() * 2),
+				MAX_PENDING_BYTES));
+		return true;
+	}
+
+	/**
+	 * @return a buffer of capacity bytes holding what was written to buffer, ready to
+	 *         append to
+	 */
+	private static ByteBuffer grow(ByteBuffer buffer, int capacity) {
+		ByteBuffer grown = ByteBuffer.allocate(capacity);
+		buffer.flip();
+		grown.put(buffer);
+		return grown;
+	}
+}
@@ -13,14 +13,13 @@
 package mc.sayda.network.packet;
 
 import mc.sayda.network.Packet;
+import mc.sayda.network.PacketBuffer;
 import mc.sayda.network.PacketHandler;
 
 /**
  * Client -> Server: Block break/place action
  */
 public class PacketBlockChange extends Packet {
-	private static final long serialVersionUID = 1L;
-
 	public int x;
 	public int y;
 	public char newTileId;  // 0 for break, tile ID for place
@@ -40,6 +39,22 @@ public class PacketBlockChange extends Packet {
 		return 2;
 	}
 
+	@Override
+	public void write(PacketBuffer out) {
+		out.writeSignedVarInt(x);
+		out.writeVarInt(y);
+		out.writeVarInt(newTileId);
+		out.writeBoolean(isBreak);
+	}
+
+	@Override
+	public void read(PacketBuffer in) {
+		x = in.readSignedVarInt();
+		y = in.readVarInt();
+		newTileId = (char) in.readVarInt();
+		isBreak = in.readBoolean();
+	}
+
 	@Override
 	public void handle(PacketHandler handler) {
 		handler.handleBlockChange(this);
@@ -14,14 +14,13 @@ package mc.sayda.network.packet;
 
 import mc.sayda.Color;
 import mc.sayda.network.Packet;
+import mc.sayda.network.PacketBuffer;
 import mc.sayda.network.PacketHandler;
 
 /**
  * Server -> Client: Chat message to display
  */
 public class PacketChatMessage extends Packet {
-	private static final long serialVersionUID = 1L;
-
 	public String message;
 	public int colorRGB;  // Color serialized as RGB int
 
@@ -37,6 +36,18 @@ public class PacketChatMessage extends Packet {
 		return 4;
 	}
 
+	@Override
+	public void write(PacketBuffer out) {
+		out.writeString(message);
+		out.writeInt(colorRGB);
+	}
+
+	@Override
+	public void read(PacketBuffer in) {
+		message = in.readString();
+		colorRGB = in.readInt();
+	}
+
 	@Override
 	public void handle(PacketHandler handler) {
 		handler.handleChatMessage(this);
@@ -13,14 +13,13 @@
 package mc.sayda.network.packet;
 
 import mc.sayda.network.Packet;
+import mc.sayda.network.PacketBuffer;
 import mc.sayda.network.PacketHandler;
 
 /**
  * Client -> Server: Chat message or command
  */
 public class PacketChatSend extends Packet {
-	private static final long serialVersionUID = 1L;
-
 	public String message;
 
 	public PacketChatSend() {}
@@ -34,6 +33,16 @@ public class PacketChatSend extends Packet {
 		return 3;
 	}
 
+	@Override
+	public void write(PacketBuffer out) {
+		out.writeString(message);
+	}
+
+	@Override
+	public void read(PacketBuffer in) {
+		message = in.readString();
+	}
+
 	@Override
 	public void handle(PacketHandler handler) {
 		handler.handleChatSend(this);
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2025 SaydaGames (mc_jojo3)
+ *
+ * This file is part of MCraze
+ *
+ * MCraze is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * MCraze is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with MCraze. If not, see http://www.gnu.org/licenses/.
+ */
+
+package mc.sayda.network.packet;
+
+import mc.sayda.network.Packet;
+import mc.sayda.network.PacketBuffer;
+import mc.sayda.network.PacketHandler;
+
+/**
+ * Server -> Client: Entities that are gone, or out of the player's view
+ */
+public class PacketEntityDespawn extends Packet {
+	public int[] entityIds;
+
+	public PacketEntityDespawn() {}
+
+	public PacketEntityDespawn(int[] entityIds) {
+		this.entityIds = entityIds;
+	}
+
+	@Override
+	public int getPacketId() {
+		return 10;
+	}
+
+	@Override
+	public void write(PacketBuffer out) {
+		out.writeVarInt(entityIds.length);
+		for (int id : entityIds) {
+			out.writeVarInt(id);
+		}
+	}
+
+	@Override
+	public void read(PacketBuffer in) {
+		entityIds = new int[in.readLength(1)];
+		for (int i = 0; i < entityIds.length; i++) {
+			entityIds[i] = in.readVarInt();
+		}
+	}
+
+	@Override
+	public void handle(PacketHandler handler) {
+		handler.handleEntityDespawn(this);
+	}
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2025 SaydaGames (mc_jojo3)
+ *
+ * This file is part of MCraze
+ *
+ * MCraze is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * MCraze is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with MCraze. If not, see http://www.gnu.org/licenses/.
+ */
+
+package mc.sayda.network.packet;
+
+import mc.sayda.network.Packet;
+import mc.sayda.network.PacketBuffer;
+import mc.sayda.network.PacketHandler;
+
+/**
+ * Server -> Client: Entities that came into the player's view, or were just created there.
+ * PacketEntityUpdates only move entities the client was told about here, starting from
+ * these positions (fixed point, see PacketEntityUpdate.quantizePosition()), which are
+ * where the entities were on the server's tick.
+ */
+public class PacketEntitySpawn extends Packet {
+	/** entityKinds value of a player; anything else is the item id of an Item */
+	public static final int PLAYER = -1;
+
+	public long tick;
+	public int[] entityIds;
+	public int[] entityKinds;
+	public int[] entityX;
+	public int[] entityY;
+	public int[] entityWidth;
+	public int[] entityHeight;
+
+	public PacketEntitySpawn() {}
+
+	@Override
+	public int getPacketId() {
+		return 9;
+	}
+
+	@Override
+	public void write(PacketBuffer out) {
+		int count = entityIds == null ? 0 : entityIds.length;
+		out.writeVarLong(tick);
+		out.writeVarInt(count);
+		for (int i = 0; i < count; i++) {
+			out.writeVarInt(entityIds[i]);
+			out.writeSignedVarInt(entityKinds[i]);
+			out.writeSignedVarInt(entityX[i]);
+			out.writeSignedVarInt(entityY[i]);
+			out.writeVarInt(entityWidth[i]);
+			out.writeVarInt(entityHeight[i]);
+		}
+	}
+
+	@Override
+	public void read(PacketBuffer in) {
+		tick = in.readVarLong();
+		int count = in.readLength(6);
+		entityIds = new int[count];
+		entityKinds = new int[count];
+		entityX = new int[count];
+		entityY = new int[count];
+		entityWidth = new int[count];
+		entityHeight = new int[count];
+		for (int i = 0; i < count; i++) {
+			entityIds[i] = in.readVarInt();
+			entityKinds[i] = in.readSignedVarInt();
+			entityX[i] = in.readSignedVarInt();
+			entityY[i] = in.readSignedVarInt();
+			entityWidth[i] = in.readVarInt();
+			entityHeight[i] = in.readVarInt();
+		}
+	}
+
+	@Override
+	public void handle(PacketHandler handler) {
+		handler.handleEntitySpawn(this);
+	}
+}
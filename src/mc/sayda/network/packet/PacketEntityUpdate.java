@@ -12,29 +12,165 @@
 
 package mc.sayda.network.packet;
 
+import mc.sayda.network.BitReader;
+import mc.sayda.network.BitWriter;
 import mc.sayda.network.Packet;
+import mc.sayda.network.PacketBuffer;
 import mc.sayda.network.PacketHandler;
 
 /**
- * Server -> Client: Entity state update (positions, health, etc.)
+ * Server -> Client: What changed about entities the client was sent with PacketEntitySpawn
+ *
+ * Positions and velocities are fixed point, in 1/POSITION_SCALE and 1/VELOCITY_SCALE
+ * tiles. Only the fields set in an entity's dirty mask are sent: positions as the change
+ * since the last update or spawn, which the client adds to what it has, velocity and
+ * health as they are. After the count everything is bit packed, with each id written as
+ * the difference from the one before, so entities listed in id order (as the server sends
+ * them) take a few bits for theirs.
+ *
+ * The server sends one every UPDATE_TICKS ticks at most, with the tick it describes; an
+ * entity left out of one has not changed since the one before. Clients draw entities a
+ * little behind and move them smoothly in between, see InterpolationBuffer.
  */
 public class PacketEntityUpdate extends Packet {
-	private static final long serialVersionUID = 1L;
+	/** 1/64 tile is half a pixel at the default zoom */
+	public static final int POSITION_SCALE = 64;
+	/** in tiles per tick */
+	public static final int VELOCITY_SCALE = 256;
+	/** Ticks between updates, 20 a second at the server's 60 ticks a second */
+	public static final int UPDATE_TICKS = 3;
+
+	/** Dirty mask bits */
+	public static final int X = 1;
+	public static final int Y = 2;
+	public static final int DX = 4;
+	public static final int DY = 8;
+	public static final int HEALTH = 16;
+	private static final int MASK_BITS = 5;
+	// health is sent clamped to [0, 255]
+	private static final int HEALTH_BITS = 8;
+	// chunk sizes for BitWriter.writeVar(), picked for ids a few apart and an update's movement
+	private static final int ID_CHUNK = 4;
+	private static final int VALUE_CHUNK = 6;
 
+	// the server tick this is the state at
+	public long tick;
 	public int[] entityIds;
-	public float[] entityX;
-	public float[] entityY;
-	public float[] entityDX;
-	public float[] entityDY;
-	public int[] entityHealth;
+	public int[] dirty;
+	public int[] deltaX;
+	public int[] deltaY;
+	public int[] velocityX;
+	public int[] velocityY;
+	public int[] health;
 
 	public PacketEntityUpdate() {}
 
+	/**
+	 * An update for count entities, with every field 0 for the caller to fill in
+	 */
+	public PacketEntityUpdate(int count) {
+		entityIds = new int[count];
+		dirty = new int[count];
+		deltaX = new int[count];
+		deltaY = new int[count];
+		velocityX = new int[count];
+		velocityY = new int[count];
+		health = new int[count];
+	}
+
+	public static int quantizePosition(double position) {
+		return (int) Math.round(position * POSITION_SCALE);
+	}
+
+	public static double position(int quantized) {
+		return (double) quantized / POSITION_SCALE;
+	}
+
+	public static int quantizeVelocity(float velocity) {
+		return Math.round(velocity * VELOCITY_SCALE);
+	}
+
+	public static float velocity(int quantized) {
+		return (float) quantized / VELOCITY_SCALE;
+	}
+
+	public static int clampHealth(int health) {
+		return Math.max(0, Math.min(health, (1 << HEALTH_BITS) - 1));
+	}
+
 	@Override
 	public int getPacketId() {
 		return 6;
 	}
 
+	@Override
+	public void write(PacketBuffer out) {
+		int count = entityIds == null ? 0 : entityIds.length;
+		out.writeVarLong(tick);
+		out.writeVarInt(count);
+		BitWriter bits = new BitWriter(out);
+		int previousId = 0;
+		for (int i = 0; i < count; i++) {
+			bits.writeSignedVar(entityIds[i] - previousId, ID_CHUNK);
+			previousId = entityIds[i];
+			int mask = dirty[i];
+			bits.write(mask, MASK_BITS);
+			if ((mask & X) != 0) {
+				bits.writeSignedVar(deltaX[i], VALUE_CHUNK);
+			}
+			if ((mask & Y) != 0) {
+				bits.writeSignedVar(deltaY[i], VALUE_CHUNK);
+			}
+			if ((mask & DX) != 0) {
+				bits.writeSignedVar(velocityX[i], VALUE_CHUNK);
+			}
+			if ((mask & DY) != 0) {
+				bits.writeSignedVar(velocityY[i], VALUE_CHUNK);
+			}
+			if ((mask & HEALTH) != 0) {
+				bits.write(health[i], HEALTH_BITS);
+			}
+		}
+		bits.finish();
+	}
+
+	@Override
+	public void read(PacketBuffer in) {
+		tick = in.readVarLong();
+		// every entity takes at least an id and a mask, more than a byte
+		int count = in.readLength(1);
+		BitReader bits = new BitReader(in);
+		entityIds = new int[count];
+		dirty = new int[count];
+		deltaX = new int[count];
+		deltaY = new int[count];
+		velocityX = new int[count];
+		velocityY = new int[count];
+		health = new int[count];
+		int previousId = 0;
+		for (int i = 0; i < count; i++) {
+			entityIds[i] = previousId + bits.readSignedVar(ID_CHUNK);
+			previousId = entityIds[i];
+			int mask = bits.read(MASK_BITS);
+			dirty[i] = mask;
+			if ((mask & X) != 0) {
+				deltaX[i] = bits.readSignedVar(VALUE_CHUNK);
+			}
+			if ((mask & Y) != 0) {
+				deltaY[i] = bits.readSignedVar(VALUE_CHUNK);
+			}
+			if ((mask & DX) != 0) {
+				velocityX[i] = bits.readSignedVar(VALUE_CHUNK);
+			}
+			if ((mask & DY) != 0) {
+				velocityY[i] = bits.readSignedVar(VALUE_CHUNK);
+			}
+			if ((mask & HEALTH) != 0) {
+				health[i] = bits.read(HEALTH_BITS);
+			}
+		}
+	}
+
 	@Override
 	public void handle(PacketHandler handler) {
 		handler.handleEntityUpdate(this);
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2025 SaydaGames (mc_jojo3)
+ *
+ * This file is part of MCraze
+ *
+ * MCraze is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * MCraze is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with MCraze. If not, see http://www.gnu.org/licenses/.
+ */
+
+package mc.sayda.network.packet;
+
+import mc.sayda.network.Packet;
+import mc.sayda.network.PacketBuffer;
+import mc.sayda.network.PacketHandler;
+
+/**
+ * Server -> Client: Sent once when a player joins, before any PacketWorldUpdate, with
+ * what the client needs to set up its copy of the world
+ */
+public class PacketJoinGame extends Packet {
+	public int worldWidth;
+	public int worldHeight;
+	// the entity id of the player's own Player
+	public int playerId;
+
+	public PacketJoinGame() {}
+
+	public PacketJoinGame(int worldWidth, int worldHeight, int playerId) {
+		this.worldWidth = worldWidth;
+		this.worldHeight = worldHeight;
+		this.playerId = playerId;
+	}
+
+	@Override
+	public int getPacketId() {
+		return 8;
+	}
+
+	@Override
+	public void write(PacketBuffer out) {
+		out.writeVarInt(worldWidth);
+		out.writeVarInt(worldHeight);
+		out.writeVarInt(playerId);
+	}
+
+	@Override
+	public void read(PacketBuffer in) {
+		worldWidth = in.readVarInt();
+		worldHeight = in.readVarInt();
+		playerId = in.readVarInt();
+	}
+
+	@Override
+	public void handle(PacketHandler handler) {
+		handler.handleJoinGame(this);
+	}
+}
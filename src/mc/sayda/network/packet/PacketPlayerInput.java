@@ -13,28 +13,30 @@
 package mc.sayda.network.packet;
 
 import mc.sayda.network.Packet;
+import mc.sayda.network.PacketBuffer;
 import mc.sayda.network.PacketHandler;
 
 /**
- * Client -> Server: Player input (movement, mouse position)
+ * Client -> Server: Player input (movement, mouse position). A remote client sends one
+ * every tick, and its player moves one tick per input; see PlayerPredictor.
  */
 public class PacketPlayerInput extends Packet {
-	private static final long serialVersionUID = 1L;
-
+	// counts up from 1, one per input; the server answers with the last it applied
+	public int sequence;
 	public boolean moveLeft;
 	public boolean moveRight;
 	public boolean climb;
 	public boolean leftClick;
 	public boolean rightClick;
-	public float mouseX;
-	public float mouseY;
+	public double mouseX;
+	public double mouseY;
 	public int hotbarSlot;
 
 	public PacketPlayerInput() {}
 
 	public PacketPlayerInput(boolean moveLeft, boolean moveRight, boolean climb,
 							 boolean leftClick, boolean rightClick,
-							 float mouseX, float mouseY, int hotbarSlot) {
+							 double mouseX, double mouseY, int hotbarSlot) {
 		this.moveLeft = moveLeft;
 		this.moveRight = moveRight;
 		this.climb = climb;
@@ -50,6 +52,30 @@ public class PacketPlayerInput extends Packet {
 		return 1;
 	}
 
+	@Override
+	public void write(PacketBuffer out) {
+		out.writeVarInt(sequence);
+		out.writeByte((moveLeft ? 1 : 0) | (moveRight ? 2 : 0) | (climb ? 4 : 0)
+				| (leftClick ? 8 : 0) | (rightClick ? 16 : 0));
+		out.writeDouble(mouseX);
+		out.writeDouble(mouseY);
+		out.writeVarInt(hotbarSlot);
+	}
+
+	@Override
+	public void read(PacketBuffer in) {
+		sequence = in.readVarInt();
+		int flags = in.readByte();
+		moveLeft = (flags & 1) != 0;
+		moveRight = (flags & 2) != 0;
+		climb = (flags & 4) != 0;
+		leftClick = (flags & 8) != 0;
+		rightClick = (flags & 16) != 0;
+		mouseX = in.readDouble();
+		mouseY = in.readDouble();
+		hotbarSlot = in.readVarInt();
+	}
+
 	@Override
 	public void handle(PacketHandler handler) {
 		handler.handlePlayerInput(this);
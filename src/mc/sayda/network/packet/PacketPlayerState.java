@@ -0,0 +1,75 @@
+/*
+ * Copyright 2025 SaydaGames (mc_jojo3)
+ *
+ * This file is part of MCraze
+ *
+ * MCraze is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * MCraze is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with MCraze. If not, see http://www.gnu.org/licenses/.
+ */
+
+
+package mc.sayda.network.packet;
+
+import mc.sayda.entity.Player;
+import mc.sayda.network.Packet;
+import mc.sayda.network.PacketBuffer;
+import mc.sayda.network.PacketHandler;
+
+/**
+ * Server -> Client: Where the player's own Player is after the server applied their
+ * inputs up to sequence. Exact, unlike PacketEntityUpdate, so a client predicting the
+ * same inputs can tell whether it got the same result.
+ */
+public class PacketPlayerState extends Packet {
+	// the last PacketPlayerInput.sequence applied
+	public int sequence;
+	public double x;
+	public double y;
+	public float dx;
+	public float dy;
+	public boolean jumping;
+
+	public PacketPlayerState() {}
+
+	public PacketPlayerState(int sequence, Player player) {
+		this.sequence = sequence;
+		this.x = player.x;
+		this.y = player.y;
+		this.dx = player.dx;
+		this.dy = player.dy;
+		this.jumping = player.isJumping();
+	}
+
+	@Override
+	public int getPacketId() {
+		return 11;
+	}
+
+	@Override
+	public void write(PacketBuffer out) {
+		out.writeVarInt(sequence);
+		out.writeDouble(x);
+		out.writeDouble(y);
+		out.writeFloat(dx);
+		out.writeFloat(dy);
+		out.writeBoolean(jumping);
+	}
+
+	@Override
+	public void read(PacketBuffer in) {
+		sequence = in.readVarInt();
+		x = in.readDouble();
+		y = in.readDouble();
+		dx = in.readFloat();
+		dy = in.readFloat();
+		jumping = in.readBoolean();
+	}
+
+	@Override
+	public void handle(PacketHandler handler) {
+		handler.handlePlayerState(this);
+	}
+}
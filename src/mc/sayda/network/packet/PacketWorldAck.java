@@ -0,0 +1,63 @@
+/*
+ * Copyright 2025 SaydaGames (mc_jojo3)
+ *
+ * This file is part of MCraze
+ *
+ * MCraze is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * MCraze is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with MCraze. If not, see http://www.gnu.org/licenses/.
+ */
+
+package mc.sayda.network.packet;
+
+import mc.sayda.network.Packet;
+import mc.sayda.network.PacketBuffer;
+import mc.sayda.network.PacketHandler;
+
+/**
+ * Client -> Server: The chunk revisions a client has applied (see PacketWorldUpdate), so
+ * the server can send only what changed since
+ */
+public class PacketWorldAck extends Packet {
+	public int[] chunkIndexes;
+	public int[] revisions;
+
+	public PacketWorldAck() {}
+
+	public PacketWorldAck(int[] chunkIndexes, int[] revisions) {
+		this.chunkIndexes = chunkIndexes;
+		this.revisions = revisions;
+	}
+
+	@Override
+	public int getPacketId() {
+		return 7;
+	}
+
+	@Override
+	public void write(PacketBuffer out) {
+		out.writeVarInt(chunkIndexes.length);
+		for (int i = 0; i < chunkIndexes.length; i++) {
+			out.writeVarInt(chunkIndexes[i]);
+			out.writeVarInt(revisions[i]);
+		}
+	}
+
+	@Override
+	public void read(PacketBuffer in) {
+		int count = in.readLength(2);
+		chunkIndexes = new int[count];
+		revisions = new int[count];
+		for (int i = 0; i < count; i++) {
+			chunkIndexes[i] = in.readVarInt();
+			revisions[i] = in.readVarInt();
+		}
+	}
+
+	@Override
+	public void handle(PacketHandler handler) {
+		handler.handleWorldAck(this);
+	}
+}
@@ -13,18 +13,30 @@
 package mc.sayda.network.packet;
 
 import mc.sayda.network.Packet;
+import mc.sayda.network.PacketBuffer;
 import mc.sayda.network.PacketHandler;
 
 /**
- * Server -> Client: World state update (block changes, time, etc.)
+ * Server -> Client: World state update (tile changes, time, etc.)
+ *
+ * Tiles come per chunk as ChunkRuns. Each chunk is either a full snapshot (baseRevisions
+ * FULL) or the changes since a revision of it the client already has; applying it brings
+ * the client's copy up to revisions[i], which the client then acknowledges with a
+ * PacketWorldAck. A chunk's first update is always a full one, and the client only has
+ * the chunks near it: the server tells it which to drop as it moves away.
  */
 public class PacketWorldUpdate extends Packet {
-	private static final long serialVersionUID = 1L;
+	/** baseRevisions entry of a whole chunk, to apply onto an empty one */
+	public static final int FULL = -1;
+
+	// One entry per chunk
+	public int[] chunkIndexes;
+	public int[] baseRevisions;
+	public int[] revisions;
+	public byte[][] runs;
 
-	// Block changes
-	public int[] changedX;
-	public int[] changedY;
-	public char[] changedTiles;
+	// Chunks out of the client's view, for it to drop
+	public int[] unloadedChunks;
 
 	// World time
 	public long ticksAlive;
@@ -36,6 +48,45 @@ public class PacketWorldUpdate extends Packet {
 		return 5;
 	}
 
+	@Override
+	public void write(PacketBuffer out) {
+		out.writeVarLong(ticksAlive);
+		int count = chunkIndexes == null ? 0 : chunkIndexes.length;
+		out.writeVarInt(count);
+		for (int i = 0; i < count; i++) {
+			out.writeVarInt(chunkIndexes[i]);
+			// FULL goes out as 0, so revisions are shifted up by one
+			out.writeVarInt(baseRevisions[i] + 1);
+			out.writeVarInt(revisions[i]);
+			out.writeByteArray(runs[i]);
+		}
+		int unloaded = unloadedChunks == null ? 0 : unloadedChunks.length;
+		out.writeVarInt(unloaded);
+		for (int i = 0; i < unloaded; i++) {
+			out.writeVarInt(unloadedChunks[i]);
+		}
+	}
+
+	@Override
+	public void read(PacketBuffer in) {
+		ticksAlive = in.readVarLong();
+		int count = in.readLength(4);
+		chunkIndexes = new int[count];
+		baseRevisions = new int[count];
+		revisions = new int[count];
+		runs = new byte[count][];
+		for (int i = 0; i < count; i++) {
+			chunkIndexes[i] = in.readVarInt();
+			baseRevisions[i] = in.readVarInt() - 1;
+			revisions[i] = in.readVarInt();
+			runs[i] = in.readByteArray();
+		}
+		unloadedChunks = new int[in.readLength(1)];
+		for (int i = 0; i < unloadedChunks.length; i++) {
+			unloadedChunks[i] = in.readVarInt();
+		}
+	}
+
 	@Override
 	public void handle(PacketHandler handler) {
 		handler.handleWorldUpdate(this);
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2025 SaydaGames (mc_jojo3)
+ *
+ * This file is part of MCraze
+ *
+ * MCraze is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * MCraze is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with MCraze. If not, see http://www.gnu.org/licenses/.
+ */
+
+package mc.sayda.server;
+
+import mc.sayda.util.Int2;
+
+/**
+ * The client's mouse state as of its last frame. The server applies the latest one once
+ * per tick, so holding a button breaks or places at the tick rate whatever the frame rate.
+ */
+public class HeldInput {
+	public final boolean leftClick;
+	public final boolean rightClick;
+	/** Mouse position on screen, in pixels */
+	public final Int2 screenMousePos;
+	/** Mouse position in the world, in tiles */
+	public final double worldMouseX, worldMouseY;
+	public final int screenWidth, screenHeight;
+	/** Clicks go to the chat rather than the world while it is open */
+	public final boolean chatOpen;
+
+	public HeldInput(boolean leftClick, boolean rightClick, Int2 screenMousePos,
+			double worldMouseX, double worldMouseY, int screenWidth, int screenHeight,
+			boolean chatOpen) {
+		this.leftClick = leftClick;
+		this.rightClick = rightClick;
+		this.screenMousePos = new Int2(screenMousePos.x, screenMousePos.y);
+		this.worldMouseX = worldMouseX;
+		this.worldMouseY = worldMouseY;
+		this.screenWidth = screenWidth;
+		this.screenHeight = screenHeight;
+		this.chatOpen = chatOpen;
+	}
+}
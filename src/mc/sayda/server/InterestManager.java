@@ -0,0 +1,219 @@
+/*
+ * Copyright 2025 SaydaGames (mc_jojo3)
+ *
+ * This file is part of MCraze
+ *
+ * MCraze is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * MCraze is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with MCraze. If not, see http://www.gnu.org/licenses/.
+ */
+
+package mc.sayda.server;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+
+import mc.sayda.entity.Entity;
+import mc.sayda.entity.LivingEntity;
+import mc.sayda.item.Item;
+import mc.sayda.network.packet.PacketEntityDespawn;
+import mc.sayda.network.packet.PacketEntitySpawn;
+import mc.sayda.network.packet.PacketEntityUpdate;
+import mc.sayda.world.Chunk;
+
+/**
+ * Decides what each remote player hears about: the chunks within VIEW_RADIUS chunks of
+ * them (see WorldSync) and the entities in those chunks. What a player already has is kept
+ * until it is past FORGET_RADIUS, so walking back and forth over a border doesn't send it
+ * again and again.
+ *
+ * Entities are bucketed by chunk once an update, every PacketEntityUpdate.UPDATE_TICKS
+ * ticks, so what each player costs depends on how much is near them rather than on the
+ * size of the world.
+ */
+class InterestManager {
+	// the same as World.LOAD_RADIUS, so everything in view is loaded
+	static final int VIEW_RADIUS = 4;
+	static final int FORGET_RADIUS = VIEW_RADIUS + 1;
+
+	private final HashMap<Integer, ArrayList<Entity>> byChunk = new HashMap<>();
+	private final HashMap<Integer, Entity> byId = new HashMap<>();
+	// each entity's fields as last sent (fixed point x, y, dx, dy and health, see
+	// PacketEntityUpdate); every player that has the entity has these
+	private final HashMap<Integer, int[]> sent = new HashMap<>();
+	// this update's change to each entity that moved or was hurt: its dirty mask, then the
+	// fields as PacketEntityUpdate sends them. Shared by every player that has the entity.
+	private final HashMap<Integer, int[]> changes = new HashMap<>();
+	// ids of the entities in the update being built; a set so they come out in id order,
+	// which keeps the gaps PacketEntityUpdate writes small, without sorting
+	private final BitSet moved = new BitSet();
+	private int nextEntityId = 1;
+	// the server tick of this update
+	private long tick;
+
+	/**
+	 * Index the entities by chunk and by id as they are on tick, giving an id to those
+	 * without one. Call once per update, before sendEntities().
+	 */
+	public void update(List<Entity> entities, long tick) {
+		this.tick = tick;
+		for (ArrayList<Entity> bucket : byChunk.values()) {
+			bucket.clear();
+		}
+		byId.clear();
+		changes.clear();
+		for (Entity entity : entities) {
+			// a tossed item is a clone, and may carry the id of one still in the world
+			if (entity.id == 0 || byId.containsKey(entity.id)) {
+				assignId(entity);
+			}
+			byId.put(entity.id, entity);
+			byChunk.computeIfAbsent(chunkOf(entity), k -> new ArrayList<>()).add(entity);
+			recordChanges(entity);
+		}
+		sent.keySet().retainAll(byId.keySet());
+	}
+
+	/**
+	 * Put what changed about entity since it was last sent in changes, if it moved or was
+	 * hurt. Velocity alone does not count: a resting entity's dy flips between 0 and gravity
+	 * every tick.
+	 */
+	private void recordChanges(Entity entity) {
+		int x = PacketEntityUpdate.quantizePosition(entity.x);
+		int y = PacketEntityUpdate.quantizePosition(entity.y);
+		int dx = PacketEntityUpdate.quantizeVelocity(entity.dx);
+		int dy = PacketEntityUpdate.quantizeVelocity(entity.dy);
+		int health = PacketEntityUpdate.clampHealth(entity instanceof LivingEntity
+				? ((LivingEntity) entity).hitPoints : 0);
+		int[] state = sent.get(entity.id);
+		if (state == null) {
+			// new; players get all of it in its spawn
+			sent.put(entity.id, new int[] { x, y, dx, dy, health });
+			return;
+		}
+		if (x == state[0] && y == state[1] && health == state[4]) {
+			return;
+		}
+		int mask = (x != state[0] ? PacketEntityUpdate.X : 0)
+				| (y != state[1] ? PacketEntityUpdate.Y : 0)
+				| (dx != state[2] ? PacketEntityUpdate.DX : 0)
+				| (dy != state[3] ? PacketEntityUpdate.DY : 0)
+				| (health != state[4] ? PacketEntityUpdate.HEALTH : 0);
+		changes.put(entity.id, new int[] { mask, x - state[0], y - state[1], dx, dy, health });
+		state[0] = x;
+		state[1] = y;
+		state[2] = dx;
+		state[3] = dy;
+		state[4] = health;
+	}
+
+	public void assignId(Entity entity) {
+		entity.id = nextEntityId++;
+	}
+
+	/**
+	 * @return the chunk index the entity is in
+	 */
+	public static int chunkOf(Entity entity) {
+		return (int) entity.x >> Chunk.SHIFT;
+	}
+
+	/**
+	 * Send session the entities that came into its view, the ones that left it or are gone,
+	 * and what changed about the rest since the last update
+	 */
+	public void sendEntities(PlayerSession session) {
+		int center = chunkOf(session.player);
+		ArrayList<Entity> spawned = new ArrayList<>();
+		moved.clear();
+		for (int index = center - VIEW_RADIUS; index <= center + VIEW_RADIUS; index++) {
+			ArrayList<Entity> bucket = byChunk.get(index);
+			if (bucket == null) {
+				continue;
+			}
+			for (Entity entity : bucket) {
+				if (session.visibleEntities.add(entity.id)) {
+					spawned.add(entity);
+				} else if (changes.containsKey(entity.id)) {
+					moved.set(entity.id);
+				}
+			}
+		}
+
+		ArrayList<Integer> despawned = new ArrayList<>();
+		Iterator<Integer> it = session.visibleEntities.iterator();
+		while (it.hasNext()) {
+			int id = it.next();
+			Entity entity = byId.get(id);
+			if (entity == null || Math.abs(chunkOf(entity) - center) > FORGET_RADIUS) {
+				it.remove();
+				despawned.add(id);
+			} else if (Math.abs(chunkOf(entity) - center) > VIEW_RADIUS
+					&& changes.containsKey(entity.id)) {
+				// kept but not in view, so not seen by the loop above
+				moved.set(entity.id);
+			}
+		}
+
+		if (!despawned.isEmpty()) {
+			int[] ids = new int[despawned.size()];
+			for (int i = 0; i < ids.length; i++) {
+				ids[i] = despawned.get(i);
+			}
+			session.connection.sendPacket(new PacketEntityDespawn(ids));
+		}
+		if (!spawned.isEmpty()) {
+			session.connection.sendPacket(spawnPacket(spawned));
+		}
+		if (!moved.isEmpty()) {
+			session.connection.sendPacket(updatePacket());
+		}
+	}
+
+	private PacketEntitySpawn spawnPacket(List<Entity> entities) {
+		PacketEntitySpawn packet = new PacketEntitySpawn();
+		packet.tick = tick;
+		int count = entities.size();
+		packet.entityIds = new int[count];
+		packet.entityKinds = new int[count];
+		packet.entityX = new int[count];
+		packet.entityY = new int[count];
+		packet.entityWidth = new int[count];
+		packet.entityHeight = new int[count];
+		for (int i = 0; i < count; i++) {
+			Entity entity = entities.get(i);
+			int[] state = sent.get(entity.id);
+			packet.entityIds[i] = entity.id;
+			packet.entityKinds[i] = entity instanceof Item ? ((Item) entity).item_id
+					: PacketEntitySpawn.PLAYER;
+			packet.entityX[i] = state[0];
+			packet.entityY[i] = state[1];
+			packet.entityWidth[i] = entity.widthPX;
+			packet.entityHeight[i] = entity.heightPX;
+		}
+		return packet;
+	}
+
+	private PacketEntityUpdate updatePacket() {
+		PacketEntityUpdate packet = new PacketEntityUpdate(moved.cardinality());
+		packet.tick = tick;
+		int i = 0;
+		for (int id = moved.nextSetBit(0); id >= 0; id = moved.nextSetBit(id + 1), i++) {
+			int[] change = changes.get(id);
+			packet.entityIds[i] = id;
+			packet.dirty[i] = change[0];
+			packet.deltaX[i] = change[1];
+			packet.deltaY[i] = change[2];
+			packet.velocityX[i] = change[3];
+			packet.velocityY[i] = change[4];
+			packet.health[i] = change[5];
+		}
+		return packet;
+	}
+}
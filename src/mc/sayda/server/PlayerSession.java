@@ -0,0 +1,103 @@
+/*
+ * Copyright 2025 SaydaGames (mc_jojo3)
+ *
+ * This file is part of MCraze
+ *
+ * MCraze is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * MCraze is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with MCraze. If not, see http://www.gnu.org/licenses/.
+ */
+
+package mc.sayda.server;
+
+import mc.sayda.entity.Player;
+import mc.sayda.network.Connection;
+import mc.sayda.network.PacketHandler;
+import mc.sayda.network.packet.*;
+import mc.sayda.system.BlockInteractionSystem;
+
+/**
+ * A remote player: their connection, their Player in the world, and what they are doing.
+ * Packets from the connection are handled here, on the server thread, acting on this
+ * session's player only.
+ */
+public class PlayerSession implements PacketHandler {
+	private final Server server;
+	public final Connection connection;
+	public final Player player;
+	public final String name;
+
+	// each player breaks their own block
+	final BlockInteractionSystem blockInteractionSystem;
+	boolean deathHandled = false;
+	// the latest input applied; its clicks are applied every tick until the next one
+	PacketPlayerInput input;
+	// inputs received but not applied yet, one a tick; see Server.moveSessionPlayer()
+	final java.util.ArrayDeque<PacketPlayerInput> inputs = new java.util.ArrayDeque<>();
+	// this player's copy of each chunk, see WorldSync
+	final java.util.HashMap<Integer, WorldSync.Baseline> baselines = new java.util.HashMap<>();
+	// ids of the entities this player has been sent, see InterestManager
+	final java.util.HashSet<Integer> visibleEntities = new java.util.HashSet<>();
+
+	PlayerSession(Server server, Connection connection, Player player, String name,
+			BlockInteractionSystem blockInteractionSystem) {
+		this.server = server;
+		this.connection = connection;
+		this.player = player;
+		this.name = name;
+		this.blockInteractionSystem = blockInteractionSystem;
+	}
+
+	@Override
+	public void handlePlayerInput(PacketPlayerInput packet) {
+		// one is applied a tick, so a client sending faster only pushes out its older ones
+		if (inputs.size() == Server.MAX_QUEUED_INPUTS) {
+			inputs.removeFirst();
+		}
+		inputs.addLast(packet);
+	}
+
+	@Override
+	public void handleChatSend(PacketChatSend packet) {
+		server.broadcastChat("<" + name + "> " + packet.message, mc.sayda.Color.white);
+	}
+
+	@Override
+	public void handleWorldAck(PacketWorldAck packet) {
+		for (int i = 0; i < packet.chunkIndexes.length; i++) {
+			WorldSync.Baseline baseline = baselines.get(packet.chunkIndexes[i]);
+			if (baseline != null) {
+				baseline.acknowledge(packet.revisions[i]);
+			}
+		}
+	}
+
+	// Remote players break and place through their input's clicks, like the host; a tile
+	// picked by the client is not trusted
+	@Override
+	public void handleBlockChange(PacketBlockChange packet) {}
+
+	// Client-bound packets
+	@Override
+	public void handleJoinGame(PacketJoinGame packet) {}
+
+	@Override
+	public void handleWorldUpdate(PacketWorldUpdate packet) {}
+
+	@Override
+	public void handleEntitySpawn(PacketEntitySpawn packet) {}
+
+	@Override
+	public void handleEntityUpdate(PacketEntityUpdate packet) {}
+
+	@Override
+	public void handleEntityDespawn(PacketEntityDespawn packet) {}
+
+	@Override
+	public void handlePlayerState(PacketPlayerState packet) {}
+
+	@Override
+	public void handleChatMessage(PacketChatMessage packet) {}
+}
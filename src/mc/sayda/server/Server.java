@@ -13,7 +13,9 @@
 package mc.sayda.server;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import mc.sayda.Constants;
 import mc.sayda.entity.Entity;
@@ -26,17 +28,34 @@ import mc.sayda.network.PacketHandler;
 import mc.sayda.network.packet.*;
 import mc.sayda.system.BlockInteractionSystem;
 import mc.sayda.ui.CommandHandler;
+import mc.sayda.util.Int2;
+import mc.sayda.util.SystemTimer;
 import mc.sayda.world.World;
 
 /**
  * Server handles all game logic and world state.
  * In singleplayer, this runs locally. In multiplayer, this runs on the server.
+ *
+ * The server ticks on its own thread (see run()). Other threads must not touch its state
+ * directly: they queue changes with execute() and draw from getSnapshot().
  */
-public class Server implements PacketHandler {
+public class Server implements PacketHandler, Runnable {
+	public static final int DEFAULT_PORT = 25565;
+	public static final int TICKS_PER_SECOND = 60;
+	public static final long TICK_NANOS = 1000000000L / TICKS_PER_SECOND;
+	// most ticks run back to back to catch up after a stall; time beyond that is dropped, so
+	// the game slows down instead of falling further and further behind
+	private static final int MAX_CATCH_UP_TICKS = 10;
+	// a remote player's inputs kept waiting, to ride out the network delivering several at
+	// once; each is a tick they are drawn behind their client. More are dropped, oldest first
+	static final int MAX_QUEUED_INPUTS = 4;
+	// what a remote player who has not sent any input yet does
+	private static final PacketPlayerInput IDLE_INPUT = new PacketPlayerInput();
+
 	// World state
 	public World world;
 	public ArrayList<Entity> entities = new ArrayList<>();
-	public Player player;  // TODO: Support multiple players in multiplayer
+	public Player player;  // the integrated client's player; remote players are in sessions
 
 	// Game settings
 	private int worldWidth = 512;
@@ -55,12 +74,27 @@ public class Server implements PacketHandler {
 
 	// Network
 	private Connection connection;
+	private final ArrayList<PlayerSession> sessions = new ArrayList<>();
+	private int nextSessionNumber = 1;
+	private final WorldSync worldSync = new WorldSync();
+	private final InterestManager interest = new InterestManager();
 
 	// Game state
-	private boolean running = true;
+	private volatile boolean running = true;
 	public long ticksRunning = 0;
 	private boolean deathHandled = false;
 
+	// Threading
+	private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+	private volatile WorldSnapshot snapshot;
+	private volatile HeldInput heldInput;
+	// a click taken by the inventory or chat stays taken until the button is released
+	private boolean leftClickTaken = false;
+	private boolean rightClickTaken = false;
+	private volatile float ticksPerSecond;
+	// System.nanoTime() the current tick was due at
+	private long tickTime = System.nanoTime();
+
 	public Server(Connection connection) {
 		this.connection = connection;
 		this.blockInteractionSystem = new BlockInteractionSystem(random);
@@ -77,16 +111,11 @@ public class Server implements PacketHandler {
 
 	/**
 	 * Start a new game
+	 * @param width world width in tiles, or World.INFINITE_WIDTH for a streaming world
 	 */
 	public void startGame(int width) {
-		worldWidth = width;
-		entities.clear();
-		deathHandled = false;
+		startWorld(width);
 
-		// Create world and player
-		world = new World(worldWidth, worldHeight, random);
-		spawnX = world.spawnLocation.x;
-		spawnY = world.spawnLocation.y;
 		player = new Player(true, spawnX, spawnY, 7 * (tileSize / 8), 14 * (tileSize / 8));
 		entities.add(player);
 
@@ -100,6 +129,195 @@ public class Server implements PacketHandler {
 		System.out.println("Server: Game started, world size " + width);
 	}
 
+	/**
+	 * Generate a new world with no entities and no player, e.g. for a dedicated server
+	 * @param width world width in tiles, or World.INFINITE_WIDTH for a streaming world
+	 */
+	public void startWorld(int width) {
+		World generated;
+		if (width == World.INFINITE_WIDTH) {
+			generated = new World(worldHeight, random.nextLong());
+		} else if (Constants.NOISE_TERRAIN) {
+			generated = new World(width, worldHeight, random.nextLong());
+		} else {
+			generated = new World(width, worldHeight, random);
+		}
+		setWorld(generated, new ArrayList<Entity>());
+	}
+
+	/**
+	 * Take over a saved world and its entities (see SaveLoad.doLoad()). Players spawn at
+	 * the world's spawn point.
+	 * @param host whether the integrated client plays the first saved Player (a new one if
+	 *        none was saved); otherwise (a dedicated server) saved Players are dropped
+	 */
+	public void loadWorld(World world, ArrayList<Entity> saved, boolean host) {
+		ArrayList<Entity> kept = new ArrayList<>();
+		Player hostPlayer = null;
+		for (Entity entity : saved) {
+			if (entity instanceof Player) {
+				if (!host || hostPlayer != null) {
+					continue;
+				}
+				hostPlayer = (Player) entity;
+			}
+			kept.add(entity);
+		}
+		setWorld(world, kept);
+		if (host && hostPlayer == null) {
+			hostPlayer = new Player(true, spawnX, spawnY, 7 * (tileSize / 8), 14 * (tileSize / 8));
+			entities.add(hostPlayer);
+		}
+		player = hostPlayer;
+	}
+
+	/**
+	 * Replace the world and entities, with no host player, and drop every remote player
+	 */
+	private void setWorld(World world, ArrayList<Entity> entities) {
+		for (PlayerSession session : sessions) {
+			session.connection.disconnect();
+		}
+		sessions.clear();
+		deathHandled = false;
+
+		this.world = world;
+		this.entities = entities;
+		player = null;
+		worldWidth = world.width;
+		spawnX = world.spawnLocation.x;
+		spawnY = world.spawnLocation.y;
+	}
+
+	/**
+	 * Let a remote player join on the next tick, at the spawn point. Safe from any thread,
+	 * e.g. the NetworkThread accepting them.
+	 */
+	public void connect(Connection connection) {
+		execute(() -> {
+			if (world == null) {
+				connection.sendPacket(new PacketChatMessage("No world is loaded", new mc.sayda.Color(255, 100, 100)));
+				connection.flush();
+				connection.disconnect();
+				return;
+			}
+			Player joined = new Player(true, spawnX, spawnY, 7 * (tileSize / 8), 14 * (tileSize / 8));
+			interest.assignId(joined);
+			connection.sendPacket(new PacketJoinGame(world.width, world.height, joined.id));
+			PlayerSession session = new PlayerSession(this, connection, joined, "Player"
+					+ nextSessionNumber++, new BlockInteractionSystem(random));
+			sessions.add(session);
+			entities.add(joined);
+			broadcastChat(session.name + " joined the game", mc.sayda.Color.orange);
+		});
+	}
+
+	/**
+	 * @return the connected remote players
+	 */
+	public java.util.List<PlayerSession> getSessions() {
+		return Collections.unmodifiableList(sessions);
+	}
+
+	/**
+	 * @return the entities to save: all but the remote players, who are gone once they leave
+	 */
+	public ArrayList<Entity> getSavedEntities() {
+		ArrayList<Entity> saved = new ArrayList<>(entities);
+		for (PlayerSession session : sessions) {
+			saved.remove(session.player);
+		}
+		return saved;
+	}
+
+	/**
+	 * Show a message in every player's chat
+	 */
+	public void broadcastChat(String message, mc.sayda.Color color) {
+		System.out.println("Server: " + message);
+		if (chat != null) {
+			chat.addMessage(message, color);
+		}
+		PacketChatMessage packet = new PacketChatMessage(message, color);
+		for (PlayerSession session : sessions) {
+			session.connection.sendPacket(packet);
+		}
+	}
+
+	/**
+	 * Server thread - tick TICKS_PER_SECOND times a second until stop(), each tick
+	 * simulating a fixed TICK_NANOS. Time lost to a slow tick or a stall is made up with
+	 * back to back ticks, up to MAX_CATCH_UP_TICKS of them.
+	 */
+	@Override
+	public void run() {
+		long lastTime = System.nanoTime();
+		long accumulator = 0;
+		long secondStart = lastTime;
+		int ticks = 0;
+		while (running) {
+			long now = System.nanoTime();
+			accumulator = Math.min(accumulator + now - lastTime, MAX_CATCH_UP_TICKS * TICK_NANOS);
+			lastTime = now;
+			while (accumulator >= TICK_NANOS && running) {
+				accumulator -= TICK_NANOS;
+				tickTime = now - accumulator;
+				tick();
+				ticks++;
+			}
+
+			if (now - secondStart >= 1000000000L) {
+				ticksPerSecond = ticks * 1e9f / (now - secondStart);
+				secondStart = now;
+				ticks = 0;
+			}
+
+			SystemTimer.sleep((TICK_NANOS - accumulator) / 1000000);
+		}
+		// e.g. the save queued when quitting
+		runTasks();
+		for (PlayerSession session : sessions) {
+			session.connection.flush();
+			session.connection.disconnect();
+		}
+	}
+
+	/**
+	 * Run task on the server thread at the start of the next tick
+	 */
+	public void execute(Runnable task) {
+		tasks.add(task);
+	}
+
+	private void runTasks() {
+		Runnable task;
+		while ((task = tasks.poll()) != null) {
+			task.run();
+		}
+	}
+
+	/**
+	 * @return the state as of the end of the last tick, or null before the first
+	 */
+	public WorldSnapshot getSnapshot() {
+		return snapshot;
+	}
+
+	/**
+	 * Replace the client's mouse state; the latest one is applied once per tick
+	 * @param input null when the client is not in game
+	 */
+	public void setHeldInput(HeldInput input) {
+		heldInput = input;
+	}
+
+	/**
+	 * @return ticks per second measured over the last second
+	 */
+	public float getTicksPerSecond() {
+		return ticksPerSecond;
+	}
+
 	/**
 	 * Server tick - process packets and update game state
 	 */
@@ -108,51 +326,263 @@ public class Server implements PacketHandler {
 
 		ticksRunning++;
 
-		// Process incoming packets from client
-		Packet[] packets = connection.receivePackets();
-		for (Packet packet : packets) {
-			packet.handle(this);
+		runTasks();
+
+		// Process incoming packets from client (none yet on a dedicated server)
+		if (connection != null) {
+			Packet[] packets = connection.receivePackets();
+			for (Packet packet : packets) {
+				packet.handle(this);
+			}
 		}
+		receiveSessionPackets();
 
 		// Update world
 		if (world != null) {
+			world.updateLoadedChunks(playerXs());
 			world.chunkUpdate(daylightCycle);
 		}
 
 		// Check for player death
 		if (player != null && player.dead && !deathHandled) {
-			handlePlayerDeath();
+			handlePlayerDeath(player);
 			deathHandled = true;
 		}
+		for (PlayerSession session : sessions) {
+			if (session.player.dead && !session.deathHandled) {
+				handlePlayerDeath(session.player);
+				session.deathHandled = true;
+			}
+		}
 
 		// Update entities
 		java.util.Iterator<Entity> it = entities.iterator();
 		while (it.hasNext()) {
 			Entity entity = it.next();
 
-			// Check collision with player
-			if (entity != player && player != null && player.collidesWith(entity, tileSize)) {
+			// Check collision with a player
+			Player collector = entity instanceof Player ? null : collidingPlayer(entity);
+			if (collector != null) {
 				if (entity instanceof Item || entity instanceof Tool) {
-					player.giveItem((Item) entity, 1);
+					collector.giveItem((Item) entity, 1);
 				}
 				it.remove();
 				continue;
 			}
 
+			// remote players move once per input they send, see moveSessionPlayer()
+			if (entity instanceof Player && entity != player) {
+				continue;
+			}
+
 			// Update entity position
+			entity.rememberPosition();
 			if (world != null) {
 				entity.updatePosition(world, tileSize);
 			}
 		}
 
-		// TODO: Send state update packets to clients
+		double breakingProgress = -1;
+		HeldInput input = heldInput;
+		if (input != null && player != null && world != null) {
+			breakingProgress = applyHeldInput(input);
+		}
+		if (world != null) {
+			for (PlayerSession session : sessions) {
+				moveSessionPlayer(session);
+				applySessionInput(session);
+			}
+		}
+
+		publishSnapshot(breakingProgress);
+
+		sendUpdates();
+		if (connection != null) {
+			connection.flush();
+		}
+		for (PlayerSession session : sessions) {
+			session.connection.flush();
+		}
+	}
+
+	/**
+	 * Send every remote player the tiles near them they are missing, or just the time once
+	 * a second when there are none, and the entities near them every few ticks
+	 */
+	private void sendUpdates() {
+		if (world == null) {
+			return;
+		}
+		worldSync.update(world);
+		// clients draw entities between updates, so a third of the ticks is plenty
+		boolean entityUpdate = ticksRunning % PacketEntityUpdate.UPDATE_TICKS == 0;
+		if (entityUpdate) {
+			interest.update(entities, ticksRunning);
+		}
+		for (PlayerSession session : sessions) {
+			PacketWorldUpdate packet = worldSync.updateFor(session.baselines,
+					InterestManager.chunkOf(session.player));
+			if (packet.chunkIndexes.length > 0 || packet.unloadedChunks.length > 0
+					|| ticksRunning % TICKS_PER_SECOND == 0) {
+				session.connection.sendPacket(packet);
+			}
+			if (entityUpdate) {
+				interest.sendEntities(session);
+			}
+		}
+	}
+
+	/**
+	 * Inventory clicks, then breaking and placing, then aiming the hand, as the client
+	 * used to do each frame
+	 * @return the breaking progress to draw, or -1
+	 */
+	private double applyHeldInput(HeldInput input) {
+		if (!input.leftClick) {
+			leftClickTaken = false;
+		}
+		if (!input.rightClick) {
+			rightClickTaken = false;
+		}
+		boolean leftClick = input.leftClick && !leftClickTaken;
+		boolean rightClick = input.rightClick && !rightClickTaken;
+
+		boolean inventoryFocus = player.inventory.updateInventory(input.screenWidth,
+				input.screenHeight, input.screenMousePos, leftClick && !input.chatOpen,
+				rightClick && !input.chatOpen);
+		if (inventoryFocus || input.chatOpen) {
+			leftClickTaken = input.leftClick;
+			rightClickTaken = input.rightClick;
+			leftClick = false;
+			rightClick = false;
+		}
+
+		double breakingProgress = -1;
+		if (leftClick) {
+			blockInteractionSystem.handleBlockBreaking(player, world, entities, tileSize, true);
+			breakingProgress = blockInteractionSystem.getBreakingProgress();
+		}
+		if (rightClick) {
+			blockInteractionSystem.handleBlockPlacing(player, world, tileSize);
+		}
+
+		player.updateHand(null, 0, 0, input.worldMouseX, input.worldMouseY, world, tileSize);
+		return breakingProgress;
+	}
+
+	/**
+	 * Handle what each remote player sent, and let the ones who left go
+	 */
+	private void receiveSessionPackets() {
+		java.util.Iterator<PlayerSession> it = sessions.iterator();
+		while (it.hasNext()) {
+			PlayerSession session = it.next();
+			for (Packet packet : session.connection.receivePackets()) {
+				packet.handle(session);
+			}
+			if (!session.connection.isConnected()) {
+				it.remove();
+				entities.remove(session.player);
+				broadcastChat(session.name + " left the game", mc.sayda.Color.orange);
+			}
+		}
+	}
+
+	/**
+	 * @return the x of every player, to keep the chunks around them loaded
+	 */
+	private double[] playerXs() {
+		int host = player == null ? 0 : 1;
+		double[] xs = new double[host + sessions.size()];
+		if (player != null) {
+			xs[0] = player.x;
+		}
+		for (int i = 0; i < sessions.size(); i++) {
+			xs[host + i] = sessions.get(i).player.x;
+		}
+		return xs;
+	}
+
+	/**
+	 * @return the first player touching entity, or null
+	 */
+	private Player collidingPlayer(Entity entity) {
+		if (player != null && player.collidesWith(entity, tileSize)) {
+			return player;
+		}
+		for (PlayerSession session : sessions) {
+			if (session.player.collidesWith(entity, tileSize)) {
+				return session.player;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Move a remote player one tick with their next input, the way their client already
+	 * has, and tell them where that got them. Inputs bunched up by the network wait for the
+	 * following ticks (see PlayerSession.handlePlayerInput()). With none waiting the player
+	 * keeps doing what their last input said, so they still fall, and their client is
+	 * corrected once it hears about it.
+	 */
+	private void moveSessionPlayer(PlayerSession session) {
+		boolean applied = !session.inputs.isEmpty();
+		if (applied) {
+			session.input = session.inputs.removeFirst();
+		}
+		PacketPlayerInput input = session.input == null ? IDLE_INPUT : session.input;
+		Player player = session.player;
+		simulateInput(player, input, world, tileSize);
+		if (applied || player.x != player.lastX || player.y != player.lastY) {
+			session.connection.sendPacket(new PacketPlayerState(input.sequence, player));
+		}
+	}
+
+	/**
+	 * Breaking, placing and aiming for a remote player, from their latest input. Their
+	 * mouse is already in world coordinates; inventory clicks are not sent yet.
+	 */
+	private void applySessionInput(PlayerSession session) {
+		PacketPlayerInput input = session.input;
+		if (input == null || session.player.dead) {
+			return;
+		}
+		if (input.leftClick) {
+			session.blockInteractionSystem.handleBlockBreaking(session.player, world, entities,
+					tileSize, true);
+		}
+		if (input.rightClick) {
+			session.blockInteractionSystem.handleBlockPlacing(session.player, world, tileSize);
+		}
+		session.player.updateHand(null, 0, 0, input.mouseX, input.mouseY, world, tileSize);
+	}
+
+	private void publishSnapshot(double breakingProgress) {
+		WorldSnapshot previous = snapshot;
+		World worldCopy = null;
+		if (world != null) {
+			worldCopy = world.snapshot(previous == null ? null : previous.world);
+		}
+		ArrayList<Entity> entityCopies = new ArrayList<>(entities.size());
+		Player playerCopy = null;
+		for (Entity entity : entities) {
+			Entity copy = entity.copy();
+			if (entity == player) {
+				playerCopy = (Player) copy;
+			}
+			entityCopies.add(copy);
+		}
+		Int2 breakingPos = blockInteractionSystem.getBreakingPos();
+		snapshot = new WorldSnapshot(ticksRunning, tickTime, worldCopy, Collections
+				.unmodifiableList(entityCopies), playerCopy, breakingPos.x, breakingPos.y,
+				breakingProgress);
 	}
 
 	/**
 	 * Handle player death - drop items
 	 */
-	private void handlePlayerDeath() {
-		if (!keepInventory && player != null) {
+	private void handlePlayerDeath(Player player) {
+		if (!keepInventory) {
 			ArrayList<Item> droppedItems = player.dropAllItems(random);
 			entities.addAll(droppedItems);
 			System.out.println("Server: Dropped " + droppedItems.size() + " items on death");
@@ -199,7 +629,41 @@ public class Server implements PacketHandler {
 	public void handlePlayerInput(PacketPlayerInput packet) {
 		if (player == null) return;
 
-		// Apply player input
+		applyMovement(player, packet);
+
+		// Handle block interactions
+		if (world != null) {
+			double worldMouseX = packet.mouseX;
+			double worldMouseY = packet.mouseY;
+
+			// Block breaking
+			if (packet.leftClick) {
+				blockInteractionSystem.handleBlockBreaking(player, world, entities, tileSize, true);
+			}
+
+			// Block placing
+			if (packet.rightClick) {
+				blockInteractionSystem.handleBlockPlacing(player, world, tileSize);
+			}
+		}
+	}
+
+	/**
+	 * One tick of a remote player: their input's movement keys, then the same
+	 * updatePosition() as every other entity. A client predicting its player does exactly
+	 * this, so both end up in the same place unless the world differs.
+	 */
+	public static void simulateInput(Player player, PacketPlayerInput input, World world,
+			int tileSize) {
+		applyMovement(player, input);
+		player.rememberPosition();
+		player.updatePosition(world, tileSize);
+	}
+
+	/**
+	 * Movement keys and hotbar slot from an input packet
+	 */
+	static void applyMovement(Player player, PacketPlayerInput packet) {
 		if (packet.moveLeft) {
 			player.startLeft(false);  // TODO: Handle shift from packet
 		} else {
@@ -220,23 +684,6 @@ public class Server implements PacketHandler {
 
 		// Set hotbar slot
 		player.setHotbarItem(packet.hotbarSlot);
-
-		// Handle block interactions
-		if (world != null) {
-			float worldMouseX = packet.mouseX;
-			float worldMouseY = packet.mouseY;
-
-			// Block breaking
-			if (packet.leftClick) {
-				blockInteractionSystem.handleBlockBreaking(null, player, world, entities,
-						0, 0, tileSize, true);  // TODO: Pass proper camera coords
-			}
-
-			// Block placing
-			if (packet.rightClick) {
-				blockInteractionSystem.handleBlockPlacing(player, world, tileSize);
-			}
-		}
 	}
 
 	@Override
@@ -255,6 +702,10 @@ public class Server implements PacketHandler {
 		}
 	}
 
+	// The host draws the server's own world
+	@Override
+	public void handleWorldAck(PacketWorldAck packet) {}
+
 	@Override
 	public void handleChatSend(PacketChatSend packet) {
 		System.out.println("Server: Received chat: " + packet.message);
@@ -269,12 +720,24 @@ public class Server implements PacketHandler {
 	}
 
 	// Client-bound packet handlers (server doesn't handle these)
+	@Override
+	public void handleJoinGame(PacketJoinGame packet) {}
+
 	@Override
 	public void handleWorldUpdate(PacketWorldUpdate packet) {}
 
+	@Override
+	public void handleEntitySpawn(PacketEntitySpawn packet) {}
+
 	@Override
 	public void handleEntityUpdate(PacketEntityUpdate packet) {}
 
+	@Override
+	public void handleEntityDespawn(PacketEntityDespawn packet) {}
+
+	@Override
+	public void handlePlayerState(PacketPlayerState packet) {}
+
 	@Override
 	public void handleChatMessage(PacketChatMessage packet) {}
 }
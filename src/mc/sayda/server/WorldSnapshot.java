@@ -0,0 +1,62 @@
+/*
+ * Copyright 2025 SaydaGames (mc_jojo3)
+ *
+ * This file is part of MCraze
+ *
+ * MCraze is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * MCraze is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with MCraze. If not, see http://www.gnu.org/licenses/.
+ */
+
+package mc.sayda.server;
+
+import java.util.List;
+
+import mc.sayda.entity.Entity;
+import mc.sayda.entity.Player;
+import mc.sayda.world.World;
+
+/**
+ * The state the client draws, copied at the end of a server tick. Nothing reachable from
+ * a snapshot is modified after it is published, so the client can draw it while the
+ * server thread goes on ticking.
+ */
+public class WorldSnapshot {
+	/** The server tick this was taken after */
+	public final long tick;
+	/** The System.nanoTime() that tick was due at */
+	public final long time;
+	/** See World.snapshot(); null before a game is started */
+	public final World world;
+	/** Copies of the entities, player included */
+	public final List<Entity> entities;
+	/** The player's copy in entities, or null */
+	public final Player player;
+	/** The block being broken and how far along [0, 1] it is, or -1 if none */
+	public final int breakingX, breakingY;
+	public final double breakingProgress;
+
+	WorldSnapshot(long tick, long time, World world, List<Entity> entities, Player player,
+			int breakingX, int breakingY, double breakingProgress) {
+		this.tick = tick;
+		this.time = time;
+		this.world = world;
+		this.entities = entities;
+		this.player = player;
+		this.breakingX = breakingX;
+		this.breakingY = breakingY;
+		this.breakingProgress = breakingProgress;
+	}
+
+	/**
+	 * Drawing entities at their interpolated positions (Entity.interpolatedX()) for this
+	 * value shows them moving smoothly between ticks, one tick behind the server.
+	 * @return how far [0, 1] now is through the tick after this one
+	 */
+	public float getInterpolation(long now) {
+		float alpha = (float) (now - time) / Server.TICK_NANOS;
+		return Math.max(0, Math.min(1, alpha));
+	}
+}
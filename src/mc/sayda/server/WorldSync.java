@@ -0,0 +1,257 @@
+/*
+ * Copyright 2025 SaydaGames (mc_jojo3)
+ *
+ * This file is part of MCraze
+ *
+ * MCraze is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * MCraze is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with MCraze. If not, see http://www.gnu.org/licenses/.
+ */
+
+package mc.sayda.server;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import mc.sayda.network.ChunkRuns;
+import mc.sayda.network.packet.PacketWorldUpdate;
+import mc.sayda.world.Chunk;
+import mc.sayda.world.TileStore;
+import mc.sayda.world.World;
+
+/**
+ * Keeps remote players' copies of the world's tiles up to date, sending each player only
+ * what changed in a chunk since the last revision of it they acknowledged.
+ *
+ * A chunk's revision goes up once for every tick it changes in, and the tiles changed in
+ * its last HISTORY revisions are remembered. A delta is every tile changed since the
+ * player's baseline, with its current value, so it can be sent again until acknowledged.
+ * A player with no usable baseline (new, or too far behind) gets the whole chunk.
+ *
+ * Only loaded chunks have a log. An unloaded chunk keeps just its last revision, so the
+ * revisions of it read back carry on from there and no baseline from before matches them.
+ *
+ * Players only get the chunks near them; see InterestManager.
+ */
+class WorldSync implements TileStore.ChangeSink {
+	static final int HISTORY = 64;
+	// whole chunks are big; a player catching up gets them over several ticks
+	static final int MAX_FULL_CHUNKS_PER_TICK = 8;
+	// deltas at least this big are compared with the whole chunk, and the smaller one sent
+	private static final int CHECK_FULL_BYTES = 64;
+
+	/**
+	 * Where a player's copy of one chunk stands
+	 */
+	static class Baseline {
+		// the latest revision the player says it has, or FULL for none
+		int acked = PacketWorldUpdate.FULL;
+		// the revision of the latest update sent, and of the latest whole chunk sent
+		int sent = PacketWorldUpdate.FULL;
+		int sentFull = PacketWorldUpdate.FULL;
+
+		void acknowledge(int revision) {
+			if (revision > acked && revision <= sent) {
+				acked = revision;
+			}
+		}
+	}
+
+	private static class ChunkLog {
+		int lineage;
+		int revision = 0;
+		// deltas can only be made from this revision on; before it the history is gone
+		int oldestBase = 0;
+		// local indices (lx * height + y) changed in revision r are at r % HISTORY
+		final int[][] changes = new int[HISTORY][];
+		final BitSet pending = new BitSet();
+
+		/**
+		 * @param revision the chunk's last revision before this log, whose history is gone
+		 */
+		ChunkLog(int lineage, int revision) {
+			this.lineage = lineage;
+			this.revision = revision;
+			this.oldestBase = revision;
+		}
+
+		/**
+		 * The chunk was replaced, e.g. unloaded and read back; its history means nothing now
+		 */
+		void reset(int lineage) {
+			this.lineage = lineage;
+			revision++;
+			oldestBase = revision;
+			pending.clear();
+		}
+
+		void commit() {
+			revision++;
+			int[] changed = new int[pending.cardinality()];
+			int n = 0;
+			for (int i = pending.nextSetBit(0); i >= 0; i = pending.nextSetBit(i + 1)) {
+				changed[n++] = i;
+			}
+			changes[revision % HISTORY] = changed;
+			oldestBase = Math.max(oldestBase, revision - HISTORY);
+			pending.clear();
+		}
+	}
+
+	private World world;
+	private final HashMap<Integer, ChunkLog> logs = new HashMap<>();
+	// the last revision of each chunk without a log, by chunk index
+	private int[] lastRevisions = new int[0];
+	// this tick's encoded chunks by index and baseline, shared by players with the same one
+	private final HashMap<Long, byte[]> encoded = new HashMap<>();
+	private final BitSet scratch = new BitSet();
+
+	/**
+	 * Take the tick's tile changes from world. Call once per tick, before updateFor().
+	 */
+	public void update(World world) {
+		if (world != this.world) {
+			logs.clear();
+			lastRevisions = new int[world.getChunkCount()];
+			this.world = world;
+		}
+		encoded.clear();
+		Iterator<Map.Entry<Integer, ChunkLog>> it = logs.entrySet().iterator();
+		while (it.hasNext()) {
+			Map.Entry<Integer, ChunkLog> entry = it.next();
+			if (world.getChunk(entry.getKey()) == null) {
+				lastRevisions[entry.getKey()] = entry.getValue().revision;
+				it.remove();
+			}
+		}
+		for (Chunk chunk : world.tiles.getLoadedChunks()) {
+			ChunkLog log = logs.get(chunk.index);
+			if (log == null) {
+				logs.put(chunk.index, new ChunkLog(chunk.getLineage(), lastRevisions[chunk.index] + 1));
+			} else if (log.lineage != chunk.getLineage()) {
+				log.reset(chunk.getLineage());
+			}
+		}
+		world.drainTileChanges(this);
+		for (ChunkLog log : logs.values()) {
+			if (!log.pending.isEmpty()) {
+				log.commit();
+			}
+		}
+	}
+
+	@Override
+	public void tileChanged(int x, int y, int ordinal) {
+		logs.get(x >> Chunk.SHIFT).pending.set((x & Chunk.MASK) * world.height + y);
+	}
+
+	/**
+	 * @param baselines a player's baselines by chunk index, one per chunk they have; updated
+	 *        with what is sent
+	 * @param center the chunk the player is in
+	 * @return the chunks in view the player is missing, and the ones to drop, possibly none
+	 */
+	public PacketWorldUpdate updateFor(Map<Integer, Baseline> baselines, int center) {
+		ArrayList<Chunk> chunks = new ArrayList<>();
+		ArrayList<int[]> revisions = new ArrayList<>();
+		ArrayList<byte[]> runs = new ArrayList<>();
+		int fullChunks = 0;
+		int first = Math.max(0, center - InterestManager.VIEW_RADIUS);
+		int last = Math.min(world.getChunkCount() - 1, center + InterestManager.VIEW_RADIUS);
+		for (int index = first; index <= last; index++) {
+			Chunk chunk = world.getChunk(index);
+			if (chunk == null) {
+				continue;
+			}
+			ChunkLog log = logs.get(chunk.index);
+			Baseline baseline = baselines.get(chunk.index);
+			if (baseline == null) {
+				baseline = new Baseline();
+				baselines.put(chunk.index, baseline);
+			} else if (baseline.sent == log.revision) {
+				continue;
+			}
+			// updates arrive in order, so a whole chunk sent is as good as acknowledged
+			int base = Math.max(baseline.acked, baseline.sentFull);
+			byte[] delta = base >= log.oldestBase ? encodeDelta(chunk, log, base) : null;
+			if (delta == null) {
+				if (fullChunks == MAX_FULL_CHUNKS_PER_TICK) {
+					continue;
+				}
+				fullChunks++;
+				base = PacketWorldUpdate.FULL;
+				delta = encodeFull(chunk);
+				baseline.sentFull = log.revision;
+			}
+			baseline.sent = log.revision;
+			chunks.add(chunk);
+			revisions.add(new int[] { base, log.revision });
+			runs.add(delta);
+		}
+
+		ArrayList<Integer> unloaded = new ArrayList<>();
+		Iterator<Integer> it = baselines.keySet().iterator();
+		while (it.hasNext()) {
+			int index = it.next();
+			if (Math.abs(index - center) > InterestManager.FORGET_RADIUS) {
+				it.remove();
+				unloaded.add(index);
+			}
+		}
+
+		PacketWorldUpdate packet = new PacketWorldUpdate();
+		packet.ticksAlive = world.getTicksAlive();
+		packet.chunkIndexes = new int[chunks.size()];
+		packet.baseRevisions = new int[chunks.size()];
+		packet.revisions = new int[chunks.size()];
+		packet.runs = runs.toArray(new byte[chunks.size()][]);
+		for (int i = 0; i < chunks.size(); i++) {
+			packet.chunkIndexes[i] = chunks.get(i).index;
+			packet.baseRevisions[i] = revisions.get(i)[0];
+			packet.revisions[i] = revisions.get(i)[1];
+		}
+		packet.unloadedChunks = new int[unloaded.size()];
+		for (int i = 0; i < unloaded.size(); i++) {
+			packet.unloadedChunks[i] = unloaded.get(i);
+		}
+		return packet;
+	}
+
+	/**
+	 * @return the tiles changed after revision base, or null if sending the whole chunk
+	 *         would be smaller
+	 */
+	private byte[] encodeDelta(Chunk chunk, ChunkLog log, int base) {
+		long key = (long) chunk.index << 32 | base;
+		byte[] delta = encoded.get(key);
+		if (delta == null) {
+			scratch.clear();
+			for (int revision = base + 1; revision <= log.revision; revision++) {
+				for (int i : log.changes[revision % HISTORY]) {
+					scratch.set(i);
+				}
+			}
+			delta = ChunkRuns.encodeDelta(chunk, scratch);
+			encoded.put(key, delta);
+		}
+		if (delta.length >= CHECK_FULL_BYTES && delta.length >= encodeFull(chunk).length) {
+			return null;
+		}
+		return delta;
+	}
+
+	private byte[] encodeFull(Chunk chunk) {
+		long key = (long) chunk.index << 32 | (PacketWorldUpdate.FULL & 0xFFFFFFFFL);
+		byte[] full = encoded.get(key);
+		if (full == null) {
+			full = ChunkRuns.encodeFull(chunk);
+			encoded.put(key, full);
+		}
+		return full;
+	}
+}
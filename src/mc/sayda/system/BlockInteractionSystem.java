@@ -27,6 +27,7 @@ import mc.sayda.item.Item;
 import mc.sayda.item.Tool;
 import mc.sayda.util.Int2;
 import mc.sayda.util.StockMethods;
+import mc.sayda.world.TileProperties;
 import mc.sayda.world.World;
 
 /**
@@ -43,6 +44,8 @@ public class BlockInteractionSystem {
 
 	private int breakingTicks;
 	private Int2 breakingPos;
+	// how far along breakingPos is, for drawing, or -1 if the last call broke nothing
+	private double breakingProgress = -1;
 	private Sprite[] breakingSprites;
 	private Random random;
 
@@ -64,18 +67,17 @@ public class BlockInteractionSystem {
 	}
 
 	/**
-	 * Handle block breaking logic
-	 * @param g Graphics handler for rendering
+	 * Handle block breaking logic. Drawing the progress is left to drawBreaking(), so this
+	 * can run on the server thread.
 	 * @param player Player entity
 	 * @param world Game world
 	 * @param entities List of all entities
-	 * @param cameraX Camera X position
-	 * @param cameraY Camera Y position
 	 * @param tileSize Size of tiles in pixels
 	 * @param isBreaking Whether left mouse button is pressed
 	 */
-	public void handleBlockBreaking(GraphicsHandler g, Player player, World world,
-			ArrayList<Entity> entities, float cameraX, float cameraY, int tileSize, boolean isBreaking) {
+	public void handleBlockBreaking(Player player, World world, ArrayList<Entity> entities,
+			int tileSize, boolean isBreaking) {
+		breakingProgress = -1;
 
 		if (isBreaking && player.handTargetPos.x != -1) {
 			// Only allow breaking if there's actually a block to break
@@ -95,10 +97,7 @@ public class BlockInteractionSystem {
 			Item item = inventoryItem.getItem();
 			int ticksNeeded = world.breakTicks(breakingPos.x, breakingPos.y, item);
 
-			Int2 pos = StockMethods.computeDrawLocationInPlace(cameraX, cameraY, tileSize,
-					tileSize, tileSize, breakingPos.x, breakingPos.y);
-			int sprite_index = (int) (Math.min(1, (double) breakingTicks / ticksNeeded) * (breakingSprites.length - 1));
-			breakingSprites[sprite_index].draw(g, pos.x, pos.y, tileSize, tileSize);
+			breakingProgress = Math.min(1, (double) breakingTicks / ticksNeeded);
 
 			if (breakingTicks >= ticksNeeded) {
 				// Block is broken - handle tool durability
@@ -141,6 +140,33 @@ public class BlockInteractionSystem {
 		}
 	}
 
+	/**
+	 * @return the block being broken by the last handleBlockBreaking() call
+	 */
+	public Int2 getBreakingPos() {
+		return breakingPos;
+	}
+
+	/**
+	 * @return how far along [0, 1] the last handleBlockBreaking() call got, or -1 if it
+	 *         was not breaking anything
+	 */
+	public double getBreakingProgress() {
+		return breakingProgress;
+	}
+
+	/**
+	 * Draw the break animation over the block at (x, y)
+	 * @param progress How far along the block is [0, 1]
+	 */
+	public void drawBreaking(GraphicsHandler g, int x, int y, double progress, double cameraX,
+			double cameraY, int tileSize) {
+		Int2 pos = StockMethods.computeDrawLocationInPlace(cameraX, cameraY, tileSize,
+				tileSize, tileSize, x, y);
+		int sprite_index = (int) (progress * (breakingSprites.length - 1));
+		breakingSprites[sprite_index].draw(g, pos.x, pos.y, tileSize, tileSize);
+	}
+
 	/**
 	 * Handle block placing logic at the targeted position.
 	 * Only allows placing if the target position is empty and has an adjacent block.
@@ -181,7 +207,7 @@ public class BlockInteractionSystem {
 			}
 
 			// Check if the block would collide with the player
-			boolean isPassable = Constants.tileTypes.get(itemID).type.passable;
+			boolean isPassable = TileProperties.PASSABLE[itemID.ordinal()];
 			if (isPassable || !player.inBoundingBox(player.handTargetPos, tileSize)) {
 				if (world.addTile(player.handTargetPos, itemID)) {
 					// Placed successfully
@@ -1,358 +1,466 @@
 package mc.sayda.system;
 
 import java.io.Serializable;
-import java.util.Comparator;
-import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.PriorityQueue;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import mc.sayda.Constants;
-import mc.sayda.util.Int2;
-import mc.sayda.world.Tile;
+import mc.sayda.Constants.TileID;
+import mc.sayda.world.Chunk;
+import mc.sayda.world.TileProperties;
+import mc.sayda.world.TileStore;
 
+/**
+ * Propagates light over one light layer of the world.
+ *
+ * A tile's light is the brightest of its own source value (full sun for sky-exposed
+ * tiles, or its emission for light blocks) and what its neighbours pass on: their value
+ * minus one minus their light blocking. Opaque tiles are lit but pass nothing on.
+ *
+ * Spreading is a bucketed breadth-first flood fill: one queue per light value, drained
+ * from brightest to darkest, over tile positions packed into ints (x * height + y).
+ * Sun light is seeded from the per-column sky heightmap kept by the chunks, so deciding
+ * whether a tile is open to the sky never scans its column.
+ * Edits first remove the light that could have come through the edited tile, then
+ * re-spread into the darkened area, so only tiles whose light actually depended on the
+ * edit are touched. All queues are reused, so updates allocate nothing once they have
+ * grown to their working size.
+ *
+ * Whole worlds are lit with lightChunks(), which splits them into strips lit in parallel.
+ */
 public class LightingEngine implements Serializable {
-	
+
 	private static final long serialVersionUID = 1L;
-	
-	public enum Direction {
-		RIGHT, UP_RIGHT, UP, UP_LEFT, LEFT, DOWN_LEFT, DOWN, DOWN_RIGHT, SOURCE, WELL, UNKNOWN
-	};
-	
-	public Direction[][] lightFlow;
-	
-	private int[][] lightValues;
+
+	private static final int MAX_LIGHT = Constants.LIGHT_VALUE_SUN;
+	// light loses at least one per tile, so no tile is lit from further away than this
+	private static final int MAX_REACH = MAX_LIGHT - 1;
+	private static final int STRIP_CHUNKS = 8;
+
 	private int width, height;
-	private Tile[][] tiles;
-	
+	private TileStore tiles;
+
 	private final boolean isSun;
-	
-	public LightingEngine(int width, int height, Tile[][] tiles, boolean isSun) {
+	// light layer in the chunk store this engine writes to
+	private final int layer;
+	// columns [left, right) this engine lights: the whole world, or one strip and its halo
+	private final int left, right;
+	// a strip engine's own light, indexed (x - left) * height + y, kept out of the chunks
+	private transient byte[] strip;
+
+	// spread queues, indexed by light value. A "lit" entry spreads from a tile that
+	// already holds its value (the edge of a darkened area) instead of brightening it.
+	private transient int[][] queuePositions;
+	private transient boolean[][] queueLit;
+	private transient int[] queueSizes;
+	// darkened tiles still to visit, with the value they had
+	private transient int[] darkPositions;
+	private transient int[] darkValues;
+	private transient int darkSize;
+	// lit tiles found bordering the darkened area; they re-spread once removal is done
+	private transient int[] edgePositions;
+	private transient int edgeSize;
+
+	/**
+	 * Create the engine keeping a world's light up to date. It does not light anything
+	 * itself: light the world first with lightChunks() or initColumns().
+	 */
+	public LightingEngine(int width, int height, TileStore tiles, boolean isSun) {
+		this(width, height, tiles, isSun, 0, width);
+	}
+
+	private LightingEngine(int width, int height, TileStore tiles, boolean isSun, int left, int right) {
 		this.width = width;
 		this.height = height;
 		this.tiles = tiles;
 		this.isSun = isSun;
-		lightValues = new int[width][height];
-		lightFlow = new Direction[width][height];
-		init();
+		this.layer = isSun ? Chunk.SUN : Chunk.BLOCK;
+		this.left = left;
+		this.right = right;
+	}
+
+	/**
+	 * Light both layers of every loaded chunk from scratch. The world is split into strips
+	 * of chunks lit in parallel on the common ForkJoinPool. Each strip is computed in a
+	 * private buffer covering the strip plus MAX_REACH columns either side, which holds
+	 * every tile that can light it, so the result is exactly that of lighting the whole
+	 * world at once. Strips then copy back only their own chunks.
+	 */
+	public static void lightChunks(TileStore tiles) {
+		ForkJoinPool.commonPool().invoke(new LightStrip(tiles, 0, tiles.getChunkCount()));
+	}
+
+	private static class LightStrip extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final TileStore tiles;
+		private final int start, end;
+
+		LightStrip(TileStore tiles, int start, int end) {
+			this.tiles = tiles;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		protected void compute() {
+			if (end - start <= STRIP_CHUNKS) {
+				lightStrip(tiles, start, end);
+				return;
+			}
+			int mid = (start + end) >>> 1;
+			invokeAll(new LightStrip(tiles, start, mid), new LightStrip(tiles, mid, end));
+		}
+	}
+
+	private static void lightStrip(TileStore tiles, int start, int end) {
+		boolean loaded = false;
+		for (int i = start; i < end && !loaded; i++) {
+			loaded = tiles.isChunkLoaded(i);
+		}
+		if (!loaded) {
+			return;
+		}
+		int left = start << Chunk.SHIFT;
+		int right = Math.min(end << Chunk.SHIFT, tiles.width);
+		int from = Math.max(0, left - MAX_REACH);
+		int to = Math.min(tiles.width, right + MAX_REACH);
+		LightingEngine sun = new LightingEngine(tiles.width, tiles.height, tiles, true, from, to);
+		LightingEngine block = new LightingEngine(tiles.width, tiles.height, tiles, false, from, to);
+		sun.lightStrip();
+		block.lightStrip();
+		for (int x = left; x < right; x++) {
+			for (int y = 0; y < tiles.height; y++) {
+				tiles.setLight(Chunk.SUN, x, y, sun.getLightValue(x, y));
+				tiles.setLight(Chunk.BLOCK, x, y, block.getLightValue(x, y));
+			}
+		}
+	}
+
+	private void lightStrip() {
+		strip = new byte[(right - left) * height];
+		for (int x = left; x < right; x++) {
+			addSources(x);
+		}
+		spread();
 	}
-	
-	private void init() {
-		for (int x = 0; x < width; x++) {
+
+	/**
+	 * Light the freshly loaded columns [left, right) of a streaming world and let light
+	 * flow between them and any already loaded neighbours.
+	 */
+	public void initColumns(int left, int right) {
+		for (int x = left; x < right; x++) {
 			for (int y = 0; y < height; y++) {
-				lightValues[x][y] = 0;
-				lightFlow[x][y] = Direction.UNKNOWN;
+				setLightValue(x, y, 0);
 			}
+			addSources(x);
 		}
-		LinkedList<LightingPoint> sources = new LinkedList<LightingPoint>();
-		if (isSun) {
-			for (int x = 0; x < width; x++) {
-				sources.addAll(getSunSources(x));
+		int[] borders = { left - 1, right };
+		for (int x : borders) {
+			if (x < 0 || x >= width || !tiles.isLoaded(x)) {
+				continue;
 			}
-		} else {
-			for (int x = 0; x < width; x++) {
-				for (int y = 0; y < height; y++) {
-					if (tiles[x][y].type.lightEmitting > 0) {
-						lightFlow[x][y] = Direction.SOURCE;
-						lightValues[x][y] = tiles[x][y].type.lightEmitting;
-					}
-					
+			for (int y = 0; y < height; y++) {
+				int value = getLightValue(x, y);
+				if (value > 0) {
+					enqueue(value, x * height + y, true);
 				}
 			}
 		}
-		spreadLightingDijkstra(sources);
+		spread();
 	}
-	
+
 	public int getLightValue(int x, int y) {
-		return lightValues[x][y];
+		if (strip != null) {
+			return strip[(x - left) * height + y];
+		}
+		return tiles.getLight(layer, x, y);
 	}
-	
-	public void removedTile(int x, int y) {
-		if (!isSun && lightFlow[x][y] == Direction.SOURCE) {
-			lightFlow[x][y] = Direction.UNKNOWN;
-			resetLighting(x, y);
+
+	private void setLightValue(int x, int y, int value) {
+		if (strip != null) {
+			strip[(x - left) * height + y] = (byte) value;
 			return;
 		}
-		lightFlow[x][y] = Direction.UNKNOWN;
-		if (isSun) {
-			spreadLightingDijkstra(getSunSources(x));
-		}
-		spreadLightingDijkstra(new LightingPoint(x, y, Direction.UNKNOWN, lightValues[x][y])
-				.getNeighbors(true, width, height));
+		tiles.setLight(layer, x, y, value);
 	}
-	
-	public void addedTile(int x, int y) {
-		lightFlow[x][y] = Direction.UNKNOWN;
+
+	/**
+	 * Update the light after the tile at (x, y) was changed from previous to what is there now
+	 */
+	public void tileChanged(int x, int y, TileID previous) {
+		int previousBlocking = TileProperties.LIGHT_BLOCKING[previous.ordinal()];
+
+		// phase one: remove the light that came through the edited tile...
+		int value = getLightValue(x, y);
+		setLightValue(x, y, 0);
+		darkenNeighbors(x, y, value, previousBlocking);
+		int top = skyLimit(x);
 		if (isSun) {
-			// redo the column for sun
-			boolean sun = true;
-			for (int i = 0; i < height; i++) {
-				if (tiles[x][i].type.lightBlocking != 0) {
-					sun = false;
+			if (previousBlocking == 0 && y == top) {
+				// ...and out of the sky below a block placed on top of the column. Only
+				// sky-exposed tiles hold full sun, so they are the run of MAX_LIGHT below it
+				for (int j = y + 1; j < height && getLightValue(x, j) == MAX_LIGHT; j++) {
+					darken(x, j);
 				}
-				if (sun) {
-					lightFlow[x][i] = Direction.SOURCE;
-				} else {
-					lightFlow[x][i] = Direction.UNKNOWN;
+			}
+			drainDarkness();
+			if (previousBlocking != 0) {
+				// removing the column's top block exposes the sky down to the next one
+				for (int j = y; j < top; j++) {
+					enqueue(MAX_LIGHT, x * height + j, false);
 				}
 			}
-		} else if (tiles[x][y].type.lightEmitting > 0) {
-			lightValues[x][y] = tiles[x][y].type.lightEmitting;
-			lightFlow[x][y] = Direction.SOURCE;
+		} else {
+			drainDarkness();
 		}
-		resetLighting(x, y);
-	}
-	
-	public List<LightingPoint> getSunSources(int column) {
-		LinkedList<LightingPoint> sources = new LinkedList<LightingPoint>();
-		for (int y = 0; y < height - 1; y++) {
-			if (tiles[column][y].type.lightBlocking != 0) {
-				break;
+
+		// phase two: the edited tile's own light, then everything around the dark area
+		int source = isSun ? (y < top ? MAX_LIGHT : 0) : tiles.lightEmitting(x, y);
+		if (source > 0) {
+			enqueue(source, x * height + y, false);
+		}
+		for (int i = 0; i < edgeSize; i++) {
+			int position = edgePositions[i];
+			int edgeValue = getLightValue(position / height, position % height);
+			if (edgeValue > 0) {
+				enqueue(edgeValue, position, true);
 			}
-			sources.add(new LightingPoint(column, y, Direction.SOURCE, Constants.LIGHT_VALUE_SUN));
 		}
-		return sources;
+		edgeSize = 0;
+		spread();
+	}
+
+	/**
+	 * @return the y above which the column is open to the sky. The bottom row is never sky.
+	 */
+	private int skyLimit(int x) {
+		return Math.min(height - 1, tiles.skyHeight(x));
+	}
+
+	/**
+	 * @return the light (x, y) produces by itself: full sun when it is open to the sky,
+	 *         or its emission for block light
+	 */
+	private int sourceValue(int x, int y) {
+		if (!isSun) {
+			return tiles.lightEmitting(x, y);
+		}
+		return y < skyLimit(x) ? MAX_LIGHT : 0;
 	}
-	
-	public void resetLighting(int x, int y) {
-		int left = Math.max(x - Constants.LIGHT_VALUE_SUN, 0);
-		int right = Math.min(x + Constants.LIGHT_VALUE_SUN, width - 1);
-		int top = Math.max(y - Constants.LIGHT_VALUE_SUN, 0);
-		int bottom = Math.min(y + Constants.LIGHT_VALUE_SUN, height - 1);
-		List<LightingPoint> sources = new LinkedList<LightingPoint>();
-		
-		// safely circle around the target zeroed zone
-		boolean bufferLeft = (left > 0);
-		boolean bufferRight = (right < width - 1);
-		boolean bufferTop = (top > 0);
-		boolean bufferBottom = (bottom < height - 1);
-		if (bufferTop) {
-			if (bufferLeft) {
-				sources.add(getLightingPoint(left - 1, top - 1));
-				zeroLightValue(left - 1, top - 1);
+
+	/**
+	 * Queue the sun or block light sources of a column for the next spread()
+	 */
+	private void addSources(int x) {
+		if (isSun) {
+			// sky tiles are lit directly; only those next to a tile that is not sky
+			// (below the lowest sky of this and the neighbouring columns) spread further
+			int top = skyLimit(x);
+			int boundary = top - 1;
+			if (x > left && tiles.isLoaded(x - 1)) {
+				boundary = Math.min(boundary, skyLimit(x - 1) - 1);
 			}
-			if (bufferRight) {
-				sources.add(getLightingPoint(right + 1, top - 1));
-				zeroLightValue(right + 1, top - 1);
+			if (x < right - 1 && tiles.isLoaded(x + 1)) {
+				boundary = Math.min(boundary, skyLimit(x + 1) - 1);
 			}
-			for (int i = left; i <= right; i++) {
-				sources.add(getLightingPoint(i, top - 1));
-				zeroLightValue(i, top - 1);
+			for (int y = 0; y < top; y++) {
+				setLightValue(x, y, MAX_LIGHT);
+				if (y >= boundary) {
+					enqueue(MAX_LIGHT, x * height + y, true);
+				}
 			}
+			return;
 		}
-		if (bufferBottom) {
-			if (bufferLeft) {
-				sources.add(getLightingPoint(left - 1, bottom + 1));
-				zeroLightValue(left - 1, bottom + 1);
+		for (int y = 0; y < height; y++) {
+			int emitting = tiles.lightEmitting(x, y);
+			if (emitting > 0) {
+				enqueue(emitting, x * height + y, false);
 			}
-			if (bufferRight) {
-				sources.add(getLightingPoint(right + 1, bottom + 1));
-				zeroLightValue(right + 1, bottom + 1);
+		}
+	}
+
+	private void darken(int x, int y) {
+		int value = getLightValue(x, y);
+		if (value > 0) {
+			setLightValue(x, y, 0);
+			pushDark(x * height + y, value);
+		}
+	}
+
+	private void drainDarkness() {
+		while (darkSize > 0) {
+			darkSize--;
+			int position = darkPositions[darkSize];
+			int x = position / height;
+			int y = position - x * height;
+			darkenNeighbors(x, y, darkValues[darkSize], tiles.lightBlocking(x, y));
+		}
+	}
+
+	/**
+	 * A tile that held value (with the given light blocking) went dark. Neighbours no
+	 * brighter than what it passed on may have been lit through it, so they go dark
+	 * too; brighter ones have light of their own and will refill the dark area.
+	 */
+	private void darkenNeighbors(int x, int y, int value, int blocking) {
+		int passed = blocking == Constants.LIGHT_VALUE_OPAQUE ? 0 : value - 1 - blocking;
+		boolean up = y > 0;
+		boolean down = y < height - 1;
+		if (x < right - 1) {
+			darkenNeighbor(x + 1, y, passed);
+			if (up) {
+				darkenNeighbor(x + 1, y - 1, passed);
 			}
-			for (int i = left; i <= right; i++) {
-				sources.add(getLightingPoint(i, bottom + 1));
-				zeroLightValue(i, bottom + 1);
+			if (down) {
+				darkenNeighbor(x + 1, y + 1, passed);
 			}
 		}
-		if (bufferLeft) {
-			for (int i = top; i <= bottom; i++) {
-				sources.add(getLightingPoint(left - 1, i));
-				zeroLightValue(left - 1, i);
+		if (x > left) {
+			darkenNeighbor(x - 1, y, passed);
+			if (up) {
+				darkenNeighbor(x - 1, y - 1, passed);
 			}
-		}
-		if (bufferRight) {
-			for (int i = top; i <= bottom; i++) {
-				sources.add(getLightingPoint(right + 1, i));
-				zeroLightValue(right + 1, i);
+			if (down) {
+				darkenNeighbor(x - 1, y + 1, passed);
 			}
 		}
-		for (int i = left; i <= right; i++) {
-			for (int j = top; j <= bottom; j++) {
-				if (lightFlow[i][j] == Direction.SOURCE) {
-					sources.add(getLightingPoint(i, j));
-				}
-				lightValues[i][j] = 0;
-			}
+		if (down) {
+			darkenNeighbor(x, y + 1, passed);
+		}
+		if (up) {
+			darkenNeighbor(x, y - 1, passed);
 		}
-		spreadLightingDijkstra(sources);
 	}
-	
-	private void zeroLightValue(int x, int y) {
-		lightValues[x][y] = 0;
+
+	private void darkenNeighbor(int x, int y, int passed) {
+		int value = getLightValue(x, y);
+		if (value == 0) {
+			return;
+		}
+		int position = x * height + y;
+		if (value > passed) {
+			addEdge(position);
+			return;
+		}
+		setLightValue(x, y, 0);
+		pushDark(position, value);
+		int source = sourceValue(x, y);
+		if (source > 0) {
+			enqueue(source, position, false);
+		}
 	}
-	
-	private LightingPoint getLightingPoint(int x, int y) {
-		return new LightingPoint(x, y, lightFlow[x][y], lightValues[x][y]);
+
+	private void pushDark(int position, int value) {
+		if (darkPositions == null) {
+			darkPositions = new int[64];
+			darkValues = new int[64];
+		}
+		if (darkSize == darkPositions.length) {
+			darkPositions = Arrays.copyOf(darkPositions, darkSize * 2);
+			darkValues = Arrays.copyOf(darkValues, darkSize * 2);
+		}
+		darkPositions[darkSize] = position;
+		darkValues[darkSize] = value;
+		darkSize++;
 	}
-	
-	public class LightingPoint {
-		
-		public int x, y, lightValue;
-		public Direction flow;
-		
-		// public LightingPoint(int x, int y, Direction flow, int lightValue) {
-		// this(x, y, flow, lightValue, true);
-		// }
-		//
-		public LightingPoint(int x, int y, Direction flow, int lightValue) {
-			this.x = x;
-			this.y = y;
-			this.flow = flow;
-			this.lightValue = lightValue;
-		}
-		
-		@Override
-		public boolean equals(Object o) {
-			LightingPoint other = (LightingPoint) o;
-			return other.x == this.x && other.y == this.y;
-		}
-		
-		public List<LightingPoint> getNeighbors(boolean sun, int width, int height) {
-			List<LightingPoint> neighbors = new LinkedList<LightingPoint>();
-			if (tiles[x][y].type.lightBlocking == Constants.LIGHT_VALUE_OPAQUE) {
-				return neighbors;
-			}
-			int newValue = lightValue - 1 - tiles[x][y].type.lightBlocking;
-			neighbors = getExactNeighbors(width, height, newValue);
-			
-			return neighbors;
-		}
-		
-		public List<LightingPoint> getExactNeighbors(int width, int height, int lightingValue) {
-			LinkedList<LightingPoint> neighbors = new LinkedList<LightingPoint>();
-			
-			boolean bufferLeft = (x > 0);
-			boolean bufferRight = (x < width - 1);
-			boolean bufferUp = (y > 0);
-			boolean bufferDown = (y < height - 1);
-			
-			if (bufferRight) {
-				neighbors.add(new LightingPoint(x + 1, y, Direction.RIGHT, lightingValue));
-				if (bufferUp) {
-					neighbors
-							.add(new LightingPoint(x + 1, y - 1, Direction.UP_RIGHT, lightingValue));
-				}
-				if (bufferDown) {
-					neighbors.add(new LightingPoint(x + 1, y + 1, Direction.DOWN_RIGHT,
-							lightingValue));
-				}
-			}
-			if (bufferLeft) {
-				neighbors.add(new LightingPoint(x - 1, y, Direction.LEFT, lightingValue));
-				if (bufferUp) {
-					neighbors
-							.add(new LightingPoint(x - 1, y - 1, Direction.UP_LEFT, lightingValue));
-				}
-				if (bufferDown) {
-					neighbors
-							.add(new LightingPoint(x - 1, y + 1, Direction.UP_LEFT, lightingValue));
-				}
-			}
-			if (bufferDown) {
-				neighbors.add(new LightingPoint(x, y + 1, Direction.DOWN, lightingValue));
-			}
-			if (bufferUp) {
-				neighbors.add(new LightingPoint(x, y - 1, Direction.UP, lightingValue));
-			}
-			return neighbors;
+
+	private void addEdge(int position) {
+		if (edgePositions == null) {
+			edgePositions = new int[64];
 		}
-		
-		@Override
-		public int hashCode() {
-			return x * 13 + y * 17;
-			
+		if (edgeSize == edgePositions.length) {
+			edgePositions = Arrays.copyOf(edgePositions, edgeSize * 2);
 		}
+		edgePositions[edgeSize++] = position;
 	}
-	
-	public class LightValueComparator implements Comparator<LightingPoint> {
-		@Override
-		public int compare(LightingPoint arg0, LightingPoint arg1) {
-			if (arg0.lightValue < arg1.lightValue) {
-				return 1;
-			} else if (arg0.lightValue > arg1.lightValue) {
-				return -1;
-			}
-			return 0;
+
+	private void enqueue(int value, int position, boolean lit) {
+		if (queuePositions == null) {
+			queuePositions = new int[MAX_LIGHT + 1][64];
+			queueLit = new boolean[MAX_LIGHT + 1][64];
+			queueSizes = new int[MAX_LIGHT + 1];
 		}
+		int size = queueSizes[value];
+		if (size == queuePositions[value].length) {
+			queuePositions[value] = Arrays.copyOf(queuePositions[value], size * 2);
+			queueLit[value] = Arrays.copyOf(queueLit[value], size * 2);
+		}
+		queuePositions[value][size] = position;
+		queueLit[value][size] = lit;
+		queueSizes[value] = size + 1;
 	}
-	
-	private void spreadLightingDijkstra(List<LightingPoint> sources) {
-		if (sources.isEmpty())
+
+	/**
+	 * Drain the queues, brightest first. A tile is lit the first time it is reached with
+	 * a value above what it already has, then passes that value minus one (and its own
+	 * light blocking) on to its eight neighbours. Neighbours are only queued when that
+	 * would brighten them, and light only ever flows into darker queues, so each queue
+	 * is complete before it is drained.
+	 */
+	private void spread() {
+		if (queueSizes == null) {
 			return;
-		HashSet<LightingPoint> out = new HashSet<LightingPoint>();
-		PriorityQueue<LightingPoint> in = new PriorityQueue<LightingPoint>(sources.size(),
-				new LightValueComparator());
-		// consider that the input sources are done (this is not a good assumption if different
-		// light sources have different values......)
-		out.addAll(sources);
-		
-		in.addAll(sources);
-		while (!in.isEmpty()) {
-			LightingPoint current = in.poll();
-			out.add(current);
-			
-			if (current.lightValue <= lightValues[current.x][current.y] || current.lightValue < 0) {
-				continue;
-			}
-			lightValues[current.x][current.y] = current.lightValue;
-			lightFlow[current.x][current.y] = current.flow;
-			if (lightFlow[current.x][current.y] == Direction.SOURCE
-					&& current.flow != Direction.SOURCE) {
-				System.out.println("There's a bug in the source map!");
-			}
-			List<LightingPoint> neighbors = current.getNeighbors(isSun, width, height);
-			for (LightingPoint next : neighbors) {
-				if (out.contains(next)) {
+		}
+		for (int value = MAX_LIGHT; value > 0; value--) {
+			int[] positions = queuePositions[value];
+			boolean[] lit = queueLit[value];
+			for (int i = 0; i < queueSizes[value]; i++) {
+				int position = positions[i];
+				int x = position / height;
+				int y = position - x * height;
+				int current = getLightValue(x, y);
+				if (value < current || (value == current && !lit[i])) {
 					continue;
 				}
-				in.add(next);
+				if (value > current) {
+					setLightValue(x, y, value);
+				}
+
+				int blocking = tiles.lightBlocking(x, y);
+				if (blocking == Constants.LIGHT_VALUE_OPAQUE) {
+					continue;
+				}
+				int next = value - 1 - blocking;
+				if (next <= 0) {
+					continue;
+				}
+				boolean up = y > 0;
+				boolean down = y < height - 1;
+				if (x < right - 1) {
+					offer(x + 1, y, next);
+					if (up) {
+						offer(x + 1, y - 1, next);
+					}
+					if (down) {
+						offer(x + 1, y + 1, next);
+					}
+				}
+				if (x > left) {
+					offer(x - 1, y, next);
+					if (up) {
+						offer(x - 1, y - 1, next);
+					}
+					if (down) {
+						offer(x - 1, y + 1, next);
+					}
+				}
+				if (down) {
+					offer(x, y + 1, next);
+				}
+				if (up) {
+					offer(x, y - 1, next);
+				}
 			}
+			queueSizes[value] = 0;
 		}
 	}
-	
-	public Direction oppositeDirection(Direction direction) {
-		switch (direction) {
-		case RIGHT:
-			return Direction.LEFT;
-		case LEFT:
-			return Direction.RIGHT;
-		case UP:
-			return Direction.DOWN;
-		case DOWN:
-			return Direction.UP;
-		case UP_RIGHT:
-			return Direction.DOWN_LEFT;
-		case UP_LEFT:
-			return Direction.DOWN_RIGHT;
-		case DOWN_RIGHT:
-			return Direction.UP_LEFT;
-		case DOWN_LEFT:
-			return Direction.UP_RIGHT;
-		default:
-			return Direction.UNKNOWN;
-		}
-	}
-	
-	public Int2 followDirection(int x, int y, Direction direction) {
-		switch (direction) {
-		case RIGHT:
-			return new Int2(x + 1, y);
-		case LEFT:
-			return new Int2(x - 1, y);
-		case UP:
-			return new Int2(x, y - 1);
-		case DOWN:
-			return new Int2(x, y + 1);
-		case UP_RIGHT:
-			return new Int2(x + 1, y - 1);
-		case UP_LEFT:
-			return new Int2(x - 1, y - 1);
-		case DOWN_RIGHT:
-			return new Int2(x + 1, y + 1);
-		case DOWN_LEFT:
-			return new Int2(x - 1, y + 1);
-		default:
-			return null;
+
+	private void offer(int x, int y, int value) {
+		if (value > getLightValue(x, y)) {
+			enqueue(value, x * height + y, false);
 		}
 	}
 }
@@ -262,9 +262,10 @@ public class Chat {
 	}
 
 	/**
-	 * Add a message to chat
+	 * Add a message to chat. Commands run on the server thread, so this can be called while
+	 * the chat is being drawn.
 	 */
-	public void addMessage(String text, Color color) {
+	public synchronized void addMessage(String text, Color color) {
 		messages.add(new ChatMessage(text, color, currentTick));
 		// Keep only recent messages
 		while (messages.size() > MAX_MESSAGES) {
@@ -279,7 +280,7 @@ public class Chat {
 	/**
 	 * Draw the chat UI
 	 */
-	public void draw(GraphicsHandler g, int screenWidth, int screenHeight) {
+	public synchronized void draw(GraphicsHandler g, int screenWidth, int screenHeight) {
 		currentTick++;
 
 		int y = screenHeight - 180;
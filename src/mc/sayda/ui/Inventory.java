@@ -53,6 +53,32 @@ public class Inventory implements java.io.Serializable {
 		this.craftingHeight = craftingHeight;
 	}
 	
+	/**
+	 * @return a copy of the slots, held item and crafting output, for drawing on another thread
+	 */
+	public Inventory copy() {
+		Inventory copy = new Inventory(inventoryItems.length, inventoryItems[0].length
+				- craftingHeight, craftingHeight);
+		for (int i = 0; i < inventoryItems.length; i++) {
+			for (int j = 0; j < inventoryItems[0].length; j++) {
+				copyItem(inventoryItems[i][j], copy.inventoryItems[i][j]);
+			}
+		}
+		copy.tableSizeAvailable = tableSizeAvailable;
+		copy.hotbarIdx = hotbarIdx;
+		copy.visible = visible;
+		copyItem(holding, copy.holding);
+		copy.holdingX = holdingX;
+		copy.holdingY = holdingY;
+		copyItem(craftable, copy.craftable);
+		return copy;
+	}
+	
+	private static void copyItem(InventoryItem from, InventoryItem to) {
+		to.item = from.item;
+		to.count = from.count;
+	}
+	
 	public void addItem(Item item, int count) {
 		// try active slots
 		int itemsToGo = inventoryItems[0][playerRow].add(item, count);
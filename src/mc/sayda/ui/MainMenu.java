@@ -12,10 +12,12 @@
 
 package mc.sayda.ui;
 
+import mc.sayda.Color;
 import mc.sayda.Game;
 import mc.sayda.GraphicsHandler;
 import mc.sayda.Sprite;
 import mc.sayda.SpriteStore;
+import mc.sayda.world.World;
 
 public class MainMenu {
 
@@ -122,6 +124,16 @@ public class MainMenu {
 		int mouseY = game.getClient().screenMousePos.y;
 		boolean mouseInButtonX = mouseX >= buttonLeft && mouseX <= buttonRight;
 
+		// text button under the sprite buttons for a streaming world
+		final int infiniteTop = 425;
+		final int infiniteHeight = 32;
+		boolean overInfinite = mouseInButtonX && mouseY >= infiniteTop
+				&& mouseY <= infiniteTop + infiniteHeight;
+		g.setColor(overInfinite ? Color.gray : Color.darkGray);
+		g.fillRect(buttonLeft, infiniteTop, buttonWidth, infiniteHeight);
+		g.setColor(Color.white);
+		g.drawString("Infinite", centerX - 22, infiniteTop + 21);
+
 		if (mouseInButtonX && mouseY >= 350 && mouseY <= 350 + buttonHeight) {
 			uiRenderer.drawCenteredX(g, menu_bigDown, 350, buttonWidth, buttonHeight);
 		} else if (mouseInButtonX && mouseY >= 250 && mouseY <= 250 + buttonHeight) {
@@ -136,7 +148,9 @@ public class MainMenu {
 		game.getClient().leftClick = false;
 		newGame = false;
 
-		if (mouseInButtonX && mouseY >= 350 && mouseY <= 350 + buttonHeight) {
+		if (overInfinite) {
+			game.startGame(false, World.INFINITE_WIDTH);
+		} else if (mouseInButtonX && mouseY >= 350 && mouseY <= 350 + buttonHeight) {
 			game.startGame(false, menu_bigWidth);
 		} else if (mouseInButtonX && mouseY >= 250 && mouseY <= 250 + buttonHeight) {
 			game.startGame(false, menu_mediumWidth);
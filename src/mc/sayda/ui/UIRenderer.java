@@ -27,7 +27,7 @@ import mc.sayda.world.World;
  * - Air bubbles (when underwater)
  * - Builder/miner icons (block placement/breaking indicators)
  * - Mouse cursor
- * - FPS counter
+ * - FPS and TPS counter
  * - Background tiles
  */
 public class UIRenderer {
@@ -105,7 +105,7 @@ public class UIRenderer {
 	 * @param cameraY Camera Y position
 	 * @param tileSize Size of tiles in pixels
 	 */
-	public void drawBuildMineIcons(GraphicsHandler g, Player player, float cameraX, float cameraY, int tileSize) {
+	public void drawBuildMineIcons(GraphicsHandler g, Player player, double cameraX, double cameraY, int tileSize) {
 		if (player.handTargetPos.x != -1) {
 			Int2 pos = StockMethods.computeDrawLocationInPlace(cameraX, cameraY, tileSize,
 					tileSize, tileSize, player.handTargetPos.x, player.handTargetPos.y);
@@ -164,13 +164,14 @@ public class UIRenderer {
 	}
 
 	/**
-	 * Draw FPS counter and memory usage in top-left corner
+	 * Draw frame and tick rates and memory usage in top-left corner
 	 * @param g Graphics handler
-	 * @param delta Time delta in milliseconds
+	 * @param framesPerSecond Client frames per second
+	 * @param ticksPerSecond Server ticks per second
 	 */
-	public void drawFPS(GraphicsHandler g, long delta) {
-		String fps = "Fps: " + 1 / ((float) delta / 1000) + "("
-				+ Runtime.getRuntime().freeMemory() / 1024 / 1024 + " / "
+	public void drawFPS(GraphicsHandler g, float framesPerSecond, float ticksPerSecond) {
+		String fps = "Fps: " + Math.round(framesPerSecond) + " Tps: " + Math.round(ticksPerSecond)
+				+ " (" + Runtime.getRuntime().freeMemory() / 1024 / 1024 + " / "
 				+ Runtime.getRuntime().totalMemory() / 1024 / 1024 + ") Free MB";
 		g.setColor(Color.white);
 		g.drawString(fps, 10, 10);
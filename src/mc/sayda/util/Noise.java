@@ -0,0 +1,110 @@
+/*
+ * Copyright 2025 SaydaGames (mc_jojo3)
+ *
+ * This file is part of MCraze
+ *
+ * MCraze is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * MCraze is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with MCraze. If not, see http://www.gnu.org/licenses/.
+ */
+
+package mc.sayda.util;
+
+/**
+ * Stateless, seeded noise functions. Every value is a pure function of
+ * (seed, coordinates), so any part of the world can be generated on its own,
+ * in any order, and always comes out the same.
+ */
+public final class Noise {
+
+	private Noise() {
+	}
+
+	/**
+	 * Mix seed and lattice coordinates into 64 well-distributed bits (splitmix64 finalizer)
+	 */
+	public static long hash(long seed, int x, int y) {
+		long h = seed ^ (x * 0x9E3779B97F4A7C15L) ^ (y * 0xC2B2AE3D27D4EB4FL);
+		h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+		h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+		return h ^ (h >>> 31);
+	}
+
+	/**
+	 * @return a uniform value in [0,1) for the lattice point (x, y)
+	 */
+	public static double unit(long seed, int x, int y) {
+		return (hash(seed, x, y) >>> 11) * 0x1.0p-53;
+	}
+
+	/**
+	 * Smoothly interpolated 1D value noise
+	 * @return a value in [-1,1]
+	 */
+	public static double value1D(long seed, double x) {
+		int x0 = (int) Math.floor(x);
+		double t = x - x0;
+		double a = unit(seed, x0, 0);
+		double b = unit(seed, x0 + 1, 0);
+		return (a + (b - a) * fade(t)) * 2 - 1;
+	}
+
+	/**
+	 * Sum of octaves of 1D value noise, each at twice the frequency and half the amplitude
+	 * @return a value in [-1,1]
+	 */
+	public static double fractal1D(long seed, double x, int octaves) {
+		double sum = 0;
+		double amplitude = 1;
+		double total = 0;
+		for (int i = 0; i < octaves; i++) {
+			sum += value1D(seed + i, x) * amplitude;
+			total += amplitude;
+			x *= 2;
+			amplitude /= 2;
+		}
+		return sum / total;
+	}
+
+	/**
+	 * Smoothly interpolated 2D value noise
+	 * @return a value in [-1,1]
+	 */
+	public static double value2D(long seed, double x, double y) {
+		int x0 = (int) Math.floor(x);
+		int y0 = (int) Math.floor(y);
+		double tx = fade(x - x0);
+		double ty = fade(y - y0);
+		double a = unit(seed, x0, y0);
+		double b = unit(seed, x0 + 1, y0);
+		double c = unit(seed, x0, y0 + 1);
+		double d = unit(seed, x0 + 1, y0 + 1);
+		double top = a + (b - a) * tx;
+		double bottom = c + (d - c) * tx;
+		return (top + (bottom - top) * ty) * 2 - 1;
+	}
+
+	/**
+	 * Sum of octaves of 2D value noise, each at twice the frequency and half the amplitude
+	 * @return a value in [-1,1]
+	 */
+	public static double fractal2D(long seed, double x, double y, int octaves) {
+		double sum = 0;
+		double amplitude = 1;
+		double total = 0;
+		for (int i = 0; i < octaves; i++) {
+			sum += value2D(seed + i, x, y) * amplitude;
+			total += amplitude;
+			x *= 2;
+			y *= 2;
+			amplitude /= 2;
+		}
+		return sum / total;
+	}
+
+	private static double fade(double t) {
+		return t * t * (3 - 2 * t);
+	}
+}
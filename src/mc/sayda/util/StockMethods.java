@@ -20,10 +20,10 @@ public final class StockMethods {
 	public static Boolean onScreen = true;
 	public static Int2 pos = new Int2(0, 0);
 	
-	public static Int2 computeDrawLocationInPlace(float cameraX, float cameraY, int width,
-			int height, int tileSize, float positionX, float positionY) {
-		StockMethods.pos.x = Math.round((positionX - cameraX) * tileSize);
-		StockMethods.pos.y = Math.round((positionY - cameraY) * tileSize);
+	public static Int2 computeDrawLocationInPlace(double cameraX, double cameraY, int width,
+			int height, int tileSize, double positionX, double positionY) {
+		StockMethods.pos.x = (int) Math.round((positionX - cameraX) * tileSize);
+		StockMethods.pos.y = (int) Math.round((positionY - cameraY) * tileSize);
 		onScreen = !(pos.x + tileSize < 0 || pos.x > width * tileSize || pos.y + tileSize < 0 || pos.y > height
 				* tileSize);
 		return StockMethods.pos;
@@ -0,0 +1,280 @@
+/*
+ * Copyright 2025 SaydaGames (mc_jojo3)
+ *
+ * This file is part of MCraze
+ *
+ * MCraze is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * MCraze is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with MCraze. If not, see http://www.gnu.org/licenses/.
+ */
+
+package mc.sayda.world;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import mc.sayda.Constants.TileID;
+
+/**
+ * A 16 tile wide, full height vertical slice of the world.
+ * Owns the tile ids and light data for its columns, a heightmap of where the
+ * sky ends in each column, and a dirty bitset of the tiles changed since the
+ * last clearDirty(). Chunks are the unit for ticking, saving, syncing and
+ * render caching.
+ *
+ * Local coordinates: lx in [0, WIDTH), y in [0, height), stored column-major.
+ */
+public class Chunk implements java.io.Serializable {
+	private static final long serialVersionUID = 1L;
+
+	public static final int SHIFT = 4;
+	public static final int WIDTH = 1 << SHIFT;
+	public static final int MASK = WIDTH - 1;
+
+	/** Light layers */
+	public static final int SUN = 0;
+	public static final int BLOCK = 1;
+	// bit offset of each layer's nibble in a packed light byte
+	private static final int[] LIGHT_SHIFT = { 4, 0 };
+	private static final AtomicInteger nextLineage = new AtomicInteger();
+
+	/** Chunk index; this chunk covers world columns [index * WIDTH, index * WIDTH + WIDTH) */
+	public final int index;
+	public final int height;
+
+	private final byte[] tiles;
+	// sun light in the high nibble, block light in the low nibble. Not serialized: it is
+	// derived from the tiles and recomputed whenever a world is loaded
+	private transient byte[] light;
+	// per column: y of the topmost light-blocking tile, or height if there is none
+	private final int[] skyHeight;
+	private final BitSet dirty;
+	private int version = 0;
+	// version of each WIDTH-tall section (rows [s * WIDTH, s * WIDTH + WIDTH)), for render caches
+	private final int[] sectionVersions;
+	// tiles changed since the chunk was generated or last written to disk
+	private boolean unsaved = false;
+	// shared by a chunk and its copies, so caches can tell a copy from a chunk streamed
+	// in at the same index whose versions happen to match
+	private transient int lineage;
+
+	public Chunk(int index, int height) {
+		this.index = index;
+		this.height = height;
+		this.tiles = new byte[WIDTH * height];
+		this.light = new byte[WIDTH * height];
+		this.dirty = new BitSet(WIDTH * height);
+		this.skyHeight = new int[WIDTH];
+		this.sectionVersions = new int[getSectionCount()];
+		Arrays.fill(tiles, (byte) TileID.AIR.ordinal());
+		Arrays.fill(skyHeight, height);
+		this.lineage = nextLineage.incrementAndGet();
+	}
+
+	private Chunk(Chunk source) {
+		this.index = source.index;
+		this.height = source.height;
+		this.tiles = source.tiles.clone();
+		this.light = source.light.clone();
+		this.dirty = new BitSet();
+		this.skyHeight = source.skyHeight.clone();
+		this.version = source.version;
+		this.sectionVersions = source.sectionVersions.clone();
+		this.lineage = source.lineage;
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		light = new byte[WIDTH * height];
+		lineage = nextLineage.incrementAndGet();
+	}
+
+	/**
+	 * @return a copy of the tiles, light and versions, for reading on another thread while
+	 *         this chunk keeps changing. The dirty set is not copied.
+	 */
+	public Chunk copy() {
+		return new Chunk(this);
+	}
+
+	/**
+	 * @return whether other is this chunk, or a copy of it, at the same version
+	 */
+	public boolean isSameVersion(Chunk other) {
+		return other != null && other.lineage == lineage && other.version == version;
+	}
+
+	/**
+	 * @return an id shared by this chunk and its copies; see copy()
+	 */
+	public int getLineage() {
+		return lineage;
+	}
+
+	private int index(int lx, int y) {
+		return lx * height + y;
+	}
+
+	public int getOrdinal(int lx, int y) {
+		return tiles[index(lx, y)];
+	}
+
+	/**
+	 * Set a tile without marking it dirty (world generation / loading)
+	 */
+	public void initTile(int lx, int y, TileID id) {
+		tiles[index(lx, y)] = (byte) id.ordinal();
+		updateSkyHeight(lx, y, id.ordinal());
+	}
+
+	public void setTile(int lx, int y, TileID id) {
+		int i = index(lx, y);
+		byte ordinal = (byte) id.ordinal();
+		if (tiles[i] != ordinal) {
+			tiles[i] = ordinal;
+			updateSkyHeight(lx, y, ordinal);
+			dirty.set(i);
+			version++;
+			sectionVersions[y >> SHIFT]++;
+			unsaved = true;
+		}
+	}
+
+	/**
+	 * @return the y of the topmost light-blocking tile in column lx, or height if
+	 *         there is none. Every tile above it is open to the sky.
+	 */
+	public int getSkyHeight(int lx) {
+		return skyHeight[lx];
+	}
+
+	private void updateSkyHeight(int lx, int y, int ordinal) {
+		if (TileProperties.LIGHT_BLOCKING[ordinal] != 0) {
+			if (y < skyHeight[lx]) {
+				skyHeight[lx] = y;
+			}
+		} else if (y == skyHeight[lx]) {
+			skyHeight[lx] = findSkyHeight(lx, y + 1);
+		}
+	}
+
+	private int findSkyHeight(int lx, int from) {
+		for (int y = from; y < height; y++) {
+			if (TileProperties.LIGHT_BLOCKING[tiles[index(lx, y)]] != 0) {
+				return y;
+			}
+		}
+		return height;
+	}
+
+	public int getLight(int layer, int lx, int y) {
+		return (light[index(lx, y)] >> LIGHT_SHIFT[layer]) & 0xF;
+	}
+
+	public void setLight(int layer, int lx, int y, int value) {
+		int i = index(lx, y);
+		int shift = LIGHT_SHIFT[layer];
+		int packed = light[i] & 0xFF;
+		int updated = (packed & ~(0xF << shift)) | (value << shift);
+		if (packed != updated) {
+			light[i] = (byte) updated;
+			version++;
+			sectionVersions[y >> SHIFT]++;
+		}
+	}
+
+	/**
+	 * @return both light layers of (lx, y) in one byte; see sunLight() and blockLight()
+	 */
+	public int getPackedLight(int lx, int y) {
+		return light[index(lx, y)] & 0xFF;
+	}
+
+	public static int sunLight(int packed) {
+		return packed >> LIGHT_SHIFT[SUN];
+	}
+
+	public static int blockLight(int packed) {
+		return packed & 0xF;
+	}
+
+	/**
+	 * @return true if any tile changed since the last clearDirty()
+	 */
+	public boolean isDirty() {
+		return !dirty.isEmpty();
+	}
+
+	/**
+	 * @return whether the tile at (lx, y) changed since the last clearDirty()
+	 */
+	public boolean isDirty(int lx, int y) {
+		return dirty.get(index(lx, y));
+	}
+
+	public void clearDirty() {
+		dirty.clear();
+	}
+
+	/**
+	 * Pass each tile changed since the last clearDirty() to sink, then clear them
+	 */
+	public void drainDirty(TileStore.ChangeSink sink) {
+		int baseX = index << SHIFT;
+		for (int i = dirty.nextSetBit(0); i >= 0; i = dirty.nextSetBit(i + 1)) {
+			sink.tileChanged(baseX + i / height, i % height, tiles[i]);
+		}
+		dirty.clear();
+	}
+
+	public boolean hasUnsavedChanges() {
+		return unsaved;
+	}
+
+	/**
+	 * Write the raw tile ordinals; light is derived data and is recomputed on load
+	 */
+	public void writeTiles(DataOutput out) throws IOException {
+		out.write(tiles);
+		unsaved = false;
+	}
+
+	public void readTiles(DataInput in) throws IOException {
+		in.readFully(tiles);
+		for (int lx = 0; lx < WIDTH; lx++) {
+			skyHeight[lx] = findSkyHeight(lx, 0);
+		}
+		version++;
+		for (int section = 0; section < sectionVersions.length; section++) {
+			sectionVersions[section]++;
+		}
+	}
+
+	/**
+	 * @return a counter bumped on every tile or light change, for caches keyed on chunk contents
+	 */
+	public int getVersion() {
+		return version;
+	}
+
+	/**
+	 * @return the number of WIDTH x WIDTH sections the chunk is split into, top to bottom
+	 */
+	public int getSectionCount() {
+		return (height + MASK) >> SHIFT;
+	}
+
+	/**
+	 * @return like getVersion(), but only counting changes to rows [section * WIDTH, section * WIDTH + WIDTH)
+	 */
+	public int getSectionVersion(int section) {
+		return sectionVersions[section];
+	}
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2025 SaydaGames (mc_jojo3)
+ *
+ * This file is part of MCraze
+ *
+ * MCraze is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * MCraze is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with MCraze. If not, see http://www.gnu.org/licenses/.
+ */
+
+package mc.sayda.world;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Reads and writes evicted chunks of a streaming world, one gzipped file per chunk.
+ * Only tile ids are stored; lighting is recomputed when a chunk is loaded.
+ */
+public class ChunkIO {
+	private static final int MAGIC = 0x4D43434B; // "MCCK"
+	private static final int FORMAT_VERSION = 1;
+
+	private final File directory;
+
+	public ChunkIO(File directory) {
+		this.directory = directory;
+	}
+
+	private File fileFor(int chunkIndex) {
+		return new File(directory, "c" + chunkIndex + ".dat");
+	}
+
+	public boolean exists(int chunkIndex) {
+		return fileFor(chunkIndex).isFile();
+	}
+
+	public Chunk read(int chunkIndex, int height) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(
+				new FileInputStream(fileFor(chunkIndex)))));
+		try {
+			if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+				throw new IOException("Bad chunk file header for chunk " + chunkIndex);
+			}
+			if (in.readInt() != chunkIndex || in.readInt() != height) {
+				throw new IOException("Chunk file does not match chunk " + chunkIndex);
+			}
+			Chunk chunk = new Chunk(chunkIndex, height);
+			chunk.readTiles(in);
+			return chunk;
+		} finally {
+			in.close();
+		}
+	}
+
+	public void write(Chunk chunk) throws IOException {
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Could not create chunk directory " + directory);
+		}
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(
+				new FileOutputStream(fileFor(chunk.index)))));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT_VERSION);
+			out.writeInt(chunk.index);
+			out.writeInt(chunk.height);
+			chunk.writeTiles(out);
+		} finally {
+			out.close();
+		}
+	}
+}
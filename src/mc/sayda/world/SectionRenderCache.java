@@ -0,0 +1,153 @@
+/*
+ * Copyright 2025 SaydaGames (mc_jojo3)
+ *
+ * This file is part of MCraze
+ *
+ * MCraze is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * MCraze is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with MCraze. If not, see http://www.gnu.org/licenses/.
+ */
+
+package mc.sayda.world;
+
+import java.util.ArrayList;
+
+import mc.sayda.GraphicsHandler;
+import mc.sayda.Sprite;
+
+/**
+ * Pre-rendered images of the world's tiles, one per Chunk.WIDTH x Chunk.WIDTH section
+ * of a chunk, with their light tint baked in. A section is only re-rendered when its
+ * tiles or light change (Chunk.getSectionVersion), the tile size changes, or daylight
+ * moves to another of DAYLIGHT_STEPS levels, so a frame is a handful of image blits
+ * instead of two draw calls per tile.
+ */
+public class SectionRenderCache {
+	// daylight is baked into the sections rounded to this many levels
+	private static final int DAYLIGHT_STEPS = 32;
+	// sections not drawn for this many frames are dropped
+	private static final int MAX_IDLE_FRAMES = 120;
+	private static final int MAX_FREE_IMAGES = 64;
+
+	private static class Section {
+		int lineage;
+		int version;
+		int daylightStep;
+		int lastFrame;
+		Sprite image;
+	}
+
+	// sections of each drawn chunk index, top to bottom, or null. Indexed like
+	// TileStore's chunks rather than keyed by Chunk so world snapshots' copies of a chunk
+	// (Chunk.copy()) reuse its sections
+	private Section[][] sections = new Section[0][];
+	// images of dropped sections, reused for new ones
+	private final ArrayList<Sprite> freeImages = new ArrayList<Sprite>();
+	private int tileSize;
+	private int frame;
+
+	/**
+	 * Draw the loaded tiles in columns [firstColumn, lastColumn) and rows [firstRow, lastRow)
+	 */
+	public void draw(World world, GraphicsHandler g, int firstColumn, int lastColumn,
+			int firstRow, int lastRow, double cameraX, double cameraY, int tileSize) {
+		if (firstColumn >= lastColumn || firstRow >= lastRow) {
+			return;
+		}
+		if (tileSize != this.tileSize || sections.length != world.tiles.getChunkCount()) {
+			sections = new Section[world.tiles.getChunkCount()][];
+			freeImages.clear();
+			this.tileSize = tileSize;
+		}
+		frame++;
+		int daylightStep = Math.round(world.getDaylight() * DAYLIGHT_STEPS);
+		float daylight = daylightStep / (float) DAYLIGHT_STEPS;
+
+		for (int chunkIndex = firstColumn >> Chunk.SHIFT; chunkIndex <= (lastColumn - 1) >> Chunk.SHIFT; chunkIndex++) {
+			Chunk chunk = world.tiles.getChunk(chunkIndex);
+			if (chunk == null) {
+				continue;
+			}
+			Section[] chunkSections = sections[chunkIndex];
+			if (chunkSections == null) {
+				chunkSections = new Section[chunk.getSectionCount()];
+				sections[chunkIndex] = chunkSections;
+			}
+			for (int row = firstRow >> Chunk.SHIFT; row <= (lastRow - 1) >> Chunk.SHIFT; row++) {
+				Section section = chunkSections[row];
+				int version = chunk.getSectionVersion(row);
+				if (section == null) {
+					section = new Section();
+					section.image = freeImages.isEmpty() ? g.createOffscreen(
+							Chunk.WIDTH * tileSize, Chunk.WIDTH * tileSize) : freeImages
+							.remove(freeImages.size() - 1);
+					// force the first render
+					section.version = version - 1;
+					chunkSections[row] = section;
+				}
+				// a chunk streamed in at the same index has a different lineage
+				if (section.lineage != chunk.getLineage() || section.version != version
+						|| section.daylightStep != daylightStep) {
+					render(world, g, section, chunkIndex, row, daylight);
+					section.lineage = chunk.getLineage();
+					section.version = version;
+					section.daylightStep = daylightStep;
+				}
+				section.lastFrame = frame;
+
+				int posX = (int) Math.round(((chunkIndex << Chunk.SHIFT) - cameraX) * tileSize);
+				int posY = (int) Math.round(((row << Chunk.SHIFT) - cameraY) * tileSize);
+				g.drawImage(section.image, posX, posY);
+			}
+		}
+
+		if (frame % MAX_IDLE_FRAMES == 0) {
+			dropIdleSections();
+		}
+	}
+
+	private void render(World world, GraphicsHandler g, Section section, int chunkIndex, int row,
+			float daylight) {
+		int left = chunkIndex << Chunk.SHIFT;
+		int right = Math.min(left + Chunk.WIDTH, world.width);
+		int top = row << Chunk.SHIFT;
+		int bottom = Math.min(top + Chunk.WIDTH, world.height);
+		g.beginOffscreen(section.image);
+		for (int i = left; i < right; i++) {
+			for (int j = top; j < bottom; j++) {
+				world.drawTile(g, i, j, (i - left) * tileSize, (j - top) * tileSize, tileSize,
+						daylight);
+			}
+		}
+		g.endOffscreen();
+	}
+
+	private void dropIdleSections() {
+		for (int chunkIndex = 0; chunkIndex < sections.length; chunkIndex++) {
+			Section[] chunkSections = sections[chunkIndex];
+			if (chunkSections == null) {
+				continue;
+			}
+			boolean empty = true;
+			for (int row = 0; row < chunkSections.length; row++) {
+				Section section = chunkSections[row];
+				if (section == null) {
+					continue;
+				}
+				if (frame - section.lastFrame >= MAX_IDLE_FRAMES) {
+					chunkSections[row] = null;
+					if (freeImages.size() < MAX_FREE_IMAGES) {
+						freeImages.add(section.image);
+					}
+				} else {
+					empty = false;
+				}
+			}
+			if (empty) {
+				sections[chunkIndex] = null;
+			}
+		}
+	}
+}
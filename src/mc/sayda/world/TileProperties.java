@@ -0,0 +1,57 @@
+/*
+ * Copyright 2025 SaydaGames (mc_jojo3)
+ *
+ * This file is part of MCraze
+ *
+ * MCraze is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * MCraze is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with MCraze. If not, see http://www.gnu.org/licenses/.
+ */
+
+package mc.sayda.world;
+
+import mc.sayda.Constants;
+import mc.sayda.Constants.TileID;
+
+/**
+ * Per-TileID property table, indexed by TileID ordinal.
+ * Built once from Constants.tileTypes so hot paths can answer
+ * "is this passable/liquid/..." with a single array read.
+ */
+public final class TileProperties {
+	/** TileID for each ordinal (cached TileID.values()) */
+	public static final TileID[] IDS = TileID.values();
+
+	/** Shared Tile instance for each ordinal, or null for TileIDs with no tile type */
+	public static final Tile[] TILES = new Tile[IDS.length];
+
+	public static final boolean[] PASSABLE = new boolean[IDS.length];
+	public static final boolean[] LIQUID = new boolean[IDS.length];
+	public static final boolean[] CLIMBABLE = new boolean[IDS.length];
+	public static final int[] LIGHT_BLOCKING = new int[IDS.length];
+	public static final int[] LIGHT_EMITTING = new int[IDS.length];
+
+	static {
+		for (TileID id : IDS) {
+			int i = id.ordinal();
+			Tile tile = Constants.tileTypes.get(id);
+			TILES[i] = tile;
+			if (tile == null) {
+				// NONE: behaves like air for physics, never stored in the world
+				PASSABLE[i] = true;
+				continue;
+			}
+			PASSABLE[i] = tile.type.passable;
+			LIQUID[i] = tile.type.liquid;
+			LIGHT_BLOCKING[i] = tile.type.lightBlocking;
+			LIGHT_EMITTING[i] = tile.type.lightEmitting;
+			CLIMBABLE[i] = tile.type.liquid || id == TileID.WOOD || id == TileID.PLANK
+					|| id == TileID.LADDER;
+		}
+	}
+
+	private TileProperties() {
+	}
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright 2025 SaydaGames (mc_jojo3)
+ *
+ * This file is part of MCraze
+ *
+ * MCraze is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * MCraze is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with MCraze. If not, see http://www.gnu.org/licenses/.
+ */
+
+package mc.sayda.world;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import mc.sayda.Constants.TileID;
+
+/**
+ * World-coordinate view over the chunk array. Tiles are stored as TileID
+ * ordinals inside each Chunk; tile properties are looked up in
+ * TileProperties instead of following Tile -> TileType references.
+ *
+ * Chunk slots may be empty (not loaded). Unloaded tiles read as ADMINITE with
+ * no light, so physics and lighting treat them as a solid, opaque wall, and
+ * writes to them are dropped.
+ *
+ * Coordinates are not bounds checked; callers (World) do that.
+ */
+public class TileStore implements java.io.Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private static final int UNLOADED = TileID.ADMINITE.ordinal();
+
+	/**
+	 * Receives changed tiles, see drainChanges()
+	 */
+	public interface ChangeSink {
+		void tileChanged(int x, int y, int ordinal);
+	}
+
+	public final int width;
+	public final int height;
+	private final Chunk[] chunks;
+	private final ArrayList<Chunk> loaded = new ArrayList<Chunk>();
+
+	/**
+	 * @param allocate create every chunk up front (finite worlds); otherwise all slots start unloaded
+	 */
+	public TileStore(int width, int height, boolean allocate) {
+		this.width = width;
+		this.height = height;
+		this.chunks = new Chunk[(width + Chunk.MASK) >> Chunk.SHIFT];
+		if (allocate) {
+			for (int i = 0; i < chunks.length; i++) {
+				putChunk(new Chunk(i, height));
+			}
+		}
+	}
+
+	/**
+	 * @return a copy of the loaded chunks that is never modified, for reading on another thread.
+	 *         Chunks unchanged since previous (an earlier snapshot, or null) are shared with it.
+	 */
+	public TileStore snapshot(TileStore previous) {
+		TileStore snapshot = new TileStore(width, height, false);
+		for (Chunk chunk : loaded) {
+			Chunk copy = previous == null ? null : previous.chunks[chunk.index];
+			if (!chunk.isSameVersion(copy)) {
+				copy = chunk.copy();
+			}
+			snapshot.putChunk(copy);
+		}
+		return snapshot;
+	}
+
+	/**
+	 * @return whether snapshot(previous) would be the same as previous
+	 */
+	public boolean isSnapshotCurrent(TileStore previous) {
+		if (previous == null || previous.loaded.size() != loaded.size()) {
+			return false;
+		}
+		for (Chunk chunk : loaded) {
+			if (!chunk.isSameVersion(previous.chunks[chunk.index])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Pass every tile set() since the last call to sink, with its current TileID ordinal,
+	 * and forget them. Changes to chunks unloaded since are not reported.
+	 */
+	public void drainChanges(ChangeSink sink) {
+		for (Chunk chunk : loaded) {
+			if (chunk.isDirty()) {
+				chunk.drainDirty(sink);
+			}
+		}
+	}
+
+	/**
+	 * @return the number of chunk slots, loaded or not
+	 */
+	public int getChunkCount() {
+		return chunks.length;
+	}
+
+	/**
+	 * @return the chunk at chunkIndex, or null if it is not loaded
+	 */
+	public Chunk getChunk(int chunkIndex) {
+		return chunks[chunkIndex];
+	}
+
+	/**
+	 * @return the chunk containing world column x, or null if it is not loaded
+	 */
+	public Chunk chunkAt(int x) {
+		return chunks[x >> Chunk.SHIFT];
+	}
+
+	public boolean isLoaded(int x) {
+		return chunks[x >> Chunk.SHIFT] != null;
+	}
+
+	public boolean isChunkLoaded(int chunkIndex) {
+		return chunks[chunkIndex] != null;
+	}
+
+	/**
+	 * @return the loaded chunks, in load order
+	 */
+	public List<Chunk> getLoadedChunks() {
+		return Collections.unmodifiableList(loaded);
+	}
+
+	public void putChunk(Chunk chunk) {
+		Chunk old = chunks[chunk.index];
+		if (old != null) {
+			loaded.remove(old);
+		}
+		chunks[chunk.index] = chunk;
+		loaded.add(chunk);
+	}
+
+	/**
+	 * @return the removed chunk, or null if it was not loaded
+	 */
+	public Chunk removeChunk(int chunkIndex) {
+		Chunk chunk = chunks[chunkIndex];
+		if (chunk != null) {
+			chunks[chunkIndex] = null;
+			loaded.remove(chunk);
+		}
+		return chunk;
+	}
+
+	/**
+	 * @return the TileID ordinal stored at (x, y)
+	 */
+	public int getOrdinal(int x, int y) {
+		Chunk chunk = chunks[x >> Chunk.SHIFT];
+		return chunk == null ? UNLOADED : chunk.getOrdinal(x & Chunk.MASK, y);
+	}
+
+	public TileID get(int x, int y) {
+		return TileProperties.IDS[getOrdinal(x, y)];
+	}
+
+	/**
+	 * Compatibility view for code that still works with shared Tile instances
+	 */
+	public Tile getTile(int x, int y) {
+		return TileProperties.TILES[getOrdinal(x, y)];
+	}
+
+	/**
+	 * Set a tile without marking its chunk dirty (world generation / loading)
+	 */
+	public void init(int x, int y, TileID id) {
+		Chunk chunk = chunks[x >> Chunk.SHIFT];
+		if (chunk != null) {
+			chunk.initTile(x & Chunk.MASK, y, id);
+		}
+	}
+
+	public void set(int x, int y, TileID id) {
+		Chunk chunk = chunks[x >> Chunk.SHIFT];
+		if (chunk != null) {
+			chunk.setTile(x & Chunk.MASK, y, id);
+		}
+	}
+
+	public boolean isPassable(int x, int y) {
+		return TileProperties.PASSABLE[getOrdinal(x, y)];
+	}
+
+	public boolean isLiquid(int x, int y) {
+		return TileProperties.LIQUID[getOrdinal(x, y)];
+	}
+
+	public boolean isClimbable(int x, int y) {
+		return TileProperties.CLIMBABLE[getOrdinal(x, y)];
+	}
+
+	public int lightBlocking(int x, int y) {
+		return TileProperties.LIGHT_BLOCKING[getOrdinal(x, y)];
+	}
+
+	public int lightEmitting(int x, int y) {
+		return TileProperties.LIGHT_EMITTING[getOrdinal(x, y)];
+	}
+
+	/**
+	 * @return the y of the topmost light-blocking tile in column x, or height if none.
+	 *         Unloaded columns are solid, so their sky ends at 0.
+	 */
+	public int skyHeight(int x) {
+		Chunk chunk = chunks[x >> Chunk.SHIFT];
+		return chunk == null ? 0 : chunk.getSkyHeight(x & Chunk.MASK);
+	}
+
+	public int getLight(int layer, int x, int y) {
+		Chunk chunk = chunks[x >> Chunk.SHIFT];
+		return chunk == null ? 0 : chunk.getLight(layer, x & Chunk.MASK, y);
+	}
+
+	/**
+	 * @return the packed sun and block light at (x, y), see Chunk.getPackedLight()
+	 */
+	public int getPackedLight(int x, int y) {
+		Chunk chunk = chunks[x >> Chunk.SHIFT];
+		return chunk == null ? 0 : chunk.getPackedLight(x & Chunk.MASK, y);
+	}
+
+	public void setLight(int layer, int x, int y, int value) {
+		Chunk chunk = chunks[x >> Chunk.SHIFT];
+		if (chunk != null) {
+			chunk.setLight(layer, x & Chunk.MASK, y, value);
+		}
+	}
+}
@@ -12,6 +12,11 @@
 
 package mc.sayda.world;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
 import mc.sayda.Color;
@@ -27,14 +32,19 @@ import mc.sayda.util.StockMethods;
 public class World implements java.io.Serializable {
 	private static final long serialVersionUID = 1L;
 	
-	public Tile[][] tiles;
+	/** Width of a streaming world: 2^16 chunks, with spawn in the middle */
+	public static final int INFINITE_WIDTH = Chunk.WIDTH << 16;
+	// streaming worlds keep chunks within LOAD_RADIUS chunks of a player loaded, and
+	// evict them past UNLOAD_RADIUS so walking back and forth over a border doesn't thrash
+	private static final int LOAD_RADIUS = 4;
+	private static final int UNLOAD_RADIUS = 6;
+	
+	public TileStore tiles;
 	public int width;
 	public int height;
 	public Int2 spawnLocation;
 	
 	private int chunkNeedsUpdate;
-	private int chunkCount;
-	private int chunkWidth = 16;
 	private boolean chunkFillRight = true;
 	private Random random;
 	private long ticksAlive = 0;
@@ -42,6 +52,11 @@ public class World implements java.io.Serializable {
 	private LightingEngine lightingEngineSun;
 	private LightingEngine lightingEngineSourceBlocks;
 	
+	private boolean streaming = false;
+	private long seed;
+	private transient ChunkIO chunkIO;
+	private transient SectionRenderCache renderCache;
+	
 	// private int[] columnHeights;
 	
 	public World(int width, int height, Random random) {
@@ -49,26 +64,231 @@ public class World implements java.io.Serializable {
 		TileID[][] generated = WorldGenerator.generate(width, height, random);
 		WorldGenerator.visibility = null;
 		this.spawnLocation = WorldGenerator.playerLocation;
-		tiles = new Tile[width][height];
+		tiles = new TileStore(width, height, true);
 		// columnHeights = new int[width];
 		for (int i = 0; i < width; i++) {
 			for (int j = 0; j < height; j++) {
-				Tile tile = Constants.tileTypes.get(generated[i][j]);
-				if (tile == null) {
-					tiles[i][j] = Constants.tileTypes.get(TileID.AIR);
-				} else {
-					tiles[i][j] = Constants.tileTypes.get(generated[i][j]);
+				// NONE (and anything else without a tile type) stays AIR
+				if (TileProperties.TILES[generated[i][j].ordinal()] != null) {
+					tiles.init(i, j, generated[i][j]);
 				}
-				
 			}
 		}
 		this.width = width;
 		this.height = height;
-		this.chunkCount = (int) Math.ceil((double) width / chunkWidth);
 		this.chunkNeedsUpdate = 0;
 		this.random = random;
 		lightingEngineSun = new LightingEngine(width, height, tiles, true);
 		lightingEngineSourceBlocks = new LightingEngine(width, height, tiles, false);
+		LightingEngine.lightChunks(tiles);
+	}
+	
+	/**
+	 * Create a finite world with the chunk-local noise generator instead of the
+	 * left-to-right random walk in WorldGenerator.generate.
+	 */
+	public World(int width, int height, long seed) {
+		this.width = width;
+		this.height = height;
+		this.seed = seed;
+		this.random = new Random(seed);
+		this.chunkNeedsUpdate = 0;
+		System.out.println("Seed: " + seed);
+		tiles = new TileStore(width, height, true);
+		WorldGenerator.generateChunks(seed, tiles.getLoadedChunks());
+		lightingEngineSun = new LightingEngine(width, height, tiles, true);
+		lightingEngineSourceBlocks = new LightingEngine(width, height, tiles, false);
+		LightingEngine.lightChunks(tiles);
+		spawnLocation = WorldGenerator.findSpawn(seed, width / 4, width, height);
+	}
+	
+	/**
+	 * Create a streaming world of INFINITE_WIDTH columns. Chunks are generated from the
+	 * seed as players approach (see updateLoadedChunks) and evicted to disk when far away.
+	 */
+	public World(int height, long seed) {
+		this.width = INFINITE_WIDTH;
+		this.height = height;
+		this.seed = seed;
+		this.streaming = true;
+		this.random = new Random(seed);
+		this.chunkNeedsUpdate = 0;
+		System.out.println("Seed: " + seed);
+		tiles = new TileStore(width, height, false);
+		lightingEngineSun = new LightingEngine(width, height, tiles, true);
+		lightingEngineSourceBlocks = new LightingEngine(width, height, tiles, false);
+		spawnLocation = WorldGenerator.findSpawn(seed, width / 2, width, height);
+		updateLoadedChunks(spawnLocation.x);
+	}
+	
+	/**
+	 * Create an empty world for a client to fill in with the chunks a server sends (see
+	 * putChunk). Nothing is generated, and it is never ticked.
+	 */
+	public World(int width, int height) {
+		this.width = width;
+		this.height = height;
+		this.random = new Random();
+		this.spawnLocation = new Int2(width / 2, 0);
+		tiles = new TileStore(width, height, false);
+		lightingEngineSun = new LightingEngine(width, height, tiles, true);
+		lightingEngineSourceBlocks = new LightingEngine(width, height, tiles, false);
+	}
+	
+	private World(World source, TileStore tiles) {
+		this.tiles = tiles;
+		this.width = source.width;
+		this.height = source.height;
+		this.spawnLocation = source.spawnLocation;
+		this.ticksAlive = source.ticksAlive;
+		this.streaming = source.streaming;
+		this.seed = source.seed;
+		this.renderCache = source.renderCache;
+	}
+	
+	/**
+	 * @return a copy of the world's tiles, light and time of day that is never modified, for
+	 *         drawing on another thread. It cannot be edited or ticked. Chunks unchanged since
+	 *         previous (an earlier snapshot of this world, or null) are shared with it, and all
+	 *         snapshots share one render cache.
+	 */
+	public World snapshot(World previous) {
+		if (renderCache == null) {
+			renderCache = new SectionRenderCache();
+		}
+		TileStore previousTiles = previous == null ? null : previous.tiles;
+		if (tiles.isSnapshotCurrent(previousTiles)) {
+			return new World(this, previousTiles);
+		}
+		return new World(this, tiles.snapshot(previousTiles));
+	}
+	
+	/**
+	 * Light is not saved with the chunks; relight the whole world once it is read back
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		LightingEngine.lightChunks(tiles);
+	}
+	
+	public boolean isStreaming() {
+		return streaming;
+	}
+	
+	/**
+	 * Load (or generate) the chunks around each anchor and evict the ones no anchor is near.
+	 * Does nothing for finite worlds, which are always fully loaded.
+	 * @param anchorXs x positions, in tiles, of the players keeping chunks loaded
+	 */
+	public void updateLoadedChunks(double... anchorXs) {
+		if (!streaming) {
+			return;
+		}
+		List<Chunk> loaded = tiles.getLoadedChunks();
+		for (int i = loaded.size() - 1; i >= 0; i--) {
+			int index = loaded.get(i).index;
+			if (!isNearAnchor(index, anchorXs, UNLOAD_RADIUS)) {
+				unloadChunk(index);
+			}
+		}
+		// read saved chunks now, and generate the missing ones together so a batch
+		// (e.g. the whole spawn area) is spread over the generation pool
+		ArrayList<Chunk> fresh = new ArrayList<Chunk>();
+		ArrayList<Chunk> incoming = new ArrayList<Chunk>();
+		for (double anchorX : anchorXs) {
+			int center = (int) anchorX >> Chunk.SHIFT;
+			int first = Math.max(0, center - LOAD_RADIUS);
+			int last = Math.min(tiles.getChunkCount() - 1, center + LOAD_RADIUS);
+			for (int index = first; index <= last; index++) {
+				if (tiles.isChunkLoaded(index) || containsChunk(incoming, index)) {
+					continue;
+				}
+				Chunk chunk = readChunk(index);
+				if (chunk == null) {
+					chunk = new Chunk(index, height);
+					fresh.add(chunk);
+				}
+				incoming.add(chunk);
+			}
+		}
+		WorldGenerator.generateChunks(seed, fresh);
+		for (Chunk chunk : incoming) {
+			putChunk(chunk);
+		}
+	}
+	
+	/**
+	 * Load chunk in place of whatever was at its index, and light it
+	 */
+	public void putChunk(Chunk chunk) {
+		tiles.putChunk(chunk);
+		int left = chunk.index << Chunk.SHIFT;
+		lightingEngineSun.initColumns(left, left + Chunk.WIDTH);
+		lightingEngineSourceBlocks.initColumns(left, left + Chunk.WIDTH);
+	}
+	
+	/**
+	 * Unload the chunk at chunkIndex without saving it, e.g. on a client once it is out
+	 * of view
+	 */
+	public void removeChunk(int chunkIndex) {
+		tiles.removeChunk(chunkIndex);
+	}
+	
+	private static boolean containsChunk(List<Chunk> chunks, int index) {
+		for (Chunk chunk : chunks) {
+			if (chunk.index == index) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	private static boolean isNearAnchor(int chunkIndex, double[] anchorXs, int radius) {
+		for (double anchorX : anchorXs) {
+			if (Math.abs(chunkIndex - ((int) anchorX >> Chunk.SHIFT)) <= radius) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * @return the evicted chunk saved on disk, or null if it has to be generated
+	 */
+	private Chunk readChunk(int index) {
+		ChunkIO io = getChunkIO();
+		if (!io.exists(index)) {
+			return null;
+		}
+		try {
+			return io.read(index, height);
+		} catch (IOException e) {
+			System.err.println("Failed to read chunk " + index + ", regenerating it");
+			e.printStackTrace();
+			return null;
+		}
+	}
+	
+	private void unloadChunk(int index) {
+		Chunk chunk = tiles.removeChunk(index);
+		if (chunk == null || !chunk.hasUnsavedChanges()) {
+			// untouched chunks are regenerated from the seed
+			return;
+		}
+		try {
+			getChunkIO().write(chunk);
+		} catch (IOException e) {
+			System.err.println("Failed to write chunk " + index);
+			e.printStackTrace();
+		}
+	}
+	
+	private ChunkIO getChunkIO() {
+		if (chunkIO == null) {
+			chunkIO = new ChunkIO(new File("MiniCraft_chunks", Long.toHexString(seed)));
+		}
+		return chunkIO;
 	}
 	
 	public void chunkUpdate() {
@@ -79,69 +299,87 @@ public class World implements java.io.Serializable {
 		if (daylightCycle) {
 			ticksAlive++;
 		}
-		for (int i = 0; i < chunkWidth; i++) {
+		// only loaded chunks tick; for finite worlds that is every chunk, in index order
+		List<Chunk> loaded = tiles.getLoadedChunks();
+		int chunkCount = loaded.size();
+		if (chunkCount == 0) {
+			return;
+		}
+		chunkNeedsUpdate %= chunkCount;
+		if (chunkFillRight) {
+			tickChunk(loaded.get(chunkNeedsUpdate), true);
+		} else {
+			tickChunk(loaded.get(chunkCount - 1 - chunkNeedsUpdate), false);
+		}
+		chunkNeedsUpdate = (chunkNeedsUpdate + 1) % chunkCount;
+		if (chunkNeedsUpdate == 0) {
+			chunkFillRight = !chunkFillRight;
+		}
+		
+	}
+	
+	/**
+	 * Random tile updates (grass, sand, saplings, liquids) for one chunk.
+	 * Alternates scan direction so falling/flowing tiles don't favour one side.
+	 */
+	private void tickChunk(Chunk chunk, boolean fillRight) {
+		int chunkX = chunk.index << Chunk.SHIFT;
+		for (int i = 0; i < Chunk.WIDTH; i++) {
+			int x = fillRight ? chunkX + i : chunkX + Chunk.MASK - i;
+			if (x >= width || x < 0) {
+				continue;
+			}
 			boolean isDirectLight = true;
 			for (int j = 0; j < height; j++) {
-				int x = i + chunkWidth * chunkNeedsUpdate;
-				if (x >= width || x < 0) {
-					continue;
-				}
-				int y = j;
-				if (!chunkFillRight) {
-					x = width - 1 - x;
-					y = height - 1 - y;
-				}
-				if (isDirectLight && tiles[x][y].type.name == TileID.DIRT) {
+				int y = fillRight ? j : height - 1 - j;
+				TileID current = tiles.get(x, y);
+				if (isDirectLight && current == TileID.DIRT) {
 					if (random.nextDouble() < .005) {
-						tiles[x][y] = Constants.tileTypes.get(TileID.GRASS);
+						tiles.set(x, y, TileID.GRASS);
 					}
-				} else if (tiles[x][y].type.name == TileID.GRASS
-						&& tiles[x][y - 1].type.name != TileID.AIR
-						&& tiles[x][y - 1].type.name != TileID.LEAVES
-						&& tiles[x][y - 1].type.name != TileID.WOOD) {
+				} else if (current == TileID.GRASS
+						&& tiles.get(x, y - 1) != TileID.AIR
+						&& tiles.get(x, y - 1) != TileID.LEAVES
+						&& tiles.get(x, y - 1) != TileID.WOOD) {
 					if (random.nextDouble() < .25) {
-						tiles[x][y] = Constants.tileTypes.get(TileID.DIRT);
+						tiles.set(x, y, TileID.DIRT);
 					}
-				} else if (tiles[x][y].type.name == TileID.SAND) {
+				} else if (current == TileID.SAND) {
 					if (isAir(x, y + 1) || isLiquid(x, y + 1)) {
-						changeTile(x, y + 1, tiles[x][y]);
-						changeTile(x, y, Constants.tileTypes.get(TileID.AIR));
+						changeTile(x, y + 1, current);
+						changeTile(x, y, TileID.AIR);
 					}
-				} else if (tiles[x][y].type.name == TileID.SAPLING) {
+				} else if (current == TileID.SAPLING) {
 					if (random.nextDouble() < .01) {
 						addTemplate(TileTemplate.tree, x, y);
 					}
-				} else if (tiles[x][y].type.liquid) {
+				} else if (tiles.isLiquid(x, y)) {
 					if (isAir(x + 1, y)) {
-						changeTile(x + 1, y, tiles[x][y]);
+						changeTile(x + 1, y, current);
 					}
 					if (isAir(x - 1, y)) {
-						changeTile(x - 1, y, tiles[x][y]);
+						changeTile(x - 1, y, current);
 					}
 					if (isAir(x, y + 1)) {
-						changeTile(x, y + 1, tiles[x][y]);
+						changeTile(x, y + 1, current);
 					}
 				}
-				if ((!tiles[x][y].type.passable || tiles[x][y].type.liquid)
-						&& tiles[x][y].type.name != TileID.LEAVES) {
+				current = tiles.get(x, y);
+				if ((!tiles.isPassable(x, y) || tiles.isLiquid(x, y))
+						&& current != TileID.LEAVES) {
 					isDirectLight = false;
 				}
 			}
 		}
-		chunkNeedsUpdate = (chunkNeedsUpdate + 1) % chunkCount;
-		if (chunkNeedsUpdate == 0) {
-			chunkFillRight = !chunkFillRight;
-		}
-		
 	}
 	
 	private void addTemplate(TileTemplate tileTemplate, int x, int y) {
 		for (int i = 0; i < tileTemplate.template.length; i++) {
 			for (int j = 0; j < tileTemplate.template[0].length; j++) {
 				if (tileTemplate.template[i][j] != TileID.NONE && x - tileTemplate.spawnY + i >= 0
-						&& x - tileTemplate.spawnY + i < tiles.length
+						&& x - tileTemplate.spawnY + i < width
 						&& y - tileTemplate.spawnX + j >= 0
-						&& y - tileTemplate.spawnX + j < tiles[0].length) {
+						&& y - tileTemplate.spawnX + j < height) {
 					addTile(x - tileTemplate.spawnY + i, y - tileTemplate.spawnX + j,
 							tileTemplate.template[i][j]);
 				}
@@ -149,48 +387,71 @@ public class World implements java.io.Serializable {
 		}
 	}
 	
+	public int getChunkCount() {
+		return tiles.getChunkCount();
+	}
+	
+	/**
+	 * @return the chunk at chunkIndex, or null if it is not loaded
+	 */
+	public Chunk getChunk(int chunkIndex) {
+		return tiles.getChunk(chunkIndex);
+	}
+	
+	/**
+	 * @return whether (x, y) is inside the world and its chunk is loaded
+	 */
+	public boolean isLoaded(int x, int y) {
+		return x >= 0 && x < width && y >= 0 && y < height && tiles.isLoaded(x);
+	}
+	
 	public boolean addTile(Int2 pos, TileID name) {
 		return addTile(pos.x, pos.y, name);
 	}
 
 	public boolean addTile(int x, int y, TileID name) {
-		if (x < 0 || x >= width || y < 0 || y >= height) {
+		if (!isLoaded(x, y)) {
 			return false;
 		}
-		Tile tile = Constants.tileTypes.get(name);
-		if (tile == null) {
+		if (TileProperties.TILES[name.ordinal()] == null) {
 			return false;
 		}
 		if (name == TileID.SAPLING && y + 1 < height) {
-			if (tiles[x][y + 1].type.name != TileID.DIRT
-					&& tiles[x][y + 1].type.name != TileID.GRASS) {
+			if (tiles.get(x, y + 1) != TileID.DIRT && tiles.get(x, y + 1) != TileID.GRASS) {
 				return false;
 			}
 		}
-		tiles[x][y] = tile;
-		lightingEngineSun.addedTile(x, y);
-		lightingEngineSourceBlocks.addedTile(x, y);
+		TileID previous = tiles.get(x, y);
+		tiles.set(x, y, name);
+		updateLight(x, y, previous);
 		return true;
 	}
 	
 	public TileID removeTile(int x, int y) {
-		if (x < 0 || x >= width || y < 0 || y >= height) {
+		if (!isLoaded(x, y)) {
 			return TileID.NONE;
 		}
-		TileID name = tiles[x][y].type.name;
-		tiles[x][y] = Constants.tileTypes.get(TileID.AIR);
-		lightingEngineSun.removedTile(x, y);
-		lightingEngineSourceBlocks.removedTile(x, y);
+		TileID name = tiles.get(x, y);
+		tiles.set(x, y, TileID.AIR);
+		updateLight(x, y, name);
 		return name;
 	}
 	
-	public void changeTile(int x, int y, Tile tile) {
-		tiles[x][y] = tile;
-		if (tile.type.lightBlocking > 0) {
-			lightingEngineSun.addedTile(x, y);
-		} else {
-			lightingEngineSun.removedTile(x, y);
+	public void changeTile(int x, int y, TileID name) {
+		if (!tiles.isLoaded(x)) {
+			return;
 		}
+		TileID previous = tiles.get(x, y);
+		tiles.set(x, y, name);
+		updateLight(x, y, previous);
+	}
+	
+	private void updateLight(int x, int y, TileID previous) {
+		if (tiles.get(x, y) == previous) {
+			return;
+		}
+		lightingEngineSun.tileChanged(x, y, previous);
+		lightingEngineSourceBlocks.tileChanged(x, y, previous);
 	}
 	
 	private TileID[] breakWood = new TileID[] { TileID.WOOD, TileID.PLANK, TileID.CRAFTING_BENCH };
@@ -199,10 +460,10 @@ public class World implements java.io.Serializable {
 	private TileID[] breakDiamond = new TileID[] { TileID.DIAMOND_ORE };
 	
 	public int breakTicks(int x, int y, Item item) {
-		if (x < 0 || x >= width || y < 0 || y >= height) {
+		if (!isLoaded(x, y)) {
 			return Integer.MAX_VALUE;
 		}
-		TileID currentName = tiles[x][y].type.name;
+		TileID currentName = tiles.get(x, y);
 		
 		TileID[] breakType = null; // hand breakable by all
 		for (TileID element : breakWood) {
@@ -267,7 +528,7 @@ public class World implements java.io.Serializable {
 	}
 	
 	public void draw(GraphicsHandler g, int x, int y, int screenWidth, int screenHeight,
-			float cameraX, float cameraY, int tileSize) {
+			double cameraX, double cameraY, int tileSize) {
 		Int2 pos;
 		
 		pos = StockMethods.computeDrawLocationInPlace(cameraX, cameraY, screenWidth, screenHeight,
@@ -279,7 +540,14 @@ public class World implements java.io.Serializable {
 				tileSize, 0, 0);
 		g.setColor(getSkyColor());
 		g.fillRect(pos.x, pos.y, width * tileSize, height * tileSize / 2 - 1);
-		for (int i = 0; i < width; i++) {
+		
+		// only visit the tiles on screen, plus one either side for partially visible ones
+		int firstColumn = Math.max(0, (int) Math.floor(cameraX) - 1);
+		int lastColumn = Math.min(width, (int) Math.ceil(cameraX + (float) screenWidth / tileSize) + 1);
+		int firstRow = Math.max(0, (int) Math.floor(cameraY) - 1);
+		int lastRow = Math.min(height, (int) Math.ceil(cameraY + (float) screenHeight / tileSize) + 1);
+		
+		for (int i = firstColumn; i < lastColumn; i++) {
 			int posX = (int) ((i - cameraX) * tileSize);
 			int posY = (int) ((height - cameraY) * tileSize);
 			if (posX < 0 - tileSize || posX > screenWidth || posY < 0 - tileSize
@@ -290,7 +558,7 @@ public class World implements java.io.Serializable {
 					tileSize);
 		}
 		
-		for (int j = height / 2; j < height; j++) {
+		for (int j = Math.max(height / 2, firstRow); j < lastRow; j++) {
 			int posX = (int) ((-1 - cameraX) * tileSize);
 			int posY = (int) ((j - cameraY) * tileSize);
 			if (!(posX < 0 - tileSize || posX > screenWidth || posY < 0 - tileSize || posY > screenHeight)) {
@@ -305,47 +573,60 @@ public class World implements java.io.Serializable {
 			}
 		}
 		
-		for (int i = 0; i < width; i++) {
-			for (int j = 0; j < height; j++) {
-				int posX = Math.round(((i - cameraX) * tileSize));
-				int posY = Math.round(((j - cameraY) * tileSize));
-				if (posX < 0 - tileSize || posX > screenWidth || posY < 0 - tileSize
-						|| posY > screenHeight) {
-					continue;
-				}
-				
-				int lightIntensity = (int) (getLightValue(i, j) * 255);
-				Color tint = new Color(16, 16, 16, 255 - lightIntensity);
-				
-				if (tiles[i][j].type.name != TileID.AIR) {
-					tiles[i][j].type.sprite.draw(g, posX, posY, tileSize, tileSize, tint);
-				} else {
-					g.setColor(tint);
-					g.fillRect(posX, posY, tileSize, tileSize);
-				}
-			}
+		if (renderCache == null) {
+			renderCache = new SectionRenderCache();
 		}
+		renderCache.draw(this, g, firstColumn, lastColumn, firstRow, lastRow, cameraX, cameraY,
+				tileSize);
+	}
+	
+	/**
+	 * Draw the tile at (x, y), tinted by its light at the given daylight, at (posX, posY)
+	 */
+	void drawTile(GraphicsHandler g, int x, int y, int posX, int posY, int tileSize,
+			float daylight) {
+		int lightIntensity = (int) (getLightValue(x, y, daylight) * 255);
+		Color tint = Color.lightTint(255 - lightIntensity);
+		
+		Tile tile = tiles.getTile(x, y);
+		if (tile.type.name != TileID.AIR) {
+			tile.type.sprite.draw(g, posX, posY, tileSize, tileSize, tint);
+		} else {
+			g.setColor(tint);
+			g.fillRect(posX, posY, tileSize, tileSize);
+		}
+	}
+	
+	/**
+	 * Compatibility view for callers that want the shared Tile instance
+	 * @return the Tile at (x, y), or null when out of bounds
+	 */
+	public Tile getTile(int x, int y) {
+		if (x < 0 || x >= width || y < 0 || y >= height) {
+			return null;
+		}
+		return tiles.getTile(x, y);
 	}
 	
 	public boolean passable(int x, int y) {
 		if (x < 0 || x >= width || y < 0 || y >= height) {
 			return false;
 		}
-		return tiles[x][y].type == null || tiles[x][y].type.passable;
+		return tiles.isPassable(x, y);
 	}
 	
 	public boolean isLiquid(int x, int y) {
 		if (x < 0 || x >= width || y < 0 || y >= height) {
 			return false;
 		}
-		return tiles[x][y].type != null && tiles[x][y].type.liquid;
+		return tiles.isLiquid(x, y);
 	}
 	
 	public boolean isAir(int x, int y) {
 		if (x < 0 || x >= width || y < 0 || y >= height) {
 			return false;
 		}
-		return tiles[x][y].type != null && tiles[x][y].type.name == TileID.AIR;
+		return tiles.get(x, y) == TileID.AIR;
 	}
 	
 	public boolean isBreakable(int x, int y) {
@@ -356,28 +637,30 @@ public class World implements java.io.Serializable {
 		if (x < 0 || x >= width || y < 0 || y >= height) {
 			return false;
 		}
-		return tiles[x][y].type != null
-				&& (tiles[x][y].type.name == TileID.WOOD || tiles[x][y].type.name == TileID.PLANK
-						|| tiles[x][y].type.name == TileID.LADDER || tiles[x][y].type.liquid);
+		return tiles.isClimbable(x, y);
 	}
 	
 	public boolean isCraft(int x, int y) {
 		if (x < 0 || x >= width || y < 0 || y >= height) {
 			return false;
 		}
-		return tiles[x][y].type != null && (tiles[x][y].type.name == TileID.CRAFTING_BENCH);
+		return tiles.get(x, y) == TileID.CRAFTING_BENCH;
 	}
 	
 	/**
 	 * @return a light value [0,1]
 	 **/
 	public float getLightValue(int x, int y) {
+		return getLightValue(x, y, getDaylight());
+	}
+	
+	private float getLightValue(int x, int y, float daylight) {
 		if (Constants.DEBUG_VISIBILITY_ON)
 			return 1;
-		float daylight = getDaylight();
-		float lightValueSun = ((float) lightingEngineSun.getLightValue(x, y))
+		int light = tiles.getPackedLight(x, y);
+		float lightValueSun = ((float) Chunk.sunLight(light))
 				/ Constants.LIGHT_VALUE_SUN * daylight;
-		float lightValueSourceBlocks = ((float) lightingEngineSourceBlocks.getLightValue(x, y))
+		float lightValueSourceBlocks = ((float) Chunk.blockLight(light))
 				/ Constants.LIGHT_VALUE_SUN;
 		if (lightValueSun >= lightValueSourceBlocks)
 			return lightValueSun;
@@ -406,6 +689,13 @@ public class World implements java.io.Serializable {
 		return ((float) (ticksAlive % dayLength)) / dayLength;
 	}
 
+	/**
+	 * Pass every tile changed since the last call to sink; see TileStore.drainChanges()
+	 */
+	public void drainTileChanges(TileStore.ChangeSink sink) {
+		tiles.drainChanges(sink);
+	}
+
 	public long getTicksAlive() {
 		return ticksAlive;
 	}
@@ -13,16 +13,44 @@
 package mc.sayda.world;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import mc.sayda.Constants.TileID;
 import mc.sayda.util.Int2;
+import mc.sayda.util.Noise;
 
 public class WorldGenerator {
 	
 	public static boolean[][] visibility;
 	public static Int2 playerLocation;
 	
+	// salts so each feature draws from its own noise stream
+	private static final long SURFACE_SALT = 0x5EEDL;
+	private static final long DIRT_SALT = 0xD1A7L;
+	private static final long SAND_SALT = 0x5A4DL;
+	private static final long TREE_SALT = 0x7EE5L;
+	private static final long CAVE_SALT = 0xCA7EL;
+	private static final long COAL_SALT = 0xC0A1L;
+	private static final long IRON_SALT = 0x1204L;
+	private static final long DIAMOND_SALT = 0xD1A3L;
+	
+	// value2D thresholds giving roughly the legacy generator's ore density in each depth band
+	private static final double COAL_THRESHOLD = .62;
+	private static final double IRON_THRESHOLD = .73;
+	private static final double DIAMOND_THRESHOLD = .9;
+	// caves stay this far below the surface or sea floor so they never open into water
+	private static final int CAVE_CLEARANCE = 8;
+	// chunks per generation task; smaller bands aren't worth forking
+	private static final int BAND_CHUNKS = 4;
+	
+	private static final int MIN_DIRT_DEPTH = 2;
+	private static final int MAX_DIRT_DEPTH = 5;
+	// a tree rooted at x covers columns [x - spawnY, x - spawnY + template width)
+	private static final int TREE_REACH = TileTemplate.tree.template.length;
+	
 	public static TileID[][] generate(int width, int height, Random random) {
 		TileID[][] world = new TileID[width][height];
 		visibility = new boolean[width][height];
@@ -180,6 +208,173 @@ public class WorldGenerator {
 		return world;
 	}
 	
+	/**
+	 * Generate the terrain for one chunk from seeded coherent noise. Every tile is a
+	 * pure function of (seed, x, y), so chunks can be generated in any order, on any
+	 * thread, without generating their neighbours first, and always come out the same.
+	 */
+	public static void generateChunk(long seed, Chunk chunk) {
+		int height = chunk.height;
+		int median = height / 2;
+		int chunkX = chunk.index << Chunk.SHIFT;
+		for (int lx = 0; lx < Chunk.WIDTH; lx++) {
+			int x = chunkX + lx;
+			int surface = surfaceHeight(seed, x, height);
+			int dirtDepth = MIN_DIRT_DEPTH
+					+ (int) (Noise.unit(seed ^ DIRT_SALT, x, 0) * (MAX_DIRT_DEPTH - MIN_DIRT_DEPTH + 1));
+			chunk.initTile(lx, surface, TileID.GRASS);
+			for (int j = 1; j < dirtDepth && surface + j < height; j++) {
+				chunk.initTile(lx, surface + j, TileID.DIRT);
+			}
+			int caveTop = Math.max(surface, median) + CAVE_CLEARANCE;
+			for (int j = surface + dirtDepth; j < height; j++) {
+				chunk.initTile(lx, j, undergroundTile(seed, x, j, height, j >= caveTop));
+			}
+			
+			// below the median the column is flooded down to a sandy bed
+			if (surface > median) {
+				for (int j = median; j < surface; j++) {
+					chunk.initTile(lx, j, TileID.WATER);
+				}
+				int sandDepth = 1 + (int) (Noise.unit(seed ^ SAND_SALT, x, 0) * 3);
+				for (int j = surface; j < surface + sandDepth && j < height; j++) {
+					chunk.initTile(lx, j, TileID.SAND);
+				}
+			}
+		}
+		
+		// trees rooted just outside this chunk can still reach into it
+		TileTemplate tree = TileTemplate.tree;
+		for (int root = chunkX - TREE_REACH; root < chunkX + Chunk.WIDTH + TREE_REACH; root++) {
+			if (!hasTree(seed, root, height)) {
+				continue;
+			}
+			int rootY = surfaceHeight(seed, root, height) - 1;
+			for (int i = 0; i < tree.template.length; i++) {
+				int lx = root - tree.spawnY + i - chunkX;
+				if (lx < 0 || lx >= Chunk.WIDTH) {
+					continue;
+				}
+				for (int j = 0; j < tree.template[0].length; j++) {
+					int y = rootY - tree.spawnX + j;
+					if (tree.template[i][j] != TileID.NONE && y >= 0 && y < height) {
+						chunk.initTile(lx, y, tree.template[i][j]);
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Generate many chunks at once, split into column bands on the common ForkJoinPool.
+	 * Each band only writes its own chunks, and features crossing a band edge (trees) are
+	 * re-evaluated from the neighbouring roots by generateChunk, so no stitch pass is
+	 * needed and the result is identical to generating the chunks one by one.
+	 */
+	public static void generateChunks(long seed, List<Chunk> chunks) {
+		if (chunks.isEmpty()) {
+			return;
+		}
+		ForkJoinPool.commonPool().invoke(new GenerateBand(seed, chunks, 0, chunks.size()));
+	}
+	
+	private static class GenerateBand extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		
+		private final long seed;
+		private final List<Chunk> chunks;
+		private final int start, end;
+		
+		GenerateBand(long seed, List<Chunk> chunks, int start, int end) {
+			this.seed = seed;
+			this.chunks = chunks;
+			this.start = start;
+			this.end = end;
+		}
+		
+		@Override
+		protected void compute() {
+			if (end - start <= BAND_CHUNKS) {
+				for (int i = start; i < end; i++) {
+					generateChunk(seed, chunks.get(i));
+				}
+				return;
+			}
+			int mid = (start + end) >>> 1;
+			invokeAll(new GenerateBand(seed, chunks, start, mid), new GenerateBand(seed, chunks,
+					mid, end));
+		}
+	}
+	
+	/**
+	 * Stone, ore or cave air below the dirt layer. Ore bands match uniformlyAddMinerals;
+	 * caves cut through stone, iron and diamond but not coal, like the random-walk caves.
+	 */
+	private static TileID undergroundTile(long seed, int x, int y, int height, boolean cavesAllowed) {
+		if (y >= (int) (height * .4) && y < (int) (height * .9)
+				&& Noise.value2D(seed ^ COAL_SALT, x / 3.0, y / 3.0) > COAL_THRESHOLD) {
+			return TileID.COAL_ORE;
+		}
+		if (cavesAllowed) {
+			// ridged noise: tunnels follow the zero crossings and widen with depth
+			double depth = (double) y / height;
+			double tunnelWidth = .02 + .05 * depth;
+			if (Math.abs(Noise.fractal2D(seed ^ CAVE_SALT, x / 40.0, y / 20.0, 3)) < tunnelWidth) {
+				return TileID.AIR;
+			}
+		}
+		if (y >= (int) (height * .9)
+				&& Noise.value2D(seed ^ DIAMOND_SALT, x / 3.0, y / 3.0) > DIAMOND_THRESHOLD) {
+			return TileID.DIAMOND_ORE;
+		}
+		if (y >= (int) (height * .5)
+				&& Noise.value2D(seed ^ IRON_SALT, x / 3.0, y / 3.0) > IRON_THRESHOLD) {
+			return TileID.IRON_ORE;
+		}
+		return TileID.STONE;
+	}
+	
+	/**
+	 * @return the y of the grass tile on top of column x
+	 */
+	public static int surfaceHeight(long seed, int x, int height) {
+		int median = height / 2;
+		double offset = Noise.fractal1D(seed ^ SURFACE_SALT, x / 96.0, 4) * height * .15;
+		int surface = median + (int) Math.round(offset);
+		return Math.max((int) (.25 * height), Math.min((int) (.75 * height), surface));
+	}
+	
+	private static boolean hasTree(long seed, int x, int height) {
+		return Noise.unit(seed ^ TREE_SALT, x, 0) > .8 && surfaceHeight(seed, x, height) <= height / 2;
+	}
+	
+	/**
+	 * Find a dry spawn column with no tree in the way, searching right from startX and
+	 * wrapping around to 0 at width
+	 * @return the player spawn position in tiles, or the surface at startX if no column
+	 *         in [0, width) qualifies
+	 */
+	public static Int2 findSpawn(long seed, int startX, int width, int height) {
+		for (int i = 0; i < width; i++) {
+			int x = (startX + i) % width;
+			int surface = surfaceHeight(seed, x, height);
+			if (surface > height / 2) {
+				continue;
+			}
+			boolean clear = true;
+			for (int root = x - TREE_REACH; root <= x + TREE_REACH; root++) {
+				if (hasTree(seed, root, height)) {
+					clear = false;
+					break;
+				}
+			}
+			if (clear) {
+				return new Int2(x, surface - 2);
+			}
+		}
+		return new Int2(startX, surfaceHeight(seed, startX, height) - 2);
+	}
+	
 	// Density [0,1]
 	private static void uniformlyAddMinerals(TileID[][] world, TileID mineral, float density,
 			int minDepth, int maxDepth, TileID[] ignoreTypes, Random random) {
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2025 SaydaGames (mc_jojo3)
+ *
+ * This file is part of MCraze
+ *
+ * MCraze is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * MCraze is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with MCraze. If not, see http://www.gnu.org/licenses/.
+ */
+
+
+
+package mc.sayda;
+
+import java.io.File;
+
+import mc.sayda.entity.Entity;
+import mc.sayda.server.Server;
+
+/**
+ * A saved game loads back with the player where it was, and with entities that have not
+ * ticked yet: drawn where they are, not sliding in from wherever lastX/lastY say.
+ */
+public class SaveLoadTest {
+	private static final int TICKS = 30;
+
+	public static void main(String[] args) {
+		SpriteStore.useNullSprites();
+		Server saved = new Server(null);
+		saved.startGame(256);
+		saved.player.startRight(false);
+		for (int i = 0; i < TICKS; i++) {
+			saved.tick();
+		}
+		check("the player has ticked", !Double.isNaN(saved.player.lastX));
+		SaveLoad.doSave(saved);
+
+		Server loaded = new Server(null);
+		check("the save loads", SaveLoad.doLoad(loaded, true));
+		new File("MiniCraft.sav").delete();
+		check("the player is where it was saved",
+				loaded.player.x == saved.player.x && loaded.player.y == saved.player.y);
+		for (Entity entity : loaded.entities) {
+			check(entity.getClass().getSimpleName() + " has not ticked",
+					Double.isNaN(entity.lastX) && Double.isNaN(entity.lastY));
+			check(entity.getClass().getSimpleName() + " is drawn where it is",
+					entity.interpolatedX(0) == entity.x && entity.interpolatedY(0) == entity.y);
+		}
+		System.out.println("SaveLoadTest: OK");
+	}
+
+	private static void check(String what, boolean ok) {
+		if (!ok) {
+			throw new AssertionError(what);
+		}
+	}
+}
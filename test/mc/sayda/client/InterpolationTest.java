@@ -0,0 +1,99 @@
+/*
+ * Copyright 2025 SaydaGames (mc_jojo3)
+ *
+ * This file is part of MCraze
+ *
+ * MCraze is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * MCraze is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with MCraze. If not, see http://www.gnu.org/licenses/.
+ */
+
+
+package mc.sayda.client;
+
+import mc.sayda.SpriteStore;
+import mc.sayda.entity.Entity;
+import mc.sayda.network.packet.PacketEntitySpawn;
+import mc.sayda.network.packet.PacketEntityUpdate;
+import mc.sayda.server.Server;
+
+/**
+ * Another player sent every UPDATE_TICKS ticks, one tile further each time, moves smoothly
+ * between the updates when WorldReplica.interpolate() is called every frame, and stops
+ * where the last one put them. Our own player is left to the predictor.
+ */
+public class InterpolationTest {
+	private static final int OURS = 1;
+	private static final int OTHER = 2;
+	private static final int UPDATES = 3;
+	private static final double START_X = 100;
+
+	public static void main(String[] args) {
+		SpriteStore.useNullSprites();
+		WorldReplica replica = new WorldReplica(512, 256, OURS);
+		replica.spawnEntities(spawn(0, OURS, OTHER));
+		for (int i = 1; i <= UPDATES; i++) {
+			replica.updateEntities(moveRight(i * PacketEntityUpdate.UPDATE_TICKS, OTHER));
+		}
+		Entity ours = replica.entities.get(OURS);
+		Entity other = replica.entities.get(OTHER);
+
+		// the updates all arrived now, so the newest is the server's current tick and the
+		// other player is drawn DELAY_TICKS behind it
+		long now = System.nanoTime();
+		double previous = Double.NaN;
+		double maxStep = 0;
+		int frames = 0;
+		for (long t = now; t < now + 2 * WorldReplica.DELAY_TICKS * Server.TICK_NANOS; t += Server.TICK_NANOS / 4) {
+			replica.interpolate(t);
+			if (!Double.isNaN(previous)) {
+				check("never moves back", other.x >= previous);
+				maxStep = Math.max(maxStep, other.x - previous);
+			}
+			previous = other.x;
+			frames++;
+		}
+		// a tile every UPDATE_TICKS ticks is 1/12 tile a quarter tick
+		check("moves in small steps, not a tile at a time: " + maxStep,
+				maxStep < 2.0 / (4 * PacketEntityUpdate.UPDATE_TICKS));
+		check("ends where the last update put it", other.x == START_X + UPDATES);
+		check("our player is not moved", ours.x == START_X);
+		System.out.println("InterpolationTest: OK over " + frames + " frames");
+	}
+
+	private static PacketEntitySpawn spawn(long tick, int... ids) {
+		PacketEntitySpawn packet = new PacketEntitySpawn();
+		packet.tick = tick;
+		packet.entityIds = ids;
+		packet.entityKinds = new int[ids.length];
+		packet.entityX = new int[ids.length];
+		packet.entityY = new int[ids.length];
+		packet.entityWidth = new int[ids.length];
+		packet.entityHeight = new int[ids.length];
+		for (int i = 0; i < ids.length; i++) {
+			packet.entityKinds[i] = PacketEntitySpawn.PLAYER;
+			packet.entityX[i] = PacketEntityUpdate.quantizePosition(START_X);
+			packet.entityY[i] = PacketEntityUpdate.quantizePosition(10);
+			packet.entityWidth[i] = 28;
+			packet.entityHeight[i] = 56;
+		}
+		return packet;
+	}
+
+	private static PacketEntityUpdate moveRight(long tick, int id) {
+		PacketEntityUpdate packet = new PacketEntityUpdate(1);
+		packet.tick = tick;
+		packet.entityIds[0] = id;
+		packet.dirty[0] = PacketEntityUpdate.X;
+		packet.deltaX[0] = PacketEntityUpdate.POSITION_SCALE;
+		return packet;
+	}
+
+	private static void check(String what, boolean ok) {
+		if (!ok) {
+			throw new AssertionError(what);
+		}
+	}
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2025 SaydaGames (mc_jojo3)
+ *
+ * This file is part of MCraze
+ *
+ * MCraze is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * MCraze is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with MCraze. If not, see http://www.gnu.org/licenses/.
+ */
+
+
+package mc.sayda.entity;
+
+import java.util.Random;
+
+import mc.sayda.SpriteStore;
+import mc.sayda.world.World;
+
+/**
+ * A player standing at spawn can walk both ways, in a finite world and at the middle of
+ * a streaming one, where positions are around half a million tiles from 0.
+ */
+public class WalkAtSpawnTest {
+	private static final int TILE_SIZE = 32;
+	private static final int TICKS = 60;
+
+	public static void main(String[] args) {
+		SpriteStore.useNullSprites();
+		walk("finite", new World(512, 256, new Random(42)));
+		walk("streaming", new World(256, 42L));
+		System.out.println("WalkAtSpawnTest: OK");
+	}
+
+	private static void walk(String name, World world) {
+		Player player = new Player(true, world.spawnLocation.x, world.spawnLocation.y,
+				7 * (TILE_SIZE / 8), 14 * (TILE_SIZE / 8));
+		// land first
+		tick(world, player, TICKS);
+		double start = player.x;
+
+		// keep jumping, as a player would, to get over steps in the terrain
+		player.startClimb();
+		player.startRight(false);
+		tick(world, player, TICKS);
+		player.stopRight();
+		double right = player.x;
+		check(name + " walking right", right > start + 1);
+
+		player.startLeft(false);
+		tick(world, player, TICKS);
+		player.stopLeft();
+		player.endClimb();
+		check(name + " walking left", player.x < right - 1);
+	}
+
+	private static void tick(World world, Player player, int ticks) {
+		for (int i = 0; i < ticks; i++) {
+			world.updateLoadedChunks(player.x);
+			player.updatePosition(world, TILE_SIZE);
+		}
+	}
+
+	private static void check(String what, boolean ok) {
+		if (!ok) {
+			throw new AssertionError(what);
+		}
+	}
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2025 SaydaGames (mc_jojo3)
+ *
+ * This file is part of MCraze
+ *
+ * MCraze is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * MCraze is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with MCraze. If not, see http://www.gnu.org/licenses/.
+ */
+
+
+package mc.sayda.server;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+import mc.sayda.SpriteStore;
+import mc.sayda.network.NetworkThread;
+import mc.sayda.network.Packet;
+import mc.sayda.network.SocketConnection;
+import mc.sayda.network.packet.PacketChatMessage;
+import mc.sayda.network.packet.PacketChatSend;
+import mc.sayda.network.packet.PacketPlayerInput;
+
+/**
+ * A server with N simulated clients (16 unless given) over real sockets on 127.0.0.1:
+ * they join, move the way their inputs say, chat, and leave. Two of them misbehave: one
+ * floods the server with inputs, which must not make it move faster than anyone else, and
+ * one sends hotbar slots out of range, which must not stop the server.
+ */
+public class LoopbackTest {
+	private static final int DEFAULT_CLIENTS = 16;
+	private static final long TIMEOUT_MILLIS = 10000;
+	// LivingEntity.walkSpeed, in tiles per tick
+	private static final double WALK_SPEED = .1;
+
+	private static Server server;
+	private static final List<SocketConnection> clients = new ArrayList<>();
+	// chat each client heard, by client
+	private static final ConcurrentHashMap<SocketConnection, List<String>> heard =
+			new ConcurrentHashMap<>();
+	private static volatile boolean draining = true;
+
+	public static void main(String[] args) throws Exception {
+		int count = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CLIENTS;
+		SpriteStore.useNullSprites();
+
+		server = new Server(null);
+		server.execute(() -> server.startWorld(512));
+		// daemons, so a failed check ends the run instead of leaving it waiting on them
+		Thread serverThread = new Thread(server, "Server thread");
+		serverThread.setDaemon(true);
+		serverThread.start();
+		NetworkThread serverNetwork = new NetworkThread("Server network");
+		int port = serverNetwork.listen(0, server::connect);
+		NetworkThread clientNetwork = new NetworkThread("Client network");
+
+		// one at a time, so client i plays session i
+		for (int i = 0; i < count; i++) {
+			SocketConnection client = clientNetwork.connect(new InetSocketAddress("127.0.0.1", port));
+			heard.put(client, Collections.synchronizedList(new ArrayList<String>()));
+			clients.add(client);
+			final int joined = i + 1;
+			waitFor(() -> server.getSessions().size() == joined);
+		}
+		check(count + " clients joined", server.getSessions().size() == count);
+		// a client that stops reading is dropped, so every client keeps reading
+		Thread drainer = new Thread(LoopbackTest::drain, "Client reader");
+		drainer.setDaemon(true);
+		drainer.start();
+
+		walk(count);
+		chat(count);
+		flood();
+		hotbar();
+
+		for (int i = 0; i < count / 2; i++) {
+			clients.get(i).disconnect();
+		}
+		int staying = count - count / 2;
+		waitFor(() -> server.getSessions().size() == staying);
+		check(count / 2 + " clients left", server.getSessions().size() == staying);
+
+		draining = false;
+		drainer.join();
+		server.stop();
+		serverThread.join();
+		clientNetwork.close();
+		serverNetwork.close();
+		System.out.println("LoopbackTest: OK with " + count + " clients");
+	}
+
+	/**
+	 * Every client sends an input a tick for a second, even ones walking right and odd ones
+	 * left, jumping over whatever is in the way
+	 */
+	private static void walk(int count) throws Exception {
+		double[] before = onServer(s -> playerXs(s));
+		for (int tick = 1; tick <= Server.TICKS_PER_SECOND; tick++) {
+			for (int i = 0; i < count; i++) {
+				send(clients.get(i), input(tick, i % 2 == 1, i % 2 == 0, true, 0));
+			}
+			Thread.sleep(Server.TICK_NANOS / 1000000);
+		}
+		// stop, and let the last inputs in
+		for (int i = 0; i < count; i++) {
+			send(clients.get(i), input(Server.TICKS_PER_SECOND + 1, false, false, false, 0));
+		}
+		Thread.sleep(200);
+		double[] after = onServer(s -> playerXs(s));
+		for (int i = 0; i < count; i++) {
+			double moved = after[i] - before[i];
+			check("Player" + (i + 1) + " moved " + (i % 2 == 0 ? "right" : "left") + ": " + moved,
+					i % 2 == 0 ? moved > 1 : moved < -1);
+		}
+	}
+
+	private static void chat(int count) throws Exception {
+		send(clients.get(count - 1), new PacketChatSend("hello"));
+		String expected = "<Player" + count + "> hello";
+		waitFor(() -> heardByAll(expected));
+		check("chat reached every client", heardByAll(expected));
+	}
+
+	/**
+	 * A thousand inputs at once move a player no further than walking for the ticks they
+	 * take to arrive: the server applies one a tick and drops the rest. The player walks back
+	 * the way {@link #walk} took it, where nothing it cannot jump over is in the way
+	 */
+	private static void flood() throws Exception {
+		SocketConnection flooder = clients.get(0);
+		double[] before = onServer(s -> new double[] { s.getSessions().get(0).player.x, s.ticksRunning });
+		for (int i = 0; i < 1000; i++) {
+			flooder.sendPacket(input(1000 + i, true, false, true, 0));
+		}
+		flooder.flush();
+		Thread.sleep(500);
+		double[] after = onServer(s -> new double[] { s.getSessions().get(0).player.x, s.ticksRunning });
+		send(flooder, input(2000, false, false, false, 0));
+
+		double moved = before[0] - after[0];
+		double ticks = after[1] - before[1];
+		check("a flooding client moved " + moved + " in " + ticks + " ticks",
+				moved > 0 && moved <= ticks * WALK_SPEED + 1e-6);
+		check("the server kept up while flooded: " + server.getTicksPerSecond() + " ticks/s",
+				server.getTicksPerSecond() > Server.TICKS_PER_SECOND * .8);
+	}
+
+	/**
+	 * Hotbar slots out of range, with the mouse held down so the selected item is used
+	 */
+	private static void hotbar() throws Exception {
+		SocketConnection client = clients.get(1);
+		PacketPlayerInput high = input(3000, false, false, false, 1000);
+		high.leftClick = true;
+		send(client, high);
+		Thread.sleep(200);
+		double[] slot = onServer(s -> new double[] { s.getSessions().get(1).player.inventory.hotbarIdx });
+		check("hotbar slot 1000 is clamped to " + (int) slot[0], slot[0] == 9);
+
+		PacketPlayerInput low = input(3001, false, false, false, -7);
+		low.leftClick = true;
+		send(client, low);
+		Thread.sleep(200);
+		slot = onServer(s -> new double[] { s.getSessions().get(1).player.inventory.hotbarIdx });
+		check("hotbar slot -7 is clamped to " + (int) slot[0], slot[0] == 0);
+		check("the server is still running", server.isRunning() && client.isConnected());
+	}
+
+	private static PacketPlayerInput input(int sequence, boolean left, boolean right,
+			boolean climb, int hotbarSlot) {
+		PacketPlayerInput input = new PacketPlayerInput(left, right, climb, false, false, 0, 0,
+				hotbarSlot);
+		input.sequence = sequence;
+		return input;
+	}
+
+	private static void send(SocketConnection client, Packet packet) {
+		client.sendPacket(packet);
+		client.flush();
+	}
+
+	private static double[] playerXs(Server server) {
+		List<PlayerSession> sessions = server.getSessions();
+		double[] xs = new double[sessions.size()];
+		for (int i = 0; i < xs.length; i++) {
+			xs[i] = sessions.get(i).player.x;
+		}
+		return xs;
+	}
+
+	/**
+	 * @return query's answer, asked on the server thread between ticks
+	 */
+	private static double[] onServer(Function<Server, double[]> query) throws InterruptedException {
+		double[][] answer = new double[1][];
+		CountDownLatch done = new CountDownLatch(1);
+		server.execute(() -> {
+			answer[0] = query.apply(server);
+			done.countDown();
+		});
+		check("the server thread answers", done.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+		return answer[0];
+	}
+
+	private static boolean heardByAll(String message) {
+		for (SocketConnection client : clients) {
+			if (!heard.get(client).contains(message)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static void drain() {
+		while (draining) {
+			for (SocketConnection client : clients) {
+				for (Packet packet : client.receivePackets()) {
+					if (packet instanceof PacketChatMessage) {
+						heard.get(client).add(((PacketChatMessage) packet).message);
+					}
+				}
+			}
+			try {
+				Thread.sleep(2);
+			} catch (InterruptedException e) {
+				return;
+			}
+		}
+	}
+
+	private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+		long end = System.currentTimeMillis() + TIMEOUT_MILLIS;
+		while (!condition.getAsBoolean() && System.currentTimeMillis() < end) {
+			Thread.sleep(5);
+		}
+	}
+
+	private static void check(String what, boolean ok) {
+		if (!ok) {
+			throw new AssertionError(what);
+		}
+	}
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2025 SaydaGames (mc_jojo3)
+ *
+ * This file is part of MCraze
+ *
+ * MCraze is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * MCraze is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with MCraze. If not, see http://www.gnu.org/licenses/.
+ */
+
+
+package mc.sayda.system;
+
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import mc.sayda.Constants;
+import mc.sayda.world.TileStore;
+
+/**
+ * Lighting from scratch as the engine did it before the bucketed BFS: light spread by
+ * Dijkstra over LightingPoint objects. Kept as the reference LightingTest checks
+ * LightingEngine against. The tile lookups changed from Tile[][] to TileStore, and the
+ * block light sources are now queued for spreading; the old init() only set their own
+ * tile, leaving addedTile() to spread them later. The incremental updates are gone, as
+ * LightingEngine no longer has their quirks.
+ */
+class DijkstraLighting {
+	enum Direction {
+		RIGHT, UP_RIGHT, UP, UP_LEFT, LEFT, DOWN_LEFT, DOWN, DOWN_RIGHT, SOURCE, WELL, UNKNOWN
+	};
+	
+	private Direction[][] lightFlow;
+	
+	private int[][] lightValues;
+	private int width, height;
+	private TileStore tiles;
+	
+	private final boolean isSun;
+	
+	DijkstraLighting(int width, int height, TileStore tiles, boolean isSun) {
+		this.width = width;
+		this.height = height;
+		this.tiles = tiles;
+		this.isSun = isSun;
+		lightValues = new int[width][height];
+		lightFlow = new Direction[width][height];
+		init();
+	}
+	
+	private void init() {
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < height; y++) {
+				lightValues[x][y] = 0;
+				lightFlow[x][y] = Direction.UNKNOWN;
+			}
+		}
+		LinkedList<LightingPoint> sources = new LinkedList<LightingPoint>();
+		if (isSun) {
+			for (int x = 0; x < width; x++) {
+				sources.addAll(getSunSources(x));
+			}
+		} else {
+			for (int x = 0; x < width; x++) {
+				for (int y = 0; y < height; y++) {
+					if (tiles.lightEmitting(x, y) > 0) {
+						sources.add(new LightingPoint(x, y, Direction.SOURCE, tiles.lightEmitting(x, y)));
+					}
+					
+				}
+			}
+		}
+		spreadLightingDijkstra(sources);
+	}
+	
+	int getLightValue(int x, int y) {
+		return lightValues[x][y];
+	}
+	
+	private List<LightingPoint> getSunSources(int column) {
+		LinkedList<LightingPoint> sources = new LinkedList<LightingPoint>();
+		for (int y = 0; y < height - 1; y++) {
+			if (tiles.lightBlocking(column, y) != 0) {
+				break;
+			}
+			sources.add(new LightingPoint(column, y, Direction.SOURCE, Constants.LIGHT_VALUE_SUN));
+		}
+		return sources;
+	}
+	
+	private class LightingPoint {
+		
+		int x, y, lightValue;
+		Direction flow;
+		
+		LightingPoint(int x, int y, Direction flow, int lightValue) {
+			this.x = x;
+			this.y = y;
+			this.flow = flow;
+			this.lightValue = lightValue;
+		}
+		
+		@Override
+		public boolean equals(Object o) {
+			LightingPoint other = (LightingPoint) o;
+			return other.x == this.x && other.y == this.y;
+		}
+		
+		List<LightingPoint> getNeighbors(boolean sun, int width, int height) {
+			List<LightingPoint> neighbors = new LinkedList<LightingPoint>();
+			if (tiles.lightBlocking(x, y) == Constants.LIGHT_VALUE_OPAQUE) {
+				return neighbors;
+			}
+			int newValue = lightValue - 1 - tiles.lightBlocking(x, y);
+			neighbors = getExactNeighbors(width, height, newValue);
+			
+			return neighbors;
+		}
+		
+		List<LightingPoint> getExactNeighbors(int width, int height, int lightingValue) {
+			LinkedList<LightingPoint> neighbors = new LinkedList<LightingPoint>();
+			
+			boolean bufferLeft = (x > 0);
+			boolean bufferRight = (x < width - 1);
+			boolean bufferUp = (y > 0);
+			boolean bufferDown = (y < height - 1);
+			
+			if (bufferRight) {
+				neighbors.add(new LightingPoint(x + 1, y, Direction.RIGHT, lightingValue));
+				if (bufferUp) {
+					neighbors
+							.add(new LightingPoint(x + 1, y - 1, Direction.UP_RIGHT, lightingValue));
+				}
+				if (bufferDown) {
+					neighbors.add(new LightingPoint(x + 1, y + 1, Direction.DOWN_RIGHT,
+							lightingValue));
+				}
+			}
+			if (bufferLeft) {
+				neighbors.add(new LightingPoint(x - 1, y, Direction.LEFT, lightingValue));
+				if (bufferUp) {
+					neighbors
+							.add(new LightingPoint(x - 1, y - 1, Direction.UP_LEFT, lightingValue));
+				}
+				if (bufferDown) {
+					neighbors
+							.add(new LightingPoint(x - 1, y + 1, Direction.UP_LEFT, lightingValue));
+				}
+			}
+			if (bufferDown) {
+				neighbors.add(new LightingPoint(x, y + 1, Direction.DOWN, lightingValue));
+			}
+			if (bufferUp) {
+				neighbors.add(new LightingPoint(x, y - 1, Direction.UP, lightingValue));
+			}
+			return neighbors;
+		}
+		
+		@Override
+		public int hashCode() {
+			return x * 13 + y * 17;
+			
+		}
+	}
+	
+	private void spreadLightingDijkstra(List<LightingPoint> sources) {
+		if (sources.isEmpty())
+			return;
+		HashSet<LightingPoint> out = new HashSet<LightingPoint>();
+		PriorityQueue<LightingPoint> in = new PriorityQueue<LightingPoint>(sources.size(),
+				(a, b) -> Integer.compare(b.lightValue, a.lightValue));
+		// consider that the input sources are done (this is not a good assumption if different
+		// light sources have different values......)
+		out.addAll(sources);
+		
+		in.addAll(sources);
+		while (!in.isEmpty()) {
+			LightingPoint current = in.poll();
+			out.add(current);
+			
+			if (current.lightValue <= lightValues[current.x][current.y] || current.lightValue < 0) {
+				continue;
+			}
+			lightValues[current.x][current.y] = current.lightValue;
+			lightFlow[current.x][current.y] = current.flow;
+			List<LightingPoint> neighbors = current.getNeighbors(isSun, width, height);
+			for (LightingPoint next : neighbors) {
+				if (out.contains(next)) {
+					continue;
+				}
+				in.add(next);
+			}
+		}
+	}
+}
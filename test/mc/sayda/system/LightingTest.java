@@ -0,0 +1,112 @@
+/*
+ * Copyright 2025 SaydaGames (mc_jojo3)
+ *
+ * This file is part of MCraze
+ *
+ * MCraze is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * MCraze is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with MCraze. If not, see http://www.gnu.org/licenses/.
+ */
+
+
+package mc.sayda.system;
+
+import java.util.Random;
+
+import mc.sayda.SpriteStore;
+import mc.sayda.Constants.TileID;
+import mc.sayda.world.Chunk;
+import mc.sayda.world.TileStore;
+import mc.sayda.world.World;
+
+/**
+ * After each random edit, the light World.addTile() and removeTile() leave behind must
+ * be exactly what the old Dijkstra spreading (DijkstraLighting) gives for the same
+ * tiles, and what LightingEngine.lightChunks() gives lighting them from scratch.
+ */
+public class LightingTest {
+	private static final int WIDTH = 128;
+	private static final int HEIGHT = 96;
+	private static final int WORLDS = 6;
+	private static final int EDITS = 400;
+	private static final TileID[] PLACED = { TileID.STONE, TileID.TORCH, TileID.DIRT, TileID.LEAVES,
+			TileID.WATER, TileID.SAND, TileID.LADDER, TileID.PLANK };
+
+	public static void main(String[] args) {
+		SpriteStore.useNullSprites();
+		int[] sun = new int[WIDTH * HEIGHT];
+		int[] block = new int[WIDTH * HEIGHT];
+		for (int w = 0; w < WORLDS; w++) {
+			Random random = new Random(w);
+			World world = w % 2 == 0 ? new World(WIDTH, HEIGHT, (long) w) : new World(WIDTH, HEIGHT, new Random(w));
+			TileStore tiles = world.tiles;
+			int generated = countDiffs(tiles);
+			check("world " + w + ": " + generated + " tiles differ from the Dijkstra engine", generated == 0);
+			for (int e = 0; e < EDITS; e++) {
+				int x = random.nextInt(WIDTH);
+				int y = random.nextInt(HEIGHT);
+				if (random.nextBoolean()) {
+					world.removeTile(x, y);
+				} else {
+					world.addTile(x, y, PLACED[random.nextInt(PLACED.length)]);
+				}
+				String edit = "world " + w + " edit " + e + " at " + x + "," + y + ": ";
+				int diffs = countDiffs(tiles);
+				check(edit + diffs + " tiles differ from the Dijkstra engine", diffs == 0);
+
+				copyLight(tiles, Chunk.SUN, sun);
+				copyLight(tiles, Chunk.BLOCK, block);
+				LightingEngine.lightChunks(tiles);
+				diffs = countDiffs(tiles, Chunk.SUN, sun) + countDiffs(tiles, Chunk.BLOCK, block);
+				check(edit + diffs + " tiles differ from a full relight", diffs == 0);
+			}
+		}
+		System.out.println("LightingTest: OK after " + WORLDS * EDITS + " edits");
+	}
+
+	private static void copyLight(TileStore tiles, int layer, int[] light) {
+		for (int x = 0; x < WIDTH; x++) {
+			for (int y = 0; y < HEIGHT; y++) {
+				light[x * HEIGHT + y] = tiles.getLight(layer, x, y);
+			}
+		}
+	}
+
+	private static int countDiffs(TileStore tiles, int layer, int[] light) {
+		int diffs = 0;
+		for (int x = 0; x < WIDTH; x++) {
+			for (int y = 0; y < HEIGHT; y++) {
+				if (light[x * HEIGHT + y] != tiles.getLight(layer, x, y)) {
+					diffs++;
+				}
+			}
+		}
+		return diffs;
+	}
+
+	/**
+	 * @return how many tiles' light differs from DijkstraLighting's on the same tiles
+	 */
+	private static int countDiffs(TileStore tiles) {
+		DijkstraLighting sun = new DijkstraLighting(WIDTH, HEIGHT, tiles, true);
+		DijkstraLighting block = new DijkstraLighting(WIDTH, HEIGHT, tiles, false);
+		int diffs = 0;
+		for (int x = 0; x < WIDTH; x++) {
+			for (int y = 0; y < HEIGHT; y++) {
+				if (tiles.getLight(Chunk.SUN, x, y) != sun.getLightValue(x, y)
+						|| tiles.getLight(Chunk.BLOCK, x, y) != block.getLightValue(x, y)) {
+					diffs++;
+				}
+			}
+		}
+		return diffs;
+	}
+
+	private static void check(String what, boolean ok) {
+		if (!ok) {
+			throw new AssertionError(what);
+		}
+	}
+}